@@ -1,6 +1,10 @@
-import { Component } from '@angular/core';
+import {Component, OnDestroy, OnInit} from '@angular/core';
 import {RouterLink, RouterLinkActive} from "@angular/router";
 import {MatIcon} from "@angular/material/icon";
+import {NgForOf} from "@angular/common";
+import {catchError, debounceTime, distinctUntilChanged, map, of, Subject, Subscription, switchMap} from "rxjs";
+import {SearchService} from "../../../service/search.service";
+import {Suggestion} from "../../../shared/model/suggestion";
 
 @Component({
   selector: 'main-header',
@@ -8,11 +12,37 @@ import {MatIcon} from "@angular/material/icon";
   imports: [
     RouterLink,
     RouterLinkActive,
-    MatIcon
+    MatIcon,
+    NgForOf
   ],
   templateUrl: './main-header.component.html',
   styleUrl: './main-header.component.scss'
 })
-export class MainHeaderComponent {
+export class MainHeaderComponent implements OnInit, OnDestroy {
+  suggestions: Suggestion[] = [];
+  private typed = new Subject<string>();
+  private subscription?: Subscription;
 
+  constructor(private searchService: SearchService) {
+  }
+
+  ngOnInit(): void {
+    this.subscription = this.typed.pipe(
+      map(text => text.trim()),
+      debounceTime(150),
+      distinctUntilChanged(),
+      switchMap(prefix => prefix.length < 2 ? of([]) : this.searchService.suggest(prefix).pipe(
+        map(response => response.body),
+        catchError(() => of([]))
+      ))
+    ).subscribe(suggestions => this.suggestions = suggestions);
+  }
+
+  ngOnDestroy(): void {
+    this.subscription?.unsubscribe();
+  }
+
+  onType(text: string) {
+    this.typed.next(text);
+  }
 }
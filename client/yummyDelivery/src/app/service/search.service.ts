@@ -0,0 +1,19 @@
+import {Injectable} from '@angular/core';
+import {HttpClient} from "@angular/common/http";
+import {ApiResponse} from "../shared/model/api-response";
+import {environment} from "../../environments/environment";
+import {Suggestion} from "../shared/model/suggestion";
+
+@Injectable({
+  providedIn: 'root'
+})
+export class SearchService {
+  private apiBaseUrl = environment.apiBaseUrl;
+
+  constructor(private http: HttpClient) {
+  }
+
+  suggest(prefix: string) {
+    return this.http.get<ApiResponse<Suggestion[]>>(`${this.apiBaseUrl}/search/suggest`, {params: {q: prefix}});
+  }
+}
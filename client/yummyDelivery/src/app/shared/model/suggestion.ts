@@ -0,0 +1,6 @@
+export interface Suggestion {
+  text: string;
+  productId?: number;
+  productType?: string;
+  thumbnailImageURL?: string;
+}
@@ -1,20 +1,29 @@
 package yummydelivery.server.api;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.cache.CatalogVersion;
+import yummydelivery.server.cache.MenuResponseCache;
+import yummydelivery.server.cache.MenuResponseCache.EncodedResponse;
 import yummydelivery.server.dto.BeverageDTO.BeverageDTO;
 import yummydelivery.server.dto.ResponseDTO;
 import yummydelivery.server.dto.view.BeverageView;
+import yummydelivery.server.enums.MenuSortEnum;
 import yummydelivery.server.service.BeverageService;
 import yummydelivery.server.service.FoodService;
+import yummydelivery.server.service.ProductPopularityService;
 import yummydelivery.server.utils.CommonUtils;
 
 import static yummydelivery.server.config.ApplicationConstants.API_BASE;
@@ -25,21 +34,33 @@ public class BeverageController {
     private final BeverageService beverageService;
     private final FoodService foodService;
     private final CommonUtils utils;
+    private final CatalogVersion catalogVersion;
+    private final MenuResponseCache menuResponseCache;
+    private final ProductPopularityService popularity;
 
-    public BeverageController(BeverageService beverageService, FoodService foodService, CommonUtils utils) {
+    public BeverageController(BeverageService beverageService, FoodService foodService, CommonUtils utils,
+                              CatalogVersion catalogVersion, MenuResponseCache menuResponseCache,
+                              ProductPopularityService popularity) {
         this.beverageService = beverageService;
         this.foodService = foodService;
         this.utils = utils;
+        this.catalogVersion = catalogVersion;
+        this.menuResponseCache = menuResponseCache;
+        this.popularity = popularity;
     }
 
     @Operation(summary = "Get Beverage by Id",
             description = "Retrieve details of a specific beverage based on its unique identifier.")
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDTO<BeverageView>> getBeverageById(@PathVariable Long id) {
+    public ResponseEntity<ResponseDTO<BeverageView>> getBeverageById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogVersion.checkNotModified(webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         BeverageView beverageView = beverageService.getBeverageById(id);
 
         return ResponseEntity
                 .status(HttpStatus.OK)
+                .cacheControl(CacheControl.noCache())
                 .body(
                         ResponseDTO
                                 .<BeverageView>builder()
@@ -49,19 +70,45 @@ public class BeverageController {
                 );
     }
 
-    @Operation(summary = "Get all beverages from the menu (Paginated)")
+    @Operation(summary = "Get all beverages from the menu (Paginated)",
+            description = "Answers If-None-Match with 304 while the catalog is unchanged. " +
+                    "sort=popularity orders the beverages by units sold in the last week.")
     @GetMapping
-    public ResponseEntity<ResponseDTO<Page<BeverageView>>> getAllBeverages(@RequestParam(defaultValue = "0") int page) {
-        Page<BeverageView> beverageDTOS = beverageService.getAllBeverages(page);
-        return ResponseEntity
+    public ResponseEntity<byte[]> getAllBeverages(@RequestParam(defaultValue = "0") int page,
+                                                  @Parameter(example = "popularity") @RequestParam(required = false) String sort,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                  WebRequest webRequest) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        MenuSortEnum sortOrder = MenuSortEnum.of(sort);
+        boolean gzip = EncodedResponse.acceptsGzip(acceptEncoding);
+        long popularityVersion = popularity.version();
+        boolean notModified = sortOrder == MenuSortEnum.POPULARITY
+                ? catalogVersion.checkNotModified(webRequest, popularityVersion, gzip)
+                : catalogVersion.checkNotModified(webRequest, gzip);
+        if (notModified) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        EncodedResponse response = menuResponseCache.getBeverages(page, sortOrder, popularityVersion, () -> ResponseDTO
+                .<Page<BeverageView>>builder()
+                .statusCode(HttpStatus.OK.value())
+                .body(sortOrder == MenuSortEnum.POPULARITY
+                        ? beverageService.getAllBeveragesByPopularity(page)
+                        : beverageService.getAllBeverages(page))
+                .build());
+        ResponseEntity.BodyBuilder ok = ResponseEntity
                 .status(HttpStatus.OK)
-                .body(
-                        ResponseDTO
-                                .<Page<BeverageView>>builder()
-                                .statusCode(HttpStatus.OK.value())
-                                .body(beverageDTOS)
-                                .build()
-                );
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ok.body(gzip ? response.gzip() : response.json());
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -1,12 +1,16 @@
 package yummydelivery.server.api;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import yummydelivery.server.dto.CartSyncDTO;
 import yummydelivery.server.dto.ResponseDTO;
 import yummydelivery.server.dto.ShoppingCartDTO;
 import yummydelivery.server.service.CartService;
+import yummydelivery.server.utils.CommonUtils;
 
 import static yummydelivery.server.config.ApplicationConstants.API_BASE;
 
@@ -15,9 +19,11 @@ import static yummydelivery.server.config.ApplicationConstants.API_BASE;
 public class CartController {
 
     private final CartService cartService;
+    private final CommonUtils utils;
 
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, CommonUtils utils) {
         this.cartService = cartService;
+        this.utils = utils;
     }
     @Operation(summary = "Add new item to user shopping cart by Id")
     @PostMapping("/menu/addToCart/{productId}")
@@ -61,4 +67,31 @@ public class CartController {
                                 .build()
                 );
     }
+    @Operation(summary = "Apply a batch of quantity changes to user shopping cart")
+    @PostMapping("/shoppingCart/items")
+    public ResponseEntity<ResponseDTO<ShoppingCartDTO>> syncCart(@Valid @RequestBody CartSyncDTO cartSyncDTO,
+                                                                 BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            String errors = utils.collectErrorMessagesToString(bindingResult);
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(
+                            ResponseDTO
+                                    .<ShoppingCartDTO>builder()
+                                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                                    .message(errors)
+                                    .build()
+                    );
+        }
+        ShoppingCartDTO userCart = cartService.applyCartChanges(cartSyncDTO.getItems());
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(
+                        ResponseDTO
+                                .<ShoppingCartDTO>builder()
+                                .statusCode(HttpStatus.OK.value())
+                                .body(userCart)
+                                .build()
+                );
+    }
 }
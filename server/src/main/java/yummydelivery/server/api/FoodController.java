@@ -5,38 +5,89 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.cache.CatalogVersion;
+import yummydelivery.server.cache.MenuResponseCache;
+import yummydelivery.server.cache.MenuResponseCache.EncodedResponse;
 import yummydelivery.server.dto.ResponseDTO;
 import yummydelivery.server.dto.foodDTO.AddFoodDTO;
 import yummydelivery.server.dto.foodDTO.FoodDTO;
 import yummydelivery.server.dto.foodDTO.UpdateFoodDTO;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.MenuSortEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
 import yummydelivery.server.service.FoodService;
+import yummydelivery.server.service.ProductPopularityService;
 import yummydelivery.server.utils.CommonUtils;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static yummydelivery.server.config.ApplicationConstants.API_BASE;
 
 @RestController()
 @RequestMapping(API_BASE + "/foods")
 public class FoodController {
+    private static final int MAX_BEST_SELLERS = 50;
+    private static final CacheControl BEST_SELLERS_CACHE = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+
     private final FoodService foodService;
     private final CommonUtils utils;
+    private final CatalogVersion catalogVersion;
+    private final MenuResponseCache menuResponseCache;
+    private final ProductPopularityService popularity;
 
-    public FoodController(FoodService foodService, CommonUtils utils) {
+    public FoodController(FoodService foodService, CommonUtils utils, CatalogVersion catalogVersion,
+                          MenuResponseCache menuResponseCache, ProductPopularityService popularity) {
         this.foodService = foodService;
         this.utils = utils;
+        this.catalogVersion = catalogVersion;
+        this.menuResponseCache = menuResponseCache;
+        this.popularity = popularity;
+    }
+
+    @Operation(summary = "Get the best selling foods",
+            description = "Ranked by units sold in the last HOUR, DAY or WEEK. The ranking is refreshed about once a minute.")
+    @GetMapping("/popular")
+    public ResponseEntity<ResponseDTO<List<FoodDTO>>> getBestSellingFoods(
+            @RequestParam(defaultValue = "DAY") SalesWindowEnum window,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_BEST_SELLERS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_BEST_SELLERS);
+        }
+        List<FoodDTO> bestSellers = foodService.getBestSellingFoods(window, limit);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .cacheControl(BEST_SELLERS_CACHE)
+                .body(
+                        ResponseDTO
+                                .<List<FoodDTO>>builder()
+                                .statusCode(HttpStatus.OK.value())
+                                .body(bestSellers)
+                                .build()
+                );
     }
 
-    @Operation(summary = "Get food by Id")
+    @Operation(summary = "Get food by Id",
+            description = "Answers If-None-Match with 304 while the catalog is unchanged.")
     @GetMapping("/{id}")
-    public ResponseEntity<ResponseDTO<FoodDTO>> getFoodById(@PathVariable Long id) {
+    public ResponseEntity<ResponseDTO<FoodDTO>> getFoodById(@PathVariable Long id, WebRequest webRequest) {
+        if (catalogVersion.checkNotModified(webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         FoodDTO foodDTO = foodService.getFoodById(id);
         return ResponseEntity
                 .status(HttpStatus.OK)
+                .cacheControl(CacheControl.noCache())
                 .body(
                         ResponseDTO
                                 .<FoodDTO>builder()
@@ -77,22 +128,48 @@ public class FoodController {
                 );
     }
 
-    @Operation(summary = "Get all foods by food type (Paginated)")
+    @Operation(summary = "Get all foods by food type (Paginated)",
+            description = "Answers If-None-Match with 304 while the catalog is unchanged. " +
+                    "sort=popularity orders the foods by units sold in the last week.")
     @GetMapping()
-    public ResponseEntity<ResponseDTO<Page<FoodDTO>>> getFoodsByType(@Parameter(description = "Pick one of the valid types of food:", in = ParameterIn.QUERY,
+    public ResponseEntity<byte[]> getFoodsByType(@Parameter(description = "Pick one of the valid types of food:", in = ParameterIn.QUERY,
             example = "pizza, pasta, risotto, salad, starter, dessert") @RequestParam String foodType,
-                                                                     @RequestParam(defaultValue = "0") int page) {
-
-        Page<FoodDTO> foodsByType = foodService.getAllFoodsByType(foodType, page);
-        return ResponseEntity
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @Parameter(example = "popularity") @RequestParam(required = false) String sort,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                 WebRequest webRequest) {
+        FoodTypeEnum foodTypeEnum = FoodTypeEnum.valueOf(foodType.toUpperCase());
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        MenuSortEnum sortOrder = MenuSortEnum.of(sort);
+        boolean gzip = EncodedResponse.acceptsGzip(acceptEncoding);
+        long popularityVersion = popularity.version();
+        boolean notModified = sortOrder == MenuSortEnum.POPULARITY
+                ? catalogVersion.checkNotModified(webRequest, popularityVersion, gzip)
+                : catalogVersion.checkNotModified(webRequest, gzip);
+        if (notModified) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        EncodedResponse response = menuResponseCache.getFoods(foodTypeEnum, page, sortOrder, popularityVersion, () -> ResponseDTO
+                .<Page<FoodDTO>>builder()
+                .statusCode(HttpStatus.OK.value())
+                .body(sortOrder == MenuSortEnum.POPULARITY
+                        ? foodService.getAllFoodsByTypeByPopularity(foodType, page)
+                        : foodService.getAllFoodsByType(foodType, page))
+                .build());
+        ResponseEntity.BodyBuilder ok = ResponseEntity
                 .status(HttpStatus.OK)
-                .body(
-                        ResponseDTO
-                                .<Page<FoodDTO>>builder()
-                                .statusCode(HttpStatus.OK.value())
-                                .body(foodsByType)
-                                .build()
-                );
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ok.body(gzip ? response.gzip() : response.json());
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -0,0 +1,71 @@
+package yummydelivery.server.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import yummydelivery.server.storage.ImageStore;
+import yummydelivery.server.storage.LocalImageStore;
+import yummydelivery.server.storage.StoredImage;
+import yummydelivery.server.utils.ImageResizer;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static yummydelivery.server.config.ApplicationConstants.API_BASE;
+
+@RestController
+@RequestMapping(API_BASE + "/images")
+public class ImageController {
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final ImageStore imageStore;
+
+    public ImageController(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    @Operation(summary = "Get a product image from the local image store",
+            description = "Image keys include a hash of their content, so responses can be cached for a year. " +
+                    "Clients that accept image/webp get the WebP encoding when one is stored.")
+    @GetMapping("/{key:.+}")
+    public ResponseEntity<byte[]> getImage(@PathVariable String key,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                           WebRequest webRequest) {
+        String servedKey = key;
+        Optional<StoredImage> stored = Optional.empty();
+        if (accept != null && accept.contains(LocalImageStore.WEBP_CONTENT_TYPE)) {
+            servedKey = LocalImageStore.alternateKey(key, ImageResizer.WEBP);
+            stored = imageStore.find(servedKey);
+        }
+        if (stored.isEmpty()) {
+            servedKey = key;
+            stored = imageStore.find(key);
+        }
+        if (stored.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // The key already names the content and its encoding, so it is the validator; nothing is hashed per request.
+        if (webRequest.checkNotModified("\"" + servedKey + "\"")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(IMMUTABLE)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        StoredImage image = stored.get();
+        return ResponseEntity.ok()
+                .cacheControl(IMMUTABLE)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .body(image.content());
+    }
+}
@@ -5,8 +5,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import yummydelivery.server.dto.CursorSliceDTO;
 import yummydelivery.server.dto.ResponseDTO;
 import yummydelivery.server.dto.view.OrderView;
+import yummydelivery.server.service.CheckoutIdempotencyService;
 import yummydelivery.server.service.OrderService;
 
 import static yummydelivery.server.config.ApplicationConstants.API_BASE;
@@ -14,22 +16,39 @@ import static yummydelivery.server.config.ApplicationConstants.API_BASE;
 @RestController
 @RequestMapping(API_BASE + "/orders")
 public class OrderController {
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final CheckoutIdempotencyService checkoutIdempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, CheckoutIdempotencyService checkoutIdempotencyService) {
         this.orderService = orderService;
+        this.checkoutIdempotencyService = checkoutIdempotencyService;
     }
-    @Operation(summary = "Create new order by address Id")
+    @Operation(summary = "Create new order by address Id",
+            description = "Send an Idempotency-Key header to make retries safe: a repeated key returns the original order instead of creating a new one.")
     @PostMapping("/{addressId}")
-    public ResponseEntity<ResponseDTO<Void>> createOrderForSelectedAddress(@PathVariable(name = "addressId") Long addressId) {
-        orderService.createOrder(addressId);
+    public ResponseEntity<ResponseDTO<Long>> createOrderForSelectedAddress(@PathVariable(name = "addressId") Long addressId,
+                                                                           @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Long orderId;
+        boolean replayed = false;
+        if (idempotencyKey == null) {
+            orderId = orderService.createOrder(addressId);
+        } else {
+            CheckoutIdempotencyService.CheckoutResult result = checkoutIdempotencyService.createOrder(addressId, idempotencyKey);
+            orderId = result.orderId();
+            replayed = result.replayed();
+        }
         return ResponseEntity
                 .status(HttpStatus.OK)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(replayed))
                 .body(
                         ResponseDTO
-                                .<Void>builder()
+                                .<Long>builder()
                                 .statusCode(HttpStatus.OK.value())
                                 .message("Order created successfully")
+                                .body(orderId)
                                 .build()
                 );
     }
@@ -48,4 +67,22 @@ public class OrderController {
                                 .build()
                 );
     }
+
+    @Operation(summary = "Get user order history by cursor (newest first)",
+            description = "Pass the returned nextCursor to fetch the following orders. No total count is calculated.")
+    @GetMapping("/history")
+    public ResponseEntity<ResponseDTO<CursorSliceDTO<OrderView>>> getUserOrderHistory(@RequestParam(required = false) String cursor,
+                                                                                    @RequestParam(defaultValue = "6") int size) {
+        CursorSliceDTO<OrderView> userOrders = orderService.getUserOrderHistory(cursor, size);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(
+                        ResponseDTO
+                                .<CursorSliceDTO<OrderView>>builder()
+                                .message("User orders retrieved successfully")
+                                .statusCode(HttpStatus.OK.value())
+                                .body(userOrders)
+                                .build()
+                );
+    }
 }
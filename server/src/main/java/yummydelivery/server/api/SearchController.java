@@ -0,0 +1,92 @@
+package yummydelivery.server.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import yummydelivery.server.dto.ResponseDTO;
+import yummydelivery.server.dto.SearchResultDTO;
+import yummydelivery.server.dto.SuggestionDTO;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.PriceBandEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.search.ProductSearchIndex;
+import yummydelivery.server.search.SearchFilters;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static yummydelivery.server.config.ApplicationConstants.API_BASE;
+
+@RestController
+@RequestMapping(API_BASE + "/search")
+public class SearchController {
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_PREFIX_LENGTH = 50;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final CacheControl SUGGESTIONS_CACHE = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+
+    private final ProductSearchIndex searchIndex;
+
+    public SearchController(ProductSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Operation(summary = "Search the menu by product name, food type and ingredients (Paginated)",
+            description = "Every word of the query must match. Facet counts are returned for productType, foodType, " +
+                    "priceBand and milliliters; each facet can also be used as a filter.")
+    @GetMapping
+    public ResponseEntity<ResponseDTO<SearchResultDTO>> search(
+            @Parameter(example = "pizza with shrimp") @RequestParam(name = "q", defaultValue = "") String query,
+            @RequestParam(required = false) ProductTypeEnum productType,
+            @RequestParam(required = false) FoodTypeEnum foodType,
+            @Parameter(description = "UNDER_5, FROM_5_TO_10, FROM_10_TO_20 or OVER_20")
+            @RequestParam(required = false) PriceBandEnum priceBand,
+            @RequestParam(required = false) Integer milliliters,
+            @RequestParam(defaultValue = "0") int page) {
+        if (query.length() > MAX_QUERY_LENGTH || page < 0) {
+            throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH
+                    + " characters and page must not be negative");
+        }
+        SearchResultDTO result = searchIndex.search(query,
+                new SearchFilters(productType, foodType, priceBand, milliliters), page);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(
+                        ResponseDTO
+                                .<SearchResultDTO>builder()
+                                .statusCode(HttpStatus.OK.value())
+                                .body(result)
+                                .build()
+                );
+    }
+
+    @Operation(summary = "Typeahead suggestions for product names and ingredients",
+            description = "Matches the start of any word, so \"marg\" suggests \"Pizza Margherita\". " +
+                    "The most ordered products come first.")
+    @GetMapping("/suggest")
+    public ResponseEntity<ResponseDTO<List<SuggestionDTO>>> suggest(
+            @Parameter(example = "marg") @RequestParam(name = "q") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        if (prefix.length() > MAX_PREFIX_LENGTH || limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Suggestion prefix must be at most " + MAX_PREFIX_LENGTH
+                    + " characters and limit between 1 and " + MAX_SUGGESTIONS);
+        }
+        List<SuggestionDTO> suggestions = searchIndex.suggest(prefix, limit);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .cacheControl(SUGGESTIONS_CACHE)
+                .body(
+                        ResponseDTO
+                                .<List<SuggestionDTO>>builder()
+                                .statusCode(HttpStatus.OK.value())
+                                .body(suggestions)
+                                .build()
+                );
+    }
+}
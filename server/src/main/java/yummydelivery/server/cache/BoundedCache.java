@@ -0,0 +1,171 @@
+package yummydelivery.server.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Small LRU cache with an optional time to live and hit/miss/eviction counters.
+ * Loads run outside the lock; a value loaded while an invalidation happened is not stored.
+ */
+public class BoundedCache<K, V> {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean full = size() > BoundedCache.this.maxEntries;
+                if (full) evictions.increment();
+                return full;
+            }
+        };
+    }
+
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generationBeforeLoad = generation();
+        V loaded = loader.get();
+        if (loaded != null) {
+            putIfUnchanged(key, loaded, generationBeforeLoad);
+        }
+        return loaded;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void putIfUnchanged(K key, V value, long expectedGeneration) {
+        synchronized (entries) {
+            if (generation.get() == expectedGeneration) {
+                entries.put(key, new Entry<>(value, expiryFromNow()));
+            }
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiryFromNow()));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            if (entries.remove(key) != null) evictions.increment();
+        }
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<K> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (predicate.test(keys.next())) {
+                    keys.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            evictions.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRatio() {
+        long hitCount = hitCount();
+        long requests = hitCount + missCount();
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    public void registerMetrics(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("app.cache.gets", this, BoundedCache::hitCount)
+                .tag("cache", cacheName).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("app.cache.gets", this, BoundedCache::missCount)
+                .tag("cache", cacheName).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("app.cache.evictions", this, BoundedCache::evictionCount)
+                .tag("cache", cacheName)
+                .register(registry);
+        Gauge.builder("app.cache.size", this, BoundedCache::size)
+                .tag("cache", cacheName)
+                .register(registry);
+        Gauge.builder("app.cache.hit.ratio", this, BoundedCache::hitRatio)
+                .tag("cache", cacheName)
+                .register(registry);
+    }
+
+    private long expiryFromNow() {
+        return ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package yummydelivery.server.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+import yummydelivery.server.dto.view.CatalogVersionView;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.CatalogVersionChangedEvent;
+import yummydelivery.server.model.CatalogVersionEntity;
+import yummydelivery.server.repository.CatalogVersionRepository;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of the whole catalog, used as the validator of menu and product responses. It lives in the
+ * catalog_version row, which every committed product change increments, so all nodes hand out the same
+ * ETags. Each node keeps a copy and polls the row; when it moved by changes this node has not seen, the
+ * local caches are dropped before the new version is used. The ETag includes the creation time of the row,
+ * so a recreated row never confirms a version counted before it.
+ */
+@Component
+@Slf4j
+public class CatalogVersion {
+    private final CatalogVersionRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<Snapshot> current;
+
+    public CatalogVersion(CatalogVersionRepository repository, ApplicationEventPublisher eventPublisher) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.current = new AtomicReference<>(loadShared());
+    }
+
+    /**
+     * Answers a conditional request from the version alone. When this returns true the response is already
+     * a 304 and the caller must not write a body; otherwise the ETag and Last-Modified headers are set.
+     * The version is read before the caller loads anything, so a response is never newer than its ETag.
+     */
+    public boolean checkNotModified(WebRequest request) {
+        Snapshot snapshot = current.get();
+        return request.checkNotModified(eTag(snapshot), snapshot.lastModified());
+    }
+
+    /**
+     * For menu pages, which are sent gzipped or as identity. Each content-coding has its own strong ETag.
+     */
+    public boolean checkNotModified(WebRequest request, boolean gzip) {
+        Snapshot snapshot = current.get();
+        return request.checkNotModified(eTag(snapshot, "", gzip), snapshot.lastModified());
+    }
+
+    /**
+     * For menu pages that also depend on the sales rollups, such as menus sorted by popularity. Only the
+     * ETag is compared; Last-Modified does not follow the rollups.
+     */
+    public boolean checkNotModified(WebRequest request, long popularityVersion, boolean gzip) {
+        return request.checkNotModified(eTag(current.get(), "-p" + popularityVersion, gzip));
+    }
+
+    public String eTag() {
+        return eTag(current.get());
+    }
+
+    public long version() {
+        return current.get().version();
+    }
+
+    /**
+     * Runs inside the transaction of the product change, so the shared version moves if and only if the
+     * change commits. Ordered first for events published outside a transaction, which run every listener
+     * at once.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordChange(CatalogChangedEvent event) {
+        if (repository.increment(CatalogVersionEntity.ID, roundedToSeconds(System.currentTimeMillis())) == 0) {
+            log.warn("Catalog version row is missing, it is recreated by the next poll");
+        }
+    }
+
+    /**
+     * Runs after the caches listening to catalog changes, so they are already evicted when clients can see
+     * the new version. A failure only delays the new version until the next poll.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        try {
+            refresh(1);
+        } catch (DataAccessException e) {
+            log.warn("Catalog version refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.catalogVersion.pollMs:5000}",
+            fixedDelayString = "${app.catalogVersion.pollMs:5000}")
+    public void poll() {
+        refresh(0);
+    }
+
+    /**
+     * Adopts the shared version. When it moved further than the changes already evicted for locally, every
+     * listener of {@link CatalogVersionChangedEvent} drops what it derived from the catalog first.
+     */
+    private synchronized void refresh(long evictedLocally) {
+        Snapshot previous = current.get();
+        Snapshot shared = loadShared();
+        if (shared.equals(previous)) {
+            return;
+        }
+        if (shared.epoch() != previous.epoch() || shared.version() != previous.version() + evictedLocally) {
+            eventPublisher.publishEvent(new CatalogVersionChangedEvent(shared.version()));
+            log.debug("Catalog changed elsewhere, local caches dropped at version {}", shared.version());
+        }
+        current.set(shared);
+    }
+
+    private Snapshot loadShared() {
+        return repository.findView(CatalogVersionEntity.ID)
+                .map(Snapshot::of)
+                .orElseGet(this::createShared);
+    }
+
+    /**
+     * Several nodes may start on an empty table at once; the ones that lose the insert read the winner's row.
+     */
+    private Snapshot createShared() {
+        long now = System.currentTimeMillis();
+        try {
+            repository.save(new CatalogVersionEntity(CatalogVersionEntity.ID, now, 0, roundedToSeconds(now)));
+        } catch (DataIntegrityViolationException e) {
+            return repository.findView(CatalogVersionEntity.ID).map(Snapshot::of).orElseThrow(() -> e);
+        }
+        return new Snapshot(now, 0, roundedToSeconds(now));
+    }
+
+    private String eTag(Snapshot snapshot) {
+        return eTag(snapshot, "", false);
+    }
+
+    private String eTag(Snapshot snapshot, String suffix, boolean gzip) {
+        return "\"catalog-" + Long.toHexString(snapshot.epoch()) + "-" + snapshot.version() + suffix
+                + (gzip ? "-gz" : "") + "\"";
+    }
+
+    private static long roundedToSeconds(long millis) {
+        return millis / 1000 * 1000;
+    }
+
+    private record Snapshot(long epoch, long version, long lastModified) {
+        static Snapshot of(CatalogVersionView view) {
+            return new Snapshot(view.getEpoch(), view.getVersion(), view.getLastModified());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package yummydelivery.server.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import yummydelivery.server.dto.foodDTO.FoodDTO;
+import yummydelivery.server.dto.view.BeverageView;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.CatalogVersionChangedEvent;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class MenuCache {
+    private final BoundedCache<MenuKey, Page<?>> pages;
+    private final BoundedCache<CountKey, Long> counts;
+
+    public MenuCache(MeterRegistry meterRegistry,
+                     @Value("${app.menuCache.maxEntries:512}") int maxEntries,
+                     @Value("${app.menuCache.ttlMs:300000}") long ttlMs) {
+        this.pages = new BoundedCache<>(maxEntries, ttlMs);
+        this.counts = new BoundedCache<>(FoodTypeEnum.values().length + 1, ttlMs);
+        pages.registerMetrics(meterRegistry, "menu");
+        counts.registerMetrics(meterRegistry, "menu.counts");
+    }
+
+    @SuppressWarnings("unchecked")
+    public Page<FoodDTO> getFoods(FoodTypeEnum foodType, Pageable pageable, Supplier<Page<FoodDTO>> loader) {
+        CountKey countKey = new CountKey(ProductTypeEnum.FOOD, foodType);
+        MenuKey key = new MenuKey(ProductTypeEnum.FOOD, foodType, pageable.getPageNumber(), pageable.getPageSize());
+        return (Page<FoodDTO>) getPage(key, countKey, pageable, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Page<BeverageView> getBeverages(Pageable pageable, Supplier<Page<BeverageView>> loader) {
+        CountKey countKey = new CountKey(ProductTypeEnum.BEVERAGE, null);
+        MenuKey key = new MenuKey(ProductTypeEnum.BEVERAGE, null, pageable.getPageNumber(), pageable.getPageSize());
+        return (Page<BeverageView>) getPage(key, countKey, pageable, loader);
+    }
+
+    public Long getFoodCount(FoodTypeEnum foodType) {
+        return counts.getIfPresent(new CountKey(ProductTypeEnum.FOOD, foodType));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getProductType() == ProductTypeEnum.BEVERAGE) {
+            pages.invalidateIf(key -> key.productType() == ProductTypeEnum.BEVERAGE);
+            counts.invalidate(new CountKey(ProductTypeEnum.BEVERAGE, null));
+        } else {
+            pages.invalidateIf(key -> key.productType() == ProductTypeEnum.FOOD
+                    && event.getAffectedFoodTypes().contains(key.foodType()));
+            event.getAffectedFoodTypes().forEach(type -> counts.invalidate(new CountKey(ProductTypeEnum.FOOD, type)));
+        }
+        log.debug("Menu cache evicted for {} product with id {}", event.getProductType(), event.getProductId());
+    }
+
+    /**
+     * The catalog changed on another node; which pages it touched is not known here.
+     */
+    @EventListener
+    public void onCatalogVersionChanged(CatalogVersionChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        pages.invalidateAll();
+        counts.invalidateAll();
+    }
+
+    public long hitCount() {
+        return pages.hitCount();
+    }
+
+    public long missCount() {
+        return pages.missCount();
+    }
+
+    public long evictionCount() {
+        return pages.evictionCount();
+    }
+
+    private Page<?> getPage(MenuKey key, CountKey countKey, Pageable pageable, Supplier<? extends Page<?>> loader) {
+        Long knownCount = counts.getIfPresent(countKey);
+        if (knownCount != null && pageable.getOffset() >= knownCount) {
+            return new PageImpl<>(List.of(), pageable, knownCount);
+        }
+        long countGeneration = counts.generation();
+        Page<?> page = pages.get(key, loader::get);
+        counts.putIfUnchanged(countKey, page.getTotalElements(), countGeneration);
+        return page;
+    }
+
+    private record MenuKey(ProductTypeEnum productType, FoodTypeEnum foodType, int page, int size) {
+    }
+
+    private record CountKey(ProductTypeEnum productType, FoodTypeEnum foodType) {
+    }
+}
@@ -0,0 +1,150 @@
+package yummydelivery.server.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.MenuSortEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.CatalogVersionChangedEvent;
+import yummydelivery.server.events.PopularityChangedEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Menu pages as the exact JSON bytes sent to clients, plus a gzip copy, so the most common anonymous
+ * request is answered without building DTOs or running Jackson. Evicted after {@link MenuCache}, so a page
+ * rebuilt while a change is being applied is never stored. Pages sorted by popularity are keyed by the
+ * popularity version their ETag was built from, and dropped whenever the sales rollups change.
+ */
+@Component
+public class MenuResponseCache {
+    private final ObjectMapper objectMapper;
+    private final BoundedCache<ResponseKey, EncodedResponse> responses;
+
+    public MenuResponseCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.menuResponseCache.maxEntries:256}") int maxEntries,
+                             @Value("${app.menuResponseCache.ttlMs:300000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.responses = new BoundedCache<>(maxEntries, ttlMs);
+        responses.registerMetrics(meterRegistry, "menu.responses");
+    }
+
+    public EncodedResponse getFoods(FoodTypeEnum foodType, int page, MenuSortEnum sort, long popularityVersion, Supplier<?> loader) {
+        return get(new ResponseKey(ProductTypeEnum.FOOD, foodType, pageIndex(page), sort, versionFor(sort, popularityVersion)), loader);
+    }
+
+    public EncodedResponse getBeverages(int page, MenuSortEnum sort, long popularityVersion, Supplier<?> loader) {
+        return get(new ResponseKey(ProductTypeEnum.BEVERAGE, null, pageIndex(page), sort, versionFor(sort, popularityVersion)), loader);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getProductType() == ProductTypeEnum.BEVERAGE) {
+            responses.invalidateIf(key -> key.productType() == ProductTypeEnum.BEVERAGE);
+        } else {
+            responses.invalidateIf(key -> key.productType() == ProductTypeEnum.FOOD
+                    && event.getAffectedFoodTypes().contains(key.foodType()));
+        }
+    }
+
+    @EventListener
+    public void onCatalogVersionChanged(CatalogVersionChangedEvent event) {
+        responses.invalidateAll();
+    }
+
+    @EventListener
+    public void onPopularityChanged(PopularityChangedEvent event) {
+        responses.invalidateIf(key -> key.sort() == MenuSortEnum.POPULARITY);
+    }
+
+    public void invalidateAll() {
+        responses.invalidateAll();
+    }
+
+    /**
+     * The menu services treat pages 0 and 1 both as the first page, so both share one entry.
+     */
+    private static int pageIndex(int page) {
+        return Math.max(page - 1, 0);
+    }
+
+    private static long versionFor(MenuSortEnum sort, long popularityVersion) {
+        return sort == MenuSortEnum.POPULARITY ? popularityVersion : 0;
+    }
+
+    private EncodedResponse get(ResponseKey key, Supplier<?> loader) {
+        return responses.get(key, () -> encode(loader.get()));
+    }
+
+    private EncodedResponse encode(Object response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new EncodedResponse(json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Menu response cannot be serialized", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record EncodedResponse(byte[] json, byte[] gzip) {
+        /**
+         * True when gzip, or * without an explicit gzip entry, is listed with a q-value above zero.
+         */
+        public static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+            Double gzip = null;
+            Double wildcard = null;
+            for (String entry : acceptEncoding.split(",")) {
+                String[] parts = entry.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = qValue(parts);
+                } else if (coding.equals("*")) {
+                    wildcard = qValue(parts);
+                }
+            }
+            Double accepted = gzip != null ? gzip : wildcard;
+            return accepted != null && accepted > 0;
+        }
+
+        private static double qValue(String[] parts) {
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                    try {
+                        return Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 1;
+        }
+    }
+
+    private record ResponseKey(ProductTypeEnum productType, FoodTypeEnum foodType, int page, MenuSortEnum sort,
+                               long popularityVersion) {
+    }
+}
@@ -4,6 +4,7 @@ import com.cloudinary.Cloudinary;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -12,13 +13,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 @Slf4j
 public class BeanConfiguration {
-    @Value("${CLOUDINARY_CLOUD_NAME}")
-    private String CLOUDINARY_CLOUD_NAME;
-    @Value("${CLOUDINARY_API_KEY}")
-    private String CLOUDINARY_API_KEY;
-    @Value("${CLOUDINARY_API_SECRET}")
-    private String CLOUDINARY_API_SECRET;
-
     @Bean
     public ModelMapper modelMapper() {
         return new ModelMapper();
@@ -30,7 +24,10 @@ public class BeanConfiguration {
     }
 
     @Bean
-    public Cloudinary cloudinary() {
+    @ConditionalOnProperty(name = "app.images.store", havingValue = "cloudinary", matchIfMissing = true)
+    public Cloudinary cloudinary(@Value("${CLOUDINARY_CLOUD_NAME}") String CLOUDINARY_CLOUD_NAME,
+                                 @Value("${CLOUDINARY_API_KEY}") String CLOUDINARY_API_KEY,
+                                 @Value("${CLOUDINARY_API_SECRET}") String CLOUDINARY_API_SECRET) {
         String cloudinaryURL = "cloudinary://" + CLOUDINARY_API_KEY + ":" + CLOUDINARY_API_SECRET + "@" + CLOUDINARY_CLOUD_NAME;
         return new Cloudinary(cloudinaryURL);
     }
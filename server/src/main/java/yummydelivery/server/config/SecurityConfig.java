@@ -65,7 +65,8 @@ public class SecurityConfig {
                         "/swagger-ui.html",
                         "/v3/api-docs/**",
                         "/webjars/**", "/swagger-resources/**").permitAll()
-                .requestMatchers(HttpMethod.GET, "/api/v1/foods/**", "/api/v1/beverages/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/v1/foods/**", "/api/v1/beverages/**", "/api/v1/images/**",
+                        "/api/v1/search/**").permitAll()
                 .anyRequest().authenticated();
 
 
@@ -0,0 +1,18 @@
+package yummydelivery.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import yummydelivery.server.dto.view.ProductView;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CartItemDTO {
+    private Long id;
+    private ProductView product;
+    private int quantity;
+    private double price;
+}
@@ -0,0 +1,19 @@
+package yummydelivery.server.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CartItemDeltaDTO {
+
+    @NotNull(message = "Product id is required")
+    private Long productId;
+
+    private int quantityDelta;
+}
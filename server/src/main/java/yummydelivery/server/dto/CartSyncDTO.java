@@ -0,0 +1,24 @@
+package yummydelivery.server.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CartSyncDTO {
+
+    @Valid
+    @NotEmpty(message = "At least one cart change is required")
+    @Size(max = 100, message = "At most 100 cart changes can be sent at once")
+    private List<CartItemDeltaDTO> items = new ArrayList<>();
+}
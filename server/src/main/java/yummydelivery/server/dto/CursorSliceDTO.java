@@ -0,0 +1,20 @@
+package yummydelivery.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CursorSliceDTO<T> {
+    private List<T> content = new ArrayList<>();
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
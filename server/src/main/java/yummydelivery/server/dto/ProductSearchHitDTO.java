@@ -0,0 +1,29 @@
+package yummydelivery.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSearchHitDTO {
+    private Long id;
+    private String name;
+    private ProductTypeEnum productType;
+    private FoodTypeEnum foodType;
+    private double price;
+    private String imageURL;
+    private String thumbnailImageURL;
+    private Integer grams;
+    private Integer milliliters;
+    private List<String> ingredients;
+}
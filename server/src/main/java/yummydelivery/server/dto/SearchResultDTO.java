@@ -0,0 +1,27 @@
+package yummydelivery.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of search hits. {@code facets} maps a facet name (productType, foodType, priceBand, milliliters)
+ * to the number of hits per value, counted with every filter applied except that facet's own.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class SearchResultDTO {
+    private List<ProductSearchHitDTO> content = new ArrayList<>();
+    private int page;
+    private int size;
+    private long totalElements;
+    private Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+}
@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import yummydelivery.server.model.CartItem;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +13,6 @@ import java.util.List;
 @Getter
 @Setter
 public class ShoppingCartDTO {
-    private List<CartItem> items = new ArrayList<>();
+    private List<CartItemDTO> items = new ArrayList<>();
     private double cartPrice;
 }
@@ -0,0 +1,23 @@
+package yummydelivery.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import yummydelivery.server.enums.ProductTypeEnum;
+
+/**
+ * One typeahead entry: either a product, with its id, or an ingredient phrase to search for.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SuggestionDTO {
+    private String text;
+    private Long productId;
+    private ProductTypeEnum productType;
+    private String thumbnailImageURL;
+}
@@ -22,5 +22,7 @@ public class FoodDTO {
     @Enumerated(EnumType.ORDINAL)
     private FoodTypeEnum foodTypeEnum;
     private String imageURL;
+    private String thumbnailImageURL;
+    private String detailImageURL;
     private List<String> ingredients;
 }
@@ -14,5 +14,7 @@ public class BeverageView {
     private String name;
     private double price;
     private String imageURL;
+    private String thumbnailImageURL;
+    private String detailImageURL;
     private int milliliters;
 }
@@ -0,0 +1,16 @@
+package yummydelivery.server.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CatalogVersionView {
+    private long epoch;
+    private long version;
+    private long lastModified;
+}
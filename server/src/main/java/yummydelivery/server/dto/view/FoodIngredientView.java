@@ -0,0 +1,15 @@
+package yummydelivery.server.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class FoodIngredientView {
+    private Long foodId;
+    private String ingredient;
+}
@@ -0,0 +1,32 @@
+package yummydelivery.server.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import yummydelivery.server.enums.FoodTypeEnum;
+
+/**
+ * One row of a menu page; {@code totalCount} is the number of foods of that type across all pages, and
+ * stays 0 for rows looked up by id.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class FoodSummaryView {
+    private Long id;
+    private String name;
+    private int grams;
+    private double price;
+    private FoodTypeEnum foodTypeEnum;
+    private String imageURL;
+    private String thumbnailImageURL;
+    private String detailImageURL;
+    private long totalCount;
+
+    public FoodSummaryView(Long id, String name, int grams, double price, FoodTypeEnum foodTypeEnum,
+                           String imageURL, String thumbnailImageURL, String detailImageURL) {
+        this(id, name, grams, price, foodTypeEnum, imageURL, thumbnailImageURL, detailImageURL, 0);
+    }
+}
@@ -0,0 +1,22 @@
+package yummydelivery.server.dto.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import yummydelivery.server.enums.ProductTypeEnum;
+
+/**
+ * Units of one product sold in each of the rollup windows.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ProductSalesView {
+    private Long productId;
+    private ProductTypeEnum productType;
+    private long lastHour;
+    private long lastDay;
+    private long lastWeek;
+}
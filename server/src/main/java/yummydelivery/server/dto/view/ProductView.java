@@ -19,6 +19,7 @@ public class ProductView implements Serializable {
     private String name;
     private double price;
     private String imageURL;
+    private String thumbnailImageURL;
     @Enumerated(EnumType.STRING)
     private ProductTypeEnum productType;
 }
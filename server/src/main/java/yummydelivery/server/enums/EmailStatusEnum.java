@@ -0,0 +1,5 @@
+package yummydelivery.server.enums;
+
+public enum EmailStatusEnum {
+    PENDING, SENT, FAILED
+}
@@ -0,0 +1,18 @@
+package yummydelivery.server.enums;
+
+/**
+ * Sizes a product image is stored in; {@code maxSize} bounds both width and height.
+ */
+public enum ImageVariantEnum {
+    THUMBNAIL(160), CARD(350), DETAIL(800);
+
+    private final int maxSize;
+
+    ImageVariantEnum(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,17 @@
+package yummydelivery.server.enums;
+
+import java.util.Locale;
+
+/**
+ * Orders of the menu listings: by id, the default, or by units sold in the last week.
+ */
+public enum MenuSortEnum {
+    ID, POPULARITY;
+
+    public static MenuSortEnum of(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ID;
+        }
+        return valueOf(sort.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,25 @@
+package yummydelivery.server.enums;
+
+/**
+ * Price ranges offered as a search facet; {@code from} is inclusive, {@code to} exclusive.
+ */
+public enum PriceBandEnum {
+    UNDER_5(0, 5), FROM_5_TO_10(5, 10), FROM_10_TO_20(10, 20), OVER_20(20, Double.MAX_VALUE);
+
+    private final double from;
+    private final double to;
+
+    PriceBandEnum(double from, double to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static PriceBandEnum of(double price) {
+        for (PriceBandEnum band : values()) {
+            if (price >= band.from && price < band.to) {
+                return band;
+            }
+        }
+        return OVER_20;
+    }
+}
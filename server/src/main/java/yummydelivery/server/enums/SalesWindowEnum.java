@@ -0,0 +1,20 @@
+package yummydelivery.server.enums;
+
+import java.time.Duration;
+
+/**
+ * Time windows of the best seller rollups.
+ */
+public enum SalesWindowEnum {
+    HOUR(Duration.ofHours(1)), DAY(Duration.ofDays(1)), WEEK(Duration.ofDays(7));
+
+    private final Duration length;
+
+    SalesWindowEnum(Duration length) {
+        this.length = length;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,27 @@
+package yummydelivery.server.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class CatalogChangedEvent {
+    public enum ChangeType {ADDED, UPDATED, DELETED}
+
+    private final Long productId;
+    private final ProductTypeEnum productType;
+    private final Set<FoodTypeEnum> affectedFoodTypes;
+    private final ChangeType changeType;
+
+    public static CatalogChangedEvent beverage(Long productId, ChangeType changeType) {
+        return new CatalogChangedEvent(productId, ProductTypeEnum.BEVERAGE, Set.of(), changeType);
+    }
+
+    public static CatalogChangedEvent food(Long productId, Set<FoodTypeEnum> affectedFoodTypes, ChangeType changeType) {
+        return new CatalogChangedEvent(productId, ProductTypeEnum.FOOD, affectedFoodTypes, changeType);
+    }
+}
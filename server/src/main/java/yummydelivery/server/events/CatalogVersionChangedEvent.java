@@ -0,0 +1,14 @@
+package yummydelivery.server.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when the shared catalog version moved by more than the changes this node already evicted for,
+ * usually because the catalog was changed on another node. Everything derived from the catalog is stale.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogVersionChangedEvent {
+    private final long version;
+}
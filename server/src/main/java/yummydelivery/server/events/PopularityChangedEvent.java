@@ -0,0 +1,13 @@
+package yummydelivery.server.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after the best seller rollups were reloaded with different numbers.
+ */
+@Getter
+@AllArgsConstructor
+public class PopularityChangedEvent {
+    private final long version;
+}
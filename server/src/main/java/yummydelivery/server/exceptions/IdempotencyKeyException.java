@@ -0,0 +1,10 @@
+package yummydelivery.server.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyException extends ApiException {
+
+    public IdempotencyKeyException(HttpStatus status, String message) {
+        super(status, message);
+    }
+}
@@ -0,0 +1,16 @@
+package yummydelivery.server.mapper;
+
+import yummydelivery.server.dto.view.BeverageView;
+import yummydelivery.server.model.BeverageEntity;
+
+public final class BeverageMapper {
+
+    private BeverageMapper() {
+    }
+
+    public static BeverageView toBeverageView(BeverageEntity beverage) {
+        return new BeverageView(beverage.getId(), beverage.getName(), beverage.getPrice(),
+                beverage.getImageURL(), beverage.getThumbnailImageURL(), beverage.getDetailImageURL(),
+                beverage.getMilliliters());
+    }
+}
@@ -0,0 +1,26 @@
+package yummydelivery.server.mapper;
+
+import yummydelivery.server.dto.foodDTO.FoodDTO;
+import yummydelivery.server.dto.view.FoodSummaryView;
+import yummydelivery.server.model.FoodEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class FoodMapper {
+
+    private FoodMapper() {
+    }
+
+    public static FoodDTO toFoodDTO(FoodEntity food) {
+        return new FoodDTO(food.getId(), food.getName(), food.getGrams(), food.getPrice(),
+                food.getFoodTypeEnum(), food.getImageURL(), food.getThumbnailImageURL(), food.getDetailImageURL(),
+                food.getIngredients() == null ? null : new ArrayList<>(food.getIngredients()));
+    }
+
+    public static FoodDTO toFoodDTO(FoodSummaryView food, List<String> ingredients) {
+        return new FoodDTO(food.getId(), food.getName(), food.getGrams(), food.getPrice(),
+                food.getFoodTypeEnum(), food.getImageURL(), food.getThumbnailImageURL(), food.getDetailImageURL(),
+                new ArrayList<>(ingredients));
+    }
+}
@@ -0,0 +1,62 @@
+package yummydelivery.server.mapper;
+
+import yummydelivery.server.dto.view.AddressView;
+import yummydelivery.server.dto.view.CartItemView;
+import yummydelivery.server.dto.view.OrderView;
+import yummydelivery.server.dto.view.ProductView;
+import yummydelivery.server.model.AddressEntity;
+import yummydelivery.server.model.CartItem;
+import yummydelivery.server.model.ImmutableCartItem;
+import yummydelivery.server.model.OrderEntity;
+import yummydelivery.server.pricing.PricingEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OrderMapper {
+
+    private OrderMapper() {
+    }
+
+    public static OrderView toOrderView(OrderEntity order) {
+        List<CartItemView> orderedProducts = new ArrayList<>(order.getOrderedProducts().size());
+        for (ImmutableCartItem item : order.getOrderedProducts()) {
+            orderedProducts.add(toCartItemView(item));
+        }
+        return new OrderView(order.getId(), order.getCreatedOn(), PricingEngine.toMajorUnits(order.getOrderCostMinor()), order.getStatus(),
+                orderedProducts, toAddressView(order.getDeliveryAddress()));
+    }
+
+    public static CartItemView toCartItemView(ImmutableCartItem item) {
+        return new CartItemView(item.getId(), copyOf(item.getProduct()), item.getQuantity(),
+                PricingEngine.toMajorUnits(item.getPriceMinor()));
+    }
+
+    public static AddressView toAddressView(AddressEntity address) {
+        if (address == null) {
+            return null;
+        }
+        return new AddressView(address.getId() == null ? 0 : address.getId(), address.getCity(),
+                address.getStreetName(), address.getStreetNumber(), address.getPhoneNumber());
+    }
+
+    /**
+     * Snapshots a cart line for an order; the product is copied so later catalog edits don't change history.
+     */
+    public static ImmutableCartItem toImmutableCartItem(CartItem cartItem) {
+        ImmutableCartItem item = new ImmutableCartItem();
+        item.setId(cartItem.getId());
+        item.setProduct(cartItem.getProduct() == null ? null : ProductMapper.toProductView(cartItem.getProduct()));
+        item.setQuantity(cartItem.getQuantity());
+        item.setPriceMinor(cartItem.getPriceMinor());
+        return item;
+    }
+
+    private static ProductView copyOf(ProductView product) {
+        if (product == null) {
+            return null;
+        }
+        return new ProductView(product.getId(), product.getName(), product.getPrice(),
+                product.getImageURL(), product.getThumbnailImageURL(), product.getProductType());
+    }
+}
@@ -0,0 +1,15 @@
+package yummydelivery.server.mapper;
+
+import yummydelivery.server.dto.view.ProductView;
+import yummydelivery.server.model.Product;
+
+public final class ProductMapper {
+
+    private ProductMapper() {
+    }
+
+    public static ProductView toProductView(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getPrice(),
+                product.getImageURL(), product.getThumbnailImageURL(), product.getProductType());
+    }
+}
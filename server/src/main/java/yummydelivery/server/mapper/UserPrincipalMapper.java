@@ -0,0 +1,22 @@
+package yummydelivery.server.mapper;
+
+import org.springframework.security.core.GrantedAuthority;
+import yummydelivery.server.model.UserEntity;
+import yummydelivery.server.security.UserPrincipal;
+
+import java.util.Collection;
+
+public final class UserPrincipalMapper {
+
+    private UserPrincipalMapper() {
+    }
+
+    public static UserPrincipal toUserPrincipal(UserEntity user, Collection<? extends GrantedAuthority> authorities) {
+        return UserPrincipal.builder()
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .authorities(authorities)
+                .tokenVersion(user.getTokenVersion())
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package yummydelivery.server.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,14 +10,24 @@ import lombok.*;
 @Setter
 @Entity
 @Data
-@Table(name = "cart_items")
+@Table(name = "cart_items",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = {"cart_id", "product_id"}))
 public class CartItem {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @OneToOne(fetch = FetchType.EAGER)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cart_id")
+    private ShoppingCartEntity cart;
+    @ManyToOne(fetch = FetchType.LAZY)
     private Product product;
     private int quantity;
-    private double price;
+    /**
+     * Line total in minor units, see {@link yummydelivery.server.pricing.PricingEngine}.
+     */
+    private long priceMinor;
 }
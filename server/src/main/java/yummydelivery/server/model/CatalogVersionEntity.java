@@ -0,0 +1,30 @@
+package yummydelivery.server.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * The one row holding the catalog version shared by every node. Product changes increment it in their own
+ * transaction, and each node polls it to notice changes committed elsewhere.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Data
+@Table(name = "catalog_version")
+public class CatalogVersionEntity {
+    public static final Long ID = 1L;
+
+    @Id
+    private Long id;
+    /**
+     * Creation time of the row, so versions counted again after the row is recreated get new ETags.
+     */
+    private long epoch;
+    private long version;
+    private long lastModified;
+}
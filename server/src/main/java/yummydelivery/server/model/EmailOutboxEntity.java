@@ -0,0 +1,45 @@
+package yummydelivery.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import yummydelivery.server.enums.EmailStatusEnum;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Data
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_email_outbox_claim_token", columnList = "claimToken")
+})
+public class EmailOutboxEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+    @Column(nullable = false)
+    private String subject;
+    @Column(nullable = false, length = 4000)
+    private String messageBody;
+
+    @Enumerated
+    @Column(nullable = false)
+    private EmailStatusEnum status = EmailStatusEnum.PENDING;
+    private int attempts;
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    private String claimToken;
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime createdOn;
+    private LocalDateTime sentAt;
+}
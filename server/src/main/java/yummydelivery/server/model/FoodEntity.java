@@ -22,7 +22,7 @@ public class FoodEntity extends Product {
     @Enumerated(EnumType.STRING)
     private FoodTypeEnum foodTypeEnum;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "products_foods_ingredients",
             joinColumns = @JoinColumn(name = "food_id"))
     @Column(name = "ingredient")
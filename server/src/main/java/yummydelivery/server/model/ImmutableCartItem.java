@@ -17,9 +17,10 @@ public class ImmutableCartItem implements Serializable {
             @AttributeOverride(name = "name", column = @Column(name = "product_name")),
             @AttributeOverride(name = "price", column = @Column(name = "product_price")),
             @AttributeOverride(name = "imageURL", column = @Column(name = "product_image_url")),
+            @AttributeOverride(name = "thumbnailImageURL", column = @Column(name = "product_thumbnail_image_url")),
             @AttributeOverride(name = "productType", column = @Column(name = "product_type"))
     })
     private ProductView product;
     private int quantity;
-    private double price;
+    private long priceMinor;
 }
@@ -1,8 +1,7 @@
 package yummydelivery.server.model;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import yummydelivery.server.enums.OrderStatusEnum;
@@ -17,18 +16,26 @@ import java.util.List;
 @Setter
 @Entity
 @Data
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created_on_id", columnList = "user_id, createdOn DESC, id DESC"),
+        @Index(name = "idx_orders_status_created_on", columnList = "status, createdOn")
+})
 public class OrderEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Owner of the order, kept on the order row so a customer's history is one range of the user index.
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
     @CreationTimestamp
     private LocalDateTime createdOn;
 
-    @NotNull
-    @DecimalMin(value = "0.0", inclusive = false, message = "Order cost is required and must be greater than 0")
-    private double orderCost;
+    @Positive(message = "Order cost is required and must be greater than 0")
+    private long orderCostMinor;
     @Enumerated
     private OrderStatusEnum status;
 
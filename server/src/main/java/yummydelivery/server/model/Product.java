@@ -29,6 +29,8 @@ public abstract class Product {
     @DecimalMin(value = "0.0", inclusive = false, message = "Price is required and must be greater than 0")
     private double price;
     private String imageURL;
+    private String thumbnailImageURL;
+    private String detailImageURL;
 
     @NotNull
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,36 @@
+package yummydelivery.server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import yummydelivery.server.enums.ProductTypeEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units of one product sold during one ten minute bucket. Written by the periodic flush of the in-memory
+ * sales counters, read to build the best seller rollups and dropped once older than a week.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Data
+@Table(name = "product_sales_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_sales_rollup_product_bucket",
+                columnNames = {"productId", "bucketStart"}),
+        indexes = @Index(name = "idx_product_sales_rollup_bucket_start", columnList = "bucketStart"))
+public class ProductSalesEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProductTypeEnum productType;
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+    private long quantity;
+}
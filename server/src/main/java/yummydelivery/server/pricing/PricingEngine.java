@@ -0,0 +1,67 @@
+package yummydelivery.server.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic for carts and orders. Amounts are whole minor units (cents) in a {@code long}, so line,
+ * cart and order totals add up exactly however large the cart is. Catalog prices are decimals and are
+ * converted once, when a product is priced into a cart line; responses convert back at the DTO boundary.
+ * Every operation fails with an {@link ArithmeticException} instead of wrapping around.
+ */
+public final class PricingEngine {
+    public static final int MINOR_UNITS_SCALE = 2;
+    private static final double MINOR_UNITS_PER_MAJOR = 100.0;
+    private static final double EXACT_SCALED_LIMIT = 1e12;
+    private static final double WHOLE_CENT_TOLERANCE = 1e-6;
+
+    private PricingEngine() {
+    }
+
+    /**
+     * Rounds half up on the decimal the amount was written as, so 15.5 is 1550 and 0.29 is 29. Amounts
+     * written with whole cents, which is every catalog price, skip the BigDecimal.
+     */
+    public static long toMinorUnits(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Price must be a finite number");
+        }
+        double scaled = amount * MINOR_UNITS_PER_MAJOR;
+        if (Math.abs(scaled) < EXACT_SCALED_LIMIT) {
+            long rounded = Math.round(scaled);
+            if (Math.abs(scaled - rounded) < WHOLE_CENT_TOLERANCE) {
+                return rounded;
+            }
+        }
+        return BigDecimal.valueOf(amount)
+                .setScale(MINOR_UNITS_SCALE, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    /**
+     * The double closest to the exact decimal amount, e.g. 1999 becomes 19.99.
+     */
+    public static double toMajorUnits(long minorUnits) {
+        return minorUnits / MINOR_UNITS_PER_MAJOR;
+    }
+
+    public static long lineTotal(long unitPrice, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative");
+        }
+        return Math.multiplyExact(unitPrice, quantity);
+    }
+
+    public static long add(long total, long amount) {
+        return Math.addExact(total, amount);
+    }
+
+    /**
+     * Moves a running total from one value of a line to another, so changing a line never re-sums the others.
+     * A new line has an old total of zero and a removed line a new total of zero.
+     */
+    public static long reprice(long total, long oldLineTotal, long newLineTotal) {
+        return Math.addExact(Math.subtractExact(total, oldLineTotal), newLineTotal);
+    }
+}
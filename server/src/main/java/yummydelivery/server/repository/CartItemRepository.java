@@ -1,12 +1,40 @@
 package yummydelivery.server.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import yummydelivery.server.model.CartItem;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
-    Optional<CartItem> findByProductId(Long id);
+    Optional<CartItem> findByIdAndCartId(Long id, Long cartId);
+
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product WHERE ci.cart.id = :cartId ORDER BY ci.id")
+    List<CartItem> findAllByCartIdWithProduct(@Param("cartId") Long cartId);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.quantity = ci.quantity + :quantity, " +
+            "ci.priceMinor = (ci.quantity + :quantity) * :unitPrice " +
+            "WHERE ci.cart.id = :cartId AND ci.product.id = :productId")
+    int incrementQuantity(@Param("cartId") Long cartId,
+                          @Param("productId") Long productId,
+                          @Param("quantity") int quantity,
+                          @Param("unitPrice") long unitPrice);
+
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (cart_id, product_id, quantity, price_minor) " +
+            "VALUES (:cartId, :productId, :quantity, :price)", nativeQuery = true)
+    int insertCartItem(@Param("cartId") Long cartId,
+                       @Param("productId") Long productId,
+                       @Param("quantity") int quantity,
+                       @Param("price") long price);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteAllByCartId(@Param("cartId") Long cartId);
 }
@@ -1,9 +1,39 @@
 package yummydelivery.server.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import yummydelivery.server.model.ShoppingCartEntity;
 
+import java.util.Optional;
+
 @Repository
 public interface CartRepository extends JpaRepository<ShoppingCartEntity, Long> {
+    @Query("SELECT c FROM UserEntity u JOIN u.cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE u.email = :email")
+    Optional<ShoppingCartEntity> findByUserEmailWithItems(@Param("email") String email);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ShoppingCartEntity c WHERE c.id = :cartId")
+    Optional<ShoppingCartEntity> findByIdForUpdate(@Param("cartId") Long cartId);
+
+    /**
+     * Moves the cart total from the current total of the product's line, if any, to the line with
+     * {@code quantity} more units, all at {@code unitPrice}. Runs before the line itself is updated.
+     */
+    @Modifying
+    @Query("UPDATE ShoppingCartEntity c SET c.cartPriceMinor = c.cartPriceMinor + :quantity * :unitPrice + " +
+            "COALESCE((SELECT ci.quantity * :unitPrice - ci.priceMinor FROM CartItem ci " +
+            "WHERE ci.cart.id = c.id AND ci.product.id = :productId), 0) WHERE c.id = :cartId")
+    int repriceLineInCartPrice(@Param("cartId") Long cartId,
+                               @Param("productId") Long productId,
+                               @Param("quantity") int quantity,
+                               @Param("unitPrice") long unitPrice);
+
+    @Modifying
+    @Query("UPDATE ShoppingCartEntity c SET c.cartPriceMinor = 0 WHERE c.id = :cartId")
+    int resetCartPrice(@Param("cartId") Long cartId);
 }
@@ -0,0 +1,32 @@
+package yummydelivery.server.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yummydelivery.server.dto.view.CatalogVersionView;
+import yummydelivery.server.model.CatalogVersionEntity;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersionEntity, Long> {
+    /**
+     * Last-Modified moves by at least a second, the resolution of the header.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CatalogVersionEntity c SET c.version = c.version + 1, " +
+            "c.lastModified = CASE WHEN c.lastModified + 1000 > :now THEN c.lastModified + 1000 ELSE :now END " +
+            "WHERE c.id = :id")
+    int increment(@Param("id") Long id, @Param("now") long now);
+
+    /**
+     * A projection, so the row is read from the database even when the calling transaction already holds it.
+     */
+    @Query("SELECT NEW yummydelivery.server.dto.view.CatalogVersionView(c.epoch, c.version, c.lastModified) " +
+            "FROM CatalogVersionEntity c WHERE c.id = :id")
+    Optional<CatalogVersionView> findView(@Param("id") Long id);
+}
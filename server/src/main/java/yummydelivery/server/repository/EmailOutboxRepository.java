@@ -0,0 +1,53 @@
+package yummydelivery.server.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yummydelivery.server.enums.EmailStatusEnum;
+import yummydelivery.server.model.EmailOutboxEntity;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+    /**
+     * Leases up to batchSize due mails to the caller by stamping them with its claim token and pushing
+     * their next attempt past the lease. Rows claimed by another node are skipped; a claim whose sender
+     * died becomes due again once the lease runs out.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE email_outbox SET claim_token = :claimToken, next_attempt_at = :leaseUntil, " +
+            "attempts = attempts + 1 WHERE id IN (" +
+            "SELECT id FROM email_outbox WHERE status = :pendingStatus AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int claimDueBatch(@Param("pendingStatus") int pendingStatus,
+                      @Param("now") LocalDateTime now,
+                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                      @Param("claimToken") String claimToken,
+                      @Param("batchSize") int batchSize);
+
+    List<EmailOutboxEntity> findAllByClaimTokenOrderById(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxEntity e SET e.status = yummydelivery.server.enums.EmailStatusEnum.SENT, " +
+            "e.sentAt = :sentAt, e.claimToken = null, e.lastError = null WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxEntity e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.claimToken = null, e.lastError = :lastError WHERE e.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") EmailStatusEnum status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("lastError") String lastError);
+
+    long countByStatus(EmailStatusEnum status);
+}
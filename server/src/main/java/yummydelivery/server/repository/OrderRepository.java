@@ -2,19 +2,47 @@ package yummydelivery.server.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import yummydelivery.server.enums.OrderStatusEnum;
+import org.springframework.transaction.annotation.Transactional;
 import yummydelivery.server.model.OrderEntity;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
-    List<OrderEntity> findAllByStatusOrderByCreatedOnDesc(OrderStatusEnum orderStatusEnum);
+    /**
+     * The outer update checks the status again, so an order whose status changed after the batch was
+     * selected is left alone.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders SET status = :toStatus WHERE id IN (" +
+            "SELECT id FROM orders WHERE status = :fromStatus AND created_on < :cutoff " +
+            "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED) AND status = :fromStatus", nativeQuery = true)
+    int transitionStatusBatch(@Param("fromStatus") int fromStatus,
+                              @Param("toStatus") int toStatus,
+                              @Param("cutoff") LocalDateTime cutoff,
+                              @Param("batchSize") int batchSize);
 
-    @Query("SELECT uo FROM UserEntity u JOIN u.orders uo WHERE u.id =:userId ORDER BY uo.createdOn DESC")
-    Page<OrderEntity> findAllByUserId(@Param("userId")Long userId, Pageable pageable);
+    @Query("SELECT o FROM OrderEntity o WHERE o.userId = :userId ORDER BY o.createdOn DESC, o.id DESC")
+    Page<OrderEntity> findAllByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * The history queries seek on idx_orders_user_created_on_id, so a page reads only its own rows.
+     */
+    @Query("SELECT o FROM OrderEntity o WHERE o.userId = :userId ORDER BY o.createdOn DESC, o.id DESC")
+    Slice<OrderEntity> findLatestByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o FROM OrderEntity o WHERE o.userId = :userId " +
+            "AND (o.createdOn < :createdOn OR (o.createdOn = :createdOn AND o.id < :orderId)) " +
+            "ORDER BY o.createdOn DESC, o.id DESC")
+    Slice<OrderEntity> findByUserIdBefore(@Param("userId") Long userId,
+                                         @Param("createdOn") LocalDateTime createdOn,
+                                         @Param("orderId") Long orderId,
+                                         Pageable pageable);
 }
@@ -3,25 +3,85 @@ package yummydelivery.server.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yummydelivery.server.dto.view.BeverageView;
+import yummydelivery.server.dto.view.FoodIngredientView;
+import yummydelivery.server.dto.view.FoodSummaryView;
 import yummydelivery.server.enums.FoodTypeEnum;
 import yummydelivery.server.model.BeverageEntity;
 import yummydelivery.server.model.FoodEntity;
 import yummydelivery.server.model.Product;
+import yummydelivery.server.storage.ProductImageUrls;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    @Query("SELECT f FROM FoodEntity f WHERE f.foodTypeEnum = :foodType")
-    Page<FoodEntity> findAllByProductTypePageable(@Param("foodType") FoodTypeEnum foodTypeEnum, Pageable pageable);
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.imageURL = :imageURL, p.thumbnailImageURL = :thumbnailImageURL, " +
+            "p.detailImageURL = :detailImageURL WHERE p.id = :id")
+    int updateImageUrls(@Param("id") Long id,
+                        @Param("imageURL") String imageURL,
+                        @Param("thumbnailImageURL") String thumbnailImageURL,
+                        @Param("detailImageURL") String detailImageURL);
 
-    @Query("SELECT b FROM BeverageEntity b WHERE b.productType = 'BEVERAGE'")
-    Page<BeverageEntity> findAllBeveragesPageable(Pageable pageable);
+    @Query("SELECT NEW yummydelivery.server.storage.ProductImageUrls(p.thumbnailImageURL, p.imageURL, p.detailImageURL) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductImageUrls> findImageUrlsById(@Param("id") Long id);
+
+    @Query("SELECT NEW yummydelivery.server.dto.view.FoodSummaryView(f.id, f.name, f.grams, f.price, f.foodTypeEnum, f.imageURL, " +
+            "f.thumbnailImageURL, f.detailImageURL, COUNT(f.id) OVER ()) " +
+            "FROM FoodEntity f WHERE f.foodTypeEnum = :foodType ORDER BY f.id")
+    List<FoodSummaryView> findFoodSummariesByFoodType(@Param("foodType") FoodTypeEnum foodTypeEnum, Pageable pageable);
+
+    @Query("SELECT NEW yummydelivery.server.dto.view.FoodSummaryView(f.id, f.name, f.grams, f.price, f.foodTypeEnum, f.imageURL, " +
+            "f.thumbnailImageURL, f.detailImageURL) " +
+            "FROM FoodEntity f WHERE f.id IN :ids")
+    List<FoodSummaryView> findFoodSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT f.id FROM FoodEntity f WHERE f.foodTypeEnum = :foodType")
+    List<Long> findFoodIdsByFoodType(@Param("foodType") FoodTypeEnum foodTypeEnum);
+
+    @Query("SELECT COUNT(f) FROM FoodEntity f WHERE f.foodTypeEnum = :foodType")
+    long countFoodsByFoodType(@Param("foodType") FoodTypeEnum foodTypeEnum);
+
+    @Query("SELECT NEW yummydelivery.server.dto.view.FoodIngredientView(f.id, i) FROM FoodEntity f JOIN f.ingredients i WHERE f.id IN :ids")
+    List<FoodIngredientView> findIngredientsByFoodIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT f FROM FoodEntity f LEFT JOIN FETCH f.ingredients WHERE f.id = :id")
+    Optional<FoodEntity> findFoodWithIngredientsById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT f FROM FoodEntity f LEFT JOIN FETCH f.ingredients")
+    List<FoodEntity> findAllFoodsWithIngredients();
+
+    @Query("SELECT b FROM BeverageEntity b")
+    List<BeverageEntity> findAllBeverages();
+
+    @Query(value = "SELECT NEW yummydelivery.server.dto.view.BeverageView(b.id, b.name, b.price, b.imageURL, " +
+            "b.thumbnailImageURL, b.detailImageURL, b.milliliters) " +
+            "FROM BeverageEntity b ORDER BY b.id",
+            countQuery = "SELECT COUNT(b) FROM BeverageEntity b")
+    Page<BeverageView> findAllBeverageViews(Pageable pageable);
+
+    @Query("SELECT NEW yummydelivery.server.dto.view.BeverageView(b.id, b.name, b.price, b.imageURL, " +
+            "b.thumbnailImageURL, b.detailImageURL, b.milliliters) " +
+            "FROM BeverageEntity b WHERE b.id IN :ids")
+    List<BeverageView> findBeverageViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM BeverageEntity b")
+    List<Long> findAllBeverageIds();
 
     Optional<Product> findByName(String name);
+
+    @Query("SELECT p.price FROM Product p WHERE p.id = :id")
+    Optional<Double> findPriceById(@Param("id") Long id);
 }
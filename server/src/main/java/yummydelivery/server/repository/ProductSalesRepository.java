@@ -0,0 +1,41 @@
+package yummydelivery.server.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yummydelivery.server.dto.view.ProductSalesView;
+import yummydelivery.server.model.ProductSalesEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductSalesRepository extends JpaRepository<ProductSalesEntity, Long> {
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductSalesEntity s SET s.quantity = s.quantity + :quantity " +
+            "WHERE s.productId = :productId AND s.bucketStart = :bucketStart")
+    int addQuantity(@Param("productId") Long productId,
+                    @Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("quantity") long quantity);
+
+    /**
+     * Window totals per product from the buckets of the last week; the whole read touches only the summary table.
+     */
+    @Query("SELECT NEW yummydelivery.server.dto.view.ProductSalesView(s.productId, s.productType, " +
+            "SUM(CASE WHEN s.bucketStart >= :hourStart THEN s.quantity ELSE 0 END), " +
+            "SUM(CASE WHEN s.bucketStart >= :dayStart THEN s.quantity ELSE 0 END), " +
+            "SUM(s.quantity)) " +
+            "FROM ProductSalesEntity s WHERE s.bucketStart >= :weekStart GROUP BY s.productId, s.productType")
+    List<ProductSalesView> sumQuantitiesSince(@Param("hourStart") LocalDateTime hourStart,
+                                              @Param("dayStart") LocalDateTime dayStart,
+                                              @Param("weekStart") LocalDateTime weekStart);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductSalesEntity s WHERE s.bucketStart < :cutoff")
+    int deleteBucketsBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,5 +1,6 @@
 package yummydelivery.server.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +14,15 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     boolean existsByEmail(String email);
     Optional<UserEntity> findByEmail(String email);
 
-    @Query("SELECT DISTINCT u FROM UserEntity u LEFT JOIN FETCH u.orders WHERE u.email = :username")
-    Optional<UserEntity> findUserWithOrders(@Param("username") String username);
+    @EntityGraph(attributePaths = "roles")
+    Optional<UserEntity> findWithRolesByEmail(String email);
+
+    @Query("SELECT u.id FROM UserEntity u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT u.cart.id FROM UserEntity u WHERE u.email = :email")
+    Optional<Long> findCartIdByEmail(@Param("email") String email);
+
+    @Query("SELECT u.tokenVersion FROM UserEntity u WHERE u.email = :email")
+    Optional<Integer> findTokenVersionByEmail(@Param("email") String email);
 }
@@ -0,0 +1,376 @@
+package yummydelivery.server.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import yummydelivery.server.dto.ProductSearchHitDTO;
+import yummydelivery.server.dto.SearchResultDTO;
+import yummydelivery.server.dto.SuggestionDTO;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.PriceBandEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.CatalogVersionChangedEvent;
+import yummydelivery.server.model.BeverageEntity;
+import yummydelivery.server.model.FoodEntity;
+import yummydelivery.server.model.Product;
+import yummydelivery.server.repository.ProductRepository;
+import yummydelivery.server.service.ProductPopularityService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory inverted index over product names, types and ingredients. It is loaded on startup, kept current
+ * from this node's {@link CatalogChangedEvent}s by re-reading only the changed product, and reloaded when the
+ * shared catalog version shows changes made on another node, so searches never reach the database. Writers
+ * are serialized; readers take no lock and skip ids removed mid-query.
+ * Typeahead suggestions come from a {@link SuggestionIndex} rebuilt on the first lookup after the index
+ * or the popularity counts change. Both follow shared state: reloads count as index writes, and the
+ * popularity counts are read back from the rollups every node writes.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+    public static final int PAGE_SIZE = 20;
+    private static final int NAME_WEIGHT = 3;
+    private static final int TYPE_WEIGHT = 2;
+    private static final int INGREDIENT_WEIGHT = 1;
+    private static final int PRODUCT_TYPE_WEIGHT = 1;
+
+    private static final Facet[] FACETS = Facet.values();
+
+    private static final int MAX_INGREDIENT_SUGGESTION_LENGTH = 40;
+
+    private final ProductRepository productRepository;
+    private final ProductPopularityService popularity;
+    private final Map<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final AtomicLong catalogWrites = new AtomicLong();
+    private volatile SuggestionIndex suggestions;
+    private final Timer searchTimer;
+    private final Timer suggestTimer;
+
+    public ProductSearchIndex(ProductRepository productRepository, ProductPopularityService popularity, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.popularity = popularity;
+        this.searchTimer = Timer.builder("app.search").register(meterRegistry);
+        this.suggestTimer = Timer.builder("app.search.suggest").register(meterRegistry);
+        Gauge.builder("app.search.indexed.products", documents, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Products that are indexed unchanged are left alone, so a reload only writes what actually changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Product> products = new ArrayList<>(productRepository.findAllFoodsWithIngredients());
+        products.addAll(productRepository.findAllBeverages());
+        Set<Long> stale = new HashSet<>(documents.keySet());
+        for (Product product : products) {
+            IndexedProduct document = IndexedProduct.of(product);
+            if (!document.equals(documents.get(document.id()))) {
+                index(document);
+            }
+            stale.remove(product.getId());
+        }
+        stale.forEach(this::remove);
+        log.info("Search index built with {} products and {} terms", documents.size(), postings.size());
+    }
+
+    /**
+     * Products changed on another node are not named by any local event, so the whole catalog is re-read.
+     * A failure propagates, which keeps the node on its old catalog version until the next poll retries.
+     */
+    @EventListener
+    public void onCatalogVersionChanged(CatalogVersionChangedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Long id = event.getProductId();
+        try {
+            if (event.getChangeType() == CatalogChangedEvent.ChangeType.DELETED) {
+                remove(id);
+                return;
+            }
+            Optional<? extends Product> product = event.getProductType() == ProductTypeEnum.FOOD
+                    ? productRepository.findFoodWithIngredientsById(id)
+                    : productRepository.findById(id);
+            product.ifPresentOrElse(this::index, () -> remove(id));
+        } catch (RuntimeException e) {
+            log.warn("Search index update for product {} failed: {}", id, e.getMessage());
+        }
+    }
+
+    public void index(Product product) {
+        index(IndexedProduct.of(product));
+    }
+
+    private synchronized void index(IndexedProduct document) {
+        remove(document.id());
+        documents.put(document.id(), document);
+        catalogWrites.incrementAndGet();
+        document.termWeights().keySet()
+                .forEach(term -> postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(document.id()));
+    }
+
+    public synchronized void remove(Long id) {
+        IndexedProduct document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        catalogWrites.incrementAndGet();
+        for (String term : document.termWeights().keySet()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Products containing every term of the query, best matches first. An empty query lists the whole menu,
+     * so the facets alone can be used to browse it.
+     */
+    public SearchResultDTO search(String query, SearchFilters filters, int page) {
+        long started = System.nanoTime();
+        List<String> terms = SearchTokenizer.tokenize(query).stream().distinct().toList();
+
+        List<Map<Comparable<?>, Long>> facetCounts = new ArrayList<>(FACETS.length);
+        for (int i = 0; i < FACETS.length; i++) {
+            facetCounts.add(new HashMap<>());
+        }
+        List<ScoredProduct> hits = new ArrayList<>();
+        for (IndexedProduct document : matching(terms)) {
+            int rejectedBy = 0;
+            for (Facet facet : FACETS) {
+                if (!facet.accepts(filters, document)) {
+                    rejectedBy |= 1 << facet.ordinal();
+                }
+            }
+            if (rejectedBy == 0) {
+                hits.add(new ScoredProduct(document, document.score(terms)));
+            }
+            for (Facet facet : FACETS) {
+                Comparable<?> facetValue = facet.value.apply(document);
+                if (facetValue != null && (rejectedBy & ~(1 << facet.ordinal())) == 0) {
+                    facetCounts.get(facet.ordinal()).merge(facetValue, 1L, Long::sum);
+                }
+            }
+        }
+        hits.sort(Comparator.comparingInt(ScoredProduct::score).reversed()
+                .thenComparing(hit -> hit.document().name())
+                .thenComparing(hit -> hit.document().id()));
+
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (Facet facet : FACETS) {
+            facets.put(facet.label, labelled(facetCounts.get(facet.ordinal())));
+        }
+        int from = (int) Math.min((long) page * PAGE_SIZE, hits.size());
+        List<ProductSearchHitDTO> content = hits.subList(from, Math.min(from + PAGE_SIZE, hits.size()))
+                .stream()
+                .map(hit -> hit.document().toHit())
+                .toList();
+        searchTimer.record(Duration.ofNanos(System.nanoTime() - started));
+        return new SearchResultDTO(content, page, PAGE_SIZE, hits.size(), facets);
+    }
+
+    /**
+     * Product names and ingredient phrases with a word starting with {@code prefix}, most ordered first.
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        long started = System.nanoTime();
+        SuggestionIndex current = suggestions;
+        if (current == null || !current.isCurrent(catalogWrites.get(), popularity.version())) {
+            current = rebuildSuggestions();
+        }
+        List<SuggestionDTO> found = new ArrayList<>();
+        for (Suggestion suggestion : current.find(prefix, limit)) {
+            found.add(new SuggestionDTO(suggestion.text(), suggestion.productId(), suggestion.productType(),
+                    suggestion.thumbnailImageURL()));
+        }
+        suggestTimer.record(Duration.ofNanos(System.nanoTime() - started));
+        return found;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private synchronized SuggestionIndex rebuildSuggestions() {
+        long catalogVersion = catalogWrites.get();
+        long popularityVersion = popularity.version();
+        SuggestionIndex current = suggestions;
+        if (current != null && current.isCurrent(catalogVersion, popularityVersion)) {
+            return current;
+        }
+        List<Suggestion> entries = new ArrayList<>(documents.size() * 2);
+        Map<String, Long> ingredientPopularity = new HashMap<>();
+        for (IndexedProduct document : documents.values()) {
+            long unitsSold = popularity.sold(document.id(), SalesWindowEnum.WEEK);
+            entries.add(new Suggestion(document.name(), document.id(), document.productType(),
+                    document.thumbnailImageURL(), unitsSold));
+            if (document.ingredients() != null) {
+                for (String phrase : ingredientPhrases(document.ingredients())) {
+                    ingredientPopularity.merge(phrase, unitsSold, Long::sum);
+                }
+            }
+        }
+        ingredientPopularity.forEach((phrase, unitsSold) ->
+                entries.add(new Suggestion(phrase, null, null, null, unitsSold)));
+        current = SuggestionIndex.build(entries, catalogVersion, popularityVersion);
+        suggestions = current;
+        return current;
+    }
+
+    /**
+     * Ingredient lists are free text such as "Shrimp, Fresh tomato, Onion, Egg"; each listed item becomes
+     * one lower-case phrase.
+     */
+    static Set<String> ingredientPhrases(List<String> ingredients) {
+        Set<String> phrases = new HashSet<>();
+        for (String ingredient : ingredients) {
+            for (String phrase : ingredient.toLowerCase(Locale.ROOT).split("[,;.]|\\s+and\\s+")) {
+                String trimmed = phrase.trim();
+                if (!trimmed.isEmpty() && trimmed.length() <= MAX_INGREDIENT_SUGGESTION_LENGTH) {
+                    phrases.add(trimmed);
+                }
+            }
+        }
+        return phrases;
+    }
+
+    /**
+     * Facet values in their natural order (enum declaration, numeric size) keyed by their text.
+     * Each facet is counted with every filter applied except its own, so after choosing a value the
+     * response still shows how many hits the alternatives would have.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, Long> labelled(Map<Comparable<?>, Long> counts) {
+        Map<String, Long> labelled = new LinkedHashMap<>();
+        new TreeMap<Comparable, Long>((Map) counts).forEach((facetValue, count) -> labelled.put(facetValue.toString(), count));
+        return labelled;
+    }
+
+    private List<IndexedProduct> matching(List<String> terms) {
+        if (terms.isEmpty()) {
+            return new ArrayList<>(documents.values());
+        }
+        List<Set<Long>> postingLists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Set<Long> ids = postings.get(term);
+            if (ids == null) {
+                return List.of();
+            }
+            postingLists.add(ids);
+        }
+        postingLists.sort(Comparator.comparingInt(Set::size));
+
+        List<IndexedProduct> matches = new ArrayList<>();
+        for (Long id : postingLists.get(0)) {
+            IndexedProduct document = documents.get(id);
+            if (document != null && document.termWeights().keySet().containsAll(terms)) {
+                matches.add(document);
+            }
+        }
+        return matches;
+    }
+
+    private record ScoredProduct(IndexedProduct document, int score) {
+    }
+
+    private enum Facet {
+        PRODUCT_TYPE("productType", IndexedProduct::productType, SearchFilters::productType),
+        FOOD_TYPE("foodType", IndexedProduct::foodType, SearchFilters::foodType),
+        PRICE_BAND("priceBand", IndexedProduct::priceBand, SearchFilters::priceBand),
+        MILLILITERS("milliliters", IndexedProduct::milliliters, SearchFilters::milliliters);
+
+        private final String label;
+        private final Function<IndexedProduct, Comparable<?>> value;
+        private final Function<SearchFilters, Object> selected;
+
+        Facet(String label, Function<IndexedProduct, Comparable<?>> value, Function<SearchFilters, Object> selected) {
+            this.label = label;
+            this.value = value;
+            this.selected = selected;
+        }
+
+        boolean accepts(SearchFilters filters, IndexedProduct document) {
+            Object wanted = selected.apply(filters);
+            return wanted == null || wanted.equals(value.apply(document));
+        }
+    }
+
+    private record IndexedProduct(Long id, String name, ProductTypeEnum productType, FoodTypeEnum foodType,
+                                  double price, PriceBandEnum priceBand, String imageURL, String thumbnailImageURL,
+                                  Integer grams, Integer milliliters, List<String> ingredients,
+                                  Map<String, Integer> termWeights) {
+
+        static IndexedProduct of(Product product) {
+            Map<String, Integer> termWeights = new HashMap<>();
+            addTerms(termWeights, product.getName(), NAME_WEIGHT);
+            addTerms(termWeights, product.getProductType() == null ? null : product.getProductType().name(), PRODUCT_TYPE_WEIGHT);
+            FoodTypeEnum foodType = null;
+            Integer grams = null;
+            Integer milliliters = null;
+            List<String> ingredients = null;
+            if (product instanceof FoodEntity food) {
+                foodType = food.getFoodTypeEnum();
+                grams = food.getGrams();
+                ingredients = food.getIngredients() == null ? List.of() : List.copyOf(food.getIngredients());
+                addTerms(termWeights, foodType == null ? null : foodType.name(), TYPE_WEIGHT);
+                ingredients.forEach(ingredient -> addTerms(termWeights, ingredient, INGREDIENT_WEIGHT));
+            } else if (product instanceof BeverageEntity beverage) {
+                milliliters = beverage.getMilliliters();
+            }
+            return new IndexedProduct(product.getId(), product.getName(), product.getProductType(), foodType,
+                    product.getPrice(), PriceBandEnum.of(product.getPrice()), product.getImageURL(),
+                    product.getThumbnailImageURL(), grams, milliliters, ingredients, Map.copyOf(termWeights));
+        }
+
+        /**
+         * A term found in several fields counts once per field, so "pizza" scores higher on a pizza named
+         * "Pizza Napoli" than on one only typed as pizza.
+         */
+        private static void addTerms(Map<String, Integer> termWeights, String text, int weight) {
+            new HashSet<>(SearchTokenizer.tokenize(text)).forEach(term -> termWeights.merge(term, weight, Integer::sum));
+        }
+
+        int score(List<String> terms) {
+            int score = 0;
+            for (String term : terms) {
+                score += termWeights.getOrDefault(term, 0);
+            }
+            return score;
+        }
+
+        ProductSearchHitDTO toHit() {
+            return new ProductSearchHitDTO(id, name, productType, foodType, price, imageURL, thumbnailImageURL,
+                    grams, milliliters, ingredients);
+        }
+    }
+}
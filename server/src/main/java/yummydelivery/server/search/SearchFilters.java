@@ -0,0 +1,15 @@
+package yummydelivery.server.search;
+
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.PriceBandEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+
+/**
+ * Facet values a search is narrowed to; a null field does not filter.
+ */
+public record SearchFilters(ProductTypeEnum productType, FoodTypeEnum foodType, PriceBandEnum priceBand, Integer milliliters) {
+
+    public static SearchFilters none() {
+        return new SearchFilters(null, null, null, null);
+    }
+}
@@ -0,0 +1,47 @@
+package yummydelivery.server.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-case search terms: punctuation separates words, common filler words are dropped
+ * and plurals are folded to their singular, so "pizza with shrimps" finds an ingredient list containing "Shrimp".
+ */
+public final class SearchTokenizer {
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "with", "of", "in", "on", "or", "for", "to");
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                terms.add(singular(word));
+            }
+        }
+        return terms;
+    }
+
+    static String singular(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("sses") || word.endsWith("xes")
+                || word.endsWith("ches") || word.endsWith("shes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
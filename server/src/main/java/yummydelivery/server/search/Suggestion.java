@@ -0,0 +1,10 @@
+package yummydelivery.server.search;
+
+import yummydelivery.server.enums.ProductTypeEnum;
+
+/**
+ * A product name ({@code productId} set) or an ingredient phrase offered while typing.
+ */
+public record Suggestion(String text, Long productId, ProductTypeEnum productType, String thumbnailImageURL,
+                         long popularity) {
+}
@@ -0,0 +1,120 @@
+package yummydelivery.server.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable sorted-array prefix index. Every word start of a suggestion is a key, so "marg" finds
+ * "Pizza Margherita"; a lookup is a binary search to the first key with the prefix and a scan of the keys
+ * that share it. Suggestions are stored best first, so ranking while scanning only compares their positions.
+ */
+final class SuggestionIndex {
+    static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingLong(Suggestion::popularity).reversed()
+            .thenComparing(suggestion -> suggestion.productId() == null)
+            .thenComparingInt(suggestion -> suggestion.text().length())
+            .thenComparing(Suggestion::text);
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final String[] keys;
+    private final int[] ranks;
+    private final Suggestion[] suggestions;
+    private final long catalogVersion;
+    private final long popularityVersion;
+
+    private SuggestionIndex(String[] keys, int[] ranks, Suggestion[] suggestions,
+                            long catalogVersion, long popularityVersion) {
+        this.keys = keys;
+        this.ranks = ranks;
+        this.suggestions = suggestions;
+        this.catalogVersion = catalogVersion;
+        this.popularityVersion = popularityVersion;
+    }
+
+    static SuggestionIndex build(List<Suggestion> suggestions, long catalogVersion, long popularityVersion) {
+        Suggestion[] ranked = suggestions.toArray(Suggestion[]::new);
+        Arrays.sort(ranked, BEST_FIRST);
+        List<String> keyList = new ArrayList<>();
+        List<Integer> rankList = new ArrayList<>();
+        for (int rank = 0; rank < ranked.length; rank++) {
+            String text = normalize(ranked[rank].text());
+            for (int start = 0; start < text.length(); start++) {
+                if (start == 0 || text.charAt(start - 1) == ' ') {
+                    keyList.add(text.substring(start));
+                    rankList.add(rank);
+                }
+            }
+        }
+        Integer[] order = new Integer[keyList.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(keyList::get));
+
+        String[] keys = new String[order.length];
+        int[] ranks = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            ranks[i] = rankList.get(order[i]);
+        }
+        return new SuggestionIndex(keys, ranks, ranked, catalogVersion, popularityVersion);
+    }
+
+    List<Suggestion> find(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        // Lowest ranks seen so far, ascending; a suggestion with several matching words is kept once.
+        int[] best = new int[limit];
+        int found = 0;
+        for (int i = lowerBound(normalized); i < keys.length && keys[i].startsWith(normalized); i++) {
+            int rank = ranks[i];
+            if (found == limit && rank >= best[found - 1]) {
+                continue;
+            }
+            int position = found;
+            while (position > 0 && best[position - 1] > rank) {
+                position--;
+            }
+            if (position > 0 && best[position - 1] == rank) {
+                continue;
+            }
+            int moved = Math.min(found, limit - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            best[position] = rank;
+            found = Math.min(found + 1, limit);
+        }
+        List<Suggestion> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(suggestions[best[i]]);
+        }
+        return result;
+    }
+
+    boolean isCurrent(long catalogVersion, long popularityVersion) {
+        return this.catalogVersion == catalogVersion && this.popularityVersion == popularityVersion;
+    }
+
+    int keyCount() {
+        return keys.length;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : SEPARATORS.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -1,6 +1,5 @@
 package yummydelivery.server.security;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -8,6 +7,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import yummydelivery.server.exceptions.UserNotFoundException;
+import yummydelivery.server.mapper.UserPrincipalMapper;
 import yummydelivery.server.model.UserEntity;
 import yummydelivery.server.repository.UserRepository;
 
@@ -18,16 +18,14 @@ import java.util.stream.Collectors;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
 
-    public CustomUserDetailsService(UserRepository userRepository, ModelMapper modelMapper) {
+    public CustomUserDetailsService(UserRepository userRepository) {
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        UserEntity user = userRepository.findByEmail(email).orElseThrow(
+        UserEntity user = userRepository.findWithRolesByEmail(email).orElseThrow(
                 () -> new UserNotFoundException(HttpStatus.NOT_FOUND, "User not found")
         );
         Set<SimpleGrantedAuthority> authorities = user
@@ -36,8 +34,6 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
                 .collect(Collectors.toSet());
 
-        UserPrincipal userPrincipal = modelMapper.map(user, UserPrincipal.class);
-        userPrincipal.setAuthorities(authorities);
-        return userPrincipal;
+        return UserPrincipalMapper.toUserPrincipal(user, authorities);
     }
 }
@@ -8,7 +8,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -18,6 +20,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import yummydelivery.server.config.ApplicationConstants;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -26,6 +30,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider tokenProvider;
     @Autowired
     private UserDetailsService userDetailsService;
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private TokenVersionService tokenVersionService;
+    @Value("${app.security.statelessAuth:false}")
+    private boolean statelessAuth;
 
 
     @Override
@@ -34,9 +44,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
-            if (StringUtils.hasText(jwt) && tokenProvider.validateJwtToken(jwt)) {
-                String userEmail = tokenProvider.getUsernameFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            Optional<VerifiedJwt> verifiedJwt = StringUtils.hasText(jwt)
+                    ? tokenProvider.parseVerifiedToken(jwt)
+                    : Optional.empty();
+            if (verifiedJwt.isPresent() && tokenVersionService.isCurrent(verifiedJwt.get())) {
+                UserDetails userDetails = resolvePrincipal(verifiedJwt.get());
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -47,6 +59,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolvePrincipal(VerifiedJwt jwt) {
+        String userEmail = jwt.getSubject();
+        if (statelessAuth && !jwt.getRoles().isEmpty()) {
+            List<SimpleGrantedAuthority> authorities = jwt.getRoles().stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
+            return UserPrincipal.builder()
+                    .email(userEmail)
+                    .authorities(authorities)
+                    .tokenVersion(jwt.getTokenVersion())
+                    .build();
+        }
+        return principalCache.get(userEmail, () -> userDetailsService.loadUserByUsername(userEmail));
+    }
+
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
         AntPathMatcher pathMatcher = new AntPathMatcher();
@@ -8,38 +8,57 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
-    @Value("${app.jwtSecret}")
-    private String jwtSecretKey;
-    @Value("${app.jwtExpirationMs}")
-    private int jwtExpirationMs;
+    private static final String ROLES_CLAIM = "roles";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+    private final int jwtExpirationMs;
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+
+    public JwtTokenProvider(@Value("${app.jwtSecret}") String jwtSecretKey,
+                            @Value("${app.jwtExpirationMs}") int jwtExpirationMs) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecretKey));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        Map<String, Object> claims = Map.of("roles", userPrincipal.getAuthorities());
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        Map<String, Object> claims = Map.of(
+                ROLES_CLAIM, roles,
+                TOKEN_VERSION_CLAIM, userPrincipal.getTokenVersion());
 
         String token = Jwts.builder()
                 .setClaims(claims)
                 .setSubject(userPrincipal.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date((new Date().getTime() + jwtExpirationMs)))
-                .signWith(getKey())
+                .signWith(signingKey)
                 .compact();
         return token;
     }
 
-    public boolean validateJwtToken(String authToken) {
+    public Optional<VerifiedJwt> parseVerifiedToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getKey()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+            return Optional.of(new VerifiedJwt(claims.getSubject(), readRoles(claims),
+                    tokenVersion == null ? 0 : tokenVersion, claims.getExpiration()));
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -51,14 +70,18 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
-    public String getUsernameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getKey()).build().parseClaimsJws(token).getBody().getSubject();
-    }
-
-    private Key getKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecretKey));
+    private List<String> readRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> roleClaims)) {
+            return List.of();
+        }
+        // older tokens carry serialized authorities: {"authority": "ROLE_X"}
+        return roleClaims.stream()
+                .map(role -> role instanceof Map<?, ?> authority ? authority.get("authority") : role)
+                .map(String::valueOf)
+                .toList();
     }
 }
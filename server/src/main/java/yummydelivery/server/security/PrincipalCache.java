@@ -0,0 +1,42 @@
+package yummydelivery.server.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import yummydelivery.server.cache.BoundedCache;
+
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class PrincipalCache {
+    private final BoundedCache<String, UserDetails> principals;
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${app.principalCache.maxEntries:10000}") int maxEntries,
+                          @Value("${app.principalCache.ttlMs:300000}") long ttlMs,
+                          @Value("${app.jwtExpirationMs}") long jwtExpirationMs) {
+        // a principal must never outlive the token it was loaded for
+        this.principals = new BoundedCache<>(maxEntries, Math.min(ttlMs, jwtExpirationMs));
+        principals.registerMetrics(meterRegistry, "principals");
+    }
+
+    public UserDetails get(String email, Supplier<UserDetails> loader) {
+        return principals.get(email, loader);
+    }
+
+    public void invalidate(String email) {
+        principals.invalidate(email);
+        log.debug("Cached principal evicted for {}", email);
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+
+    public double hitRatio() {
+        return principals.hitRatio();
+    }
+}
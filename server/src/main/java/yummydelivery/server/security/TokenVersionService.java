@@ -0,0 +1,36 @@
+package yummydelivery.server.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import yummydelivery.server.cache.BoundedCache;
+import yummydelivery.server.repository.UserRepository;
+
+/**
+ * Rejects tokens issued before the user's last credential change.
+ * Versions are cached, so on other nodes a revoked token stays usable for at most the cache TTL.
+ */
+@Component
+public class TokenVersionService {
+    private final UserRepository userRepository;
+    private final BoundedCache<String, Integer> tokenVersions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.tokenVersionCache.maxEntries:10000}") int maxEntries,
+                               @Value("${app.tokenVersionCache.ttlMs:60000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.tokenVersions = new BoundedCache<>(maxEntries, ttlMs);
+        tokenVersions.registerMetrics(meterRegistry, "token.versions");
+    }
+
+    public boolean isCurrent(VerifiedJwt jwt) {
+        Integer currentVersion = tokenVersions.get(jwt.getSubject(),
+                () -> userRepository.findTokenVersionByEmail(jwt.getSubject()).orElse(null));
+        return currentVersion != null && currentVersion == jwt.getTokenVersion();
+    }
+
+    public void invalidate(String email) {
+        tokenVersions.invalidate(email);
+    }
+}
@@ -18,6 +18,7 @@ public class UserPrincipal implements UserDetails {
     private String email;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    private int tokenVersion;
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
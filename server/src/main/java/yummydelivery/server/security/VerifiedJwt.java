@@ -0,0 +1,16 @@
+package yummydelivery.server.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class VerifiedJwt {
+    private final String subject;
+    private final List<String> roles;
+    private final int tokenVersion;
+    private final Date expiration;
+}
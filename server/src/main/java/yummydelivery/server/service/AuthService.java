@@ -62,7 +62,7 @@ public class AuthService {
 
         userRepository.save(newUser);
 
-        emailService.sendEmail(EmailDetails.builder()
+        emailService.queueEmail(EmailDetails.builder()
                 .messageBody("Successful registration. Enjoy the delicious food offered by Yummy Delivery.")
                 .recipient(newUser.getEmail())
                 .subject("Registration Success")
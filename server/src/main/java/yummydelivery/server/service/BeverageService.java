@@ -2,24 +2,33 @@ package yummydelivery.server.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.cache.MenuCache;
 import yummydelivery.server.dto.BeverageDTO.BeverageDTO;
 import yummydelivery.server.dto.view.BeverageView;
 import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
 import yummydelivery.server.exceptions.BeverageNotFoundException;
 import yummydelivery.server.exceptions.InvalidProductTypeException;
 import yummydelivery.server.exceptions.ProductNotFoundException;
+import yummydelivery.server.mapper.BeverageMapper;
 import yummydelivery.server.model.BeverageEntity;
 import yummydelivery.server.model.Product;
 import yummydelivery.server.repository.ProductRepository;
 import yummydelivery.server.utils.CommonUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -28,12 +37,22 @@ public class BeverageService {
     private final ModelMapper modelMapper;
     private final CloudinaryService cloudinaryService;
     private final CommonUtils utils;
-
-    public BeverageService(ProductRepository productRepository, ModelMapper modelMapper, CloudinaryService cloudinaryService, CommonUtils utils) {
+    private final MenuCache menuCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductImagePipeline imagePipeline;
+    private final ProductPopularityService popularity;
+
+    public BeverageService(ProductRepository productRepository, ModelMapper modelMapper, CloudinaryService cloudinaryService, CommonUtils utils,
+                           MenuCache menuCache, ApplicationEventPublisher eventPublisher, ProductImagePipeline imagePipeline,
+                           ProductPopularityService popularity) {
         this.productRepository = productRepository;
         this.modelMapper = modelMapper;
         this.cloudinaryService = cloudinaryService;
         this.utils = utils;
+        this.menuCache = menuCache;
+        this.eventPublisher = eventPublisher;
+        this.imagePipeline = imagePipeline;
+        this.popularity = popularity;
     }
 
     public BeverageView getBeverageById(Long id) {
@@ -45,7 +64,7 @@ public class BeverageService {
         } else {
             throw new InvalidProductTypeException(HttpStatus.BAD_REQUEST, "Unexpected product type: " + product.getProductType());
         }
-        return modelMapper.map(beverageEntity, BeverageView.class);
+        return BeverageMapper.toBeverageView(beverageEntity);
     }
 
     public void addBeverage(BeverageDTO addBeverageDTO, MultipartFile productImage) {
@@ -53,19 +72,23 @@ public class BeverageService {
             throw new IllegalArgumentException("Cannot use this product name. it's already assigned");
         }
         BeverageEntity beverageEntity = modelMapper.map(addBeverageDTO, BeverageEntity.class);
+        boolean imageProvided = productImage != null && !productImage.isEmpty();
 
-        if (productImage == null || productImage.isEmpty()) {
-            String defaultProductImageURL = "https://res.cloudinary.com/dncjjyvqi/image/upload/v1707229014/YummyDeliveryImages/defaultProductImage.png";
-            beverageEntity.setImageURL(defaultProductImageURL);
-            log.info("Product image is not provided. Default one is used");
-        } else {
+        if (imageProvided) {
             cloudinaryService.validateImageFile(productImage);
-            String imageUrl = cloudinaryService.uploadImage(productImage, addBeverageDTO.getName());
-            beverageEntity.setImageURL(imageUrl);
-            log.info("Product image is provided and uploaded successfully to Cloudinary");
+            imagePipeline.checkCapacity();
+        } else {
+            log.info("Product image is not provided. Default one is used");
         }
+        beverageEntity.setImageURL(cloudinaryService.placeholderImageUrl());
         beverageEntity.setProductType(ProductTypeEnum.BEVERAGE);
         productRepository.save(beverageEntity);
+        eventPublisher.publishEvent(CatalogChangedEvent.beverage(beverageEntity.getId(), CatalogChangedEvent.ChangeType.ADDED));
+        if (imageProvided) {
+            imagePipeline.submit(beverageEntity.getId(), addBeverageDTO.getName(), productImage,
+                    CatalogChangedEvent.beverage(beverageEntity.getId(), CatalogChangedEvent.ChangeType.UPDATED));
+            log.info("Product image is queued for upload");
+        }
     }
 
 
@@ -81,28 +104,48 @@ public class BeverageService {
         BeverageEntity beverageEntity;
         beverageEntity = (BeverageEntity) product;
 
-        if (imageURL == null || imageURL.isEmpty()) {
-            updateBeverage(beverageEntity, dto);
-        } else {
+        boolean imageProvided = imageURL != null && !imageURL.isEmpty();
+        if (imageProvided) {
             cloudinaryService.validateImageFile(imageURL);
-            String newImageURL = cloudinaryService.uploadImage(imageURL, dto.getName());
-            updateBeverage(beverageEntity, dto, newImageURL);
-            log.info("Product image is provided and uploaded successfully to Cloudinary");
+            imagePipeline.checkCapacity();
         }
+        updateBeverage(beverageEntity, dto);
         productRepository.save(beverageEntity);
+        CatalogChangedEvent change = CatalogChangedEvent.beverage(id, CatalogChangedEvent.ChangeType.UPDATED);
+        eventPublisher.publishEvent(change);
+        if (imageProvided) {
+            imagePipeline.submit(id, dto.getName(), imageURL, change);
+            log.info("Product image is queued for upload");
+        }
     }
 
     public Page<BeverageView> getAllBeverages(int page) {
         if (page > 0) page -= 1;
-        Page<BeverageEntity> beveragesPageable = productRepository.findAllBeveragesPageable(PageRequest.of(page, 6));
+        Pageable pageable = PageRequest.of(page, 6);
+        return menuCache.getBeverages(pageable, () -> loadBeverages(pageable));
+    }
 
-        List<BeverageView> viewList = beveragesPageable
-                .getContent()
+    /**
+     * Same page size as {@link #getAllBeverages}, ordered by units sold in the last week.
+     */
+    public Page<BeverageView> getAllBeveragesByPopularity(int page) {
+        if (page > 0) page -= 1;
+        Pageable pageable = PageRequest.of(page, 6);
+        List<Long> ranked = popularity.sortByUnitsSold(productRepository.findAllBeverageIds(), SalesWindowEnum.WEEK);
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        List<Long> pageIds = ranked.subList(from, Math.min(from + pageable.getPageSize(), ranked.size()));
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ranked.size());
+        }
+        Map<Long, BeverageView> beveragesById = productRepository.findBeverageViewsByIdIn(pageIds)
                 .stream()
-                .map(beverageEntity -> modelMapper.map(beverageEntity, BeverageView.class))
-                .toList();
+                .collect(Collectors.toMap(BeverageView::getId, beverage -> beverage));
+        List<BeverageView> beverages = pageIds.stream().map(beveragesById::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(beverages, pageable, ranked.size());
+    }
 
-        return new PageImpl<>(viewList, beveragesPageable.getPageable(), beveragesPageable.getTotalElements());
+    private Page<BeverageView> loadBeverages(Pageable pageable) {
+        return productRepository.findAllBeverageViews(pageable);
     }
 
     private Product getProductByIdOrElseThrow(Long id) {
@@ -119,12 +162,5 @@ public class BeverageService {
         beverageEntity.setMilliliters(dto.getMilliliters());
     }
 
-    private void updateBeverage(BeverageEntity beverageEntity, BeverageDTO dto, String newImageURL) {
-        beverageEntity.setName(dto.getName());
-        beverageEntity.setPrice(dto.getPrice());
-        beverageEntity.setMilliliters(dto.getMilliliters());
-        beverageEntity.setImageURL(newImageURL);
-    }
-
 
 }
@@ -3,101 +3,169 @@ package yummydelivery.server.service;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import yummydelivery.server.dto.CartItemDTO;
+import yummydelivery.server.dto.CartItemDeltaDTO;
 import yummydelivery.server.dto.ShoppingCartDTO;
 import yummydelivery.server.exceptions.ProductNotFoundException;
 import yummydelivery.server.exceptions.ShoppingCartException;
+import yummydelivery.server.mapper.ProductMapper;
 import yummydelivery.server.model.*;
+import yummydelivery.server.pricing.PricingEngine;
 import yummydelivery.server.repository.*;
 import yummydelivery.server.security.AuthenticationFacade;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CartService {
     private final CartRepository cartRepository;
-    private final UserRepository userRepository;
-    private final UserService userService;
     private final CartItemRepository cartItemRepository;
     private final AuthenticationFacade authenticationFacade;
     private final ProductRepository productRepository;
+    private final UserRepository userRepository;
 
-    public CartService(CartRepository cartRepository, UserRepository userRepository, UserService userService, CartItemRepository cartItemRepository, AuthenticationFacade authenticationFacade, ProductRepository productRepository) {
+    public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository, AuthenticationFacade authenticationFacade, ProductRepository productRepository, UserRepository userRepository) {
         this.cartRepository = cartRepository;
-        this.userRepository = userRepository;
-        this.userService = userService;
         this.cartItemRepository = cartItemRepository;
         this.authenticationFacade = authenticationFacade;
         this.productRepository = productRepository;
+        this.userRepository = userRepository;
     }
 
+    /**
+     * Adds one unit of the product with a couple of set-based statements instead of a read-modify-write
+     * of the whole cart. Like {@link #applyCartChanges}, the whole line is repriced at the current catalog
+     * price. The cart row is updated first, so concurrent changes to the same cart queue up on its row lock
+     * and always lock the cart before any of its items.
+     */
+    @Transactional
     public void addItemToShoppingCart(Long productId) {
         authenticationFacade.checkIfUserIsAuthenticated();
 
-        Product product = productRepository
-                .findById(productId).orElseThrow(() -> new ProductNotFoundException(HttpStatus.NOT_FOUND, "Product not found"));
-
-        UserEntity user = userService.getCurrentUserByUsername();
-        ShoppingCartEntity shoppingCartEntity = user.getCart();
-        CartItem cartItem = findItemInShoppingCart(shoppingCartEntity.getCartItems(), productId);
+        long price = productRepository
+                .findPriceById(productId)
+                .map(PricingEngine::toMinorUnits)
+                .orElseThrow(() -> new ProductNotFoundException(HttpStatus.NOT_FOUND, "Product not found"));
+        Long cartId = getCurrentUserCartId();
 
-        Optional<CartItem> cartItemOptional = cartItemRepository.findByProductId(productId);
-
-        if (cartItem == null) {
-            cartItem = cartItemOptional.orElseGet(CartItem::new);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(1);
-            shoppingCartEntity.getCartItems().add(cartItem);
-        } else {
-            cartItem.setQuantity(cartItem.getQuantity() + 1);
+        cartRepository.repriceLineInCartPrice(cartId, productId, 1, price);
+        if (cartItemRepository.incrementQuantity(cartId, productId, 1, price) == 0) {
+            cartItemRepository.insertCartItem(cartId, productId, 1, price);
         }
-        cartItem.setPrice(cartItem.getQuantity() * product.getPrice());
-
-        shoppingCartEntity.setCartPrice(getShoppingCartTotalPrice(shoppingCartEntity));
-        cartItemRepository.save(cartItem);
-        cartRepository.save(shoppingCartEntity);
     }
 
     public ShoppingCartDTO getUserCart() {
-        ShoppingCartEntity shoppingCartEntity = userService.getCurrentUserByUsername().getCart();
-        ShoppingCartDTO cartDTO = new ShoppingCartDTO();
+        ShoppingCartEntity shoppingCartEntity = getCurrentUserCart();
+        return toShoppingCartDTO(shoppingCartEntity.getCartItems(), shoppingCartEntity.getCartPriceMinor());
+    }
+
+    /**
+     * Applies a batch of quantity changes to the current user's cart in one transaction.
+     * Changes for the same product are summed and lines that drop to zero or below are removed. Changed lines
+     * are repriced at the current catalog price and only their difference is applied to the cart total.
+     * Quantities or totals too large for their columns are rejected rather than wrapped around.
+     */
+    @Transactional
+    public ShoppingCartDTO applyCartChanges(List<CartItemDeltaDTO> changes) {
+        authenticationFacade.checkIfUserIsAuthenticated();
 
-        List<CartItem> cartItems = shoppingCartEntity.getCartItems();
-        cartDTO.setItems(cartItems);
-        cartDTO.setCartPrice(shoppingCartEntity.getCartPrice());
-        return cartDTO;
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        try {
+            changes.forEach(change -> deltas.merge(change.getProductId(), change.getQuantityDelta(), Math::addExact));
+        } catch (ArithmeticException e) {
+            throw new ShoppingCartException(HttpStatus.BAD_REQUEST, "Quantity change is too large");
+        }
+
+        Long cartId = getCurrentUserCartId();
+        ShoppingCartEntity userCart = cartRepository
+                .findByIdForUpdate(cartId)
+                .orElseThrow(() -> new ShoppingCartException(HttpStatus.NOT_FOUND, "Shopping cart not found"));
+        Map<Long, CartItem> lines = new LinkedHashMap<>();
+        cartItemRepository.findAllByCartIdWithProduct(cartId)
+                .forEach(item -> lines.put(item.getProduct().getId(), item));
+        Map<Long, Product> products = productRepository.findAllById(deltas.keySet())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<CartItem> addedItems = new ArrayList<>();
+        List<CartItem> removedItems = new ArrayList<>();
+        long cartPrice = userCart.getCartPriceMinor();
+        for (Map.Entry<Long, Integer> change : deltas.entrySet()) {
+            Long productId = change.getKey();
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ProductNotFoundException(HttpStatus.NOT_FOUND, "Product with id " + productId + " not found");
+            }
+            CartItem line = lines.get(productId);
+            long oldLineTotal = line == null ? 0 : line.getPriceMinor();
+            long quantity = (long) (line == null ? 0 : line.getQuantity()) + change.getValue();
+            if (quantity <= 0) {
+                if (line != null) {
+                    lines.remove(productId);
+                    removedItems.add(line);
+                    cartPrice = PricingEngine.reprice(cartPrice, oldLineTotal, 0);
+                }
+                continue;
+            }
+            if (line == null) {
+                line = new CartItem();
+                line.setCart(userCart);
+                line.setProduct(product);
+                lines.put(productId, line);
+                addedItems.add(line);
+            }
+            try {
+                line.setQuantity(Math.toIntExact(quantity));
+                line.setPriceMinor(PricingEngine.lineTotal(PricingEngine.toMinorUnits(product.getPrice()), line.getQuantity()));
+                cartPrice = PricingEngine.reprice(cartPrice, oldLineTotal, line.getPriceMinor());
+            } catch (ArithmeticException e) {
+                throw new ShoppingCartException(HttpStatus.BAD_REQUEST, "Quantity of product " + productId + " is too large");
+            }
+        }
+
+        cartItemRepository.deleteAll(removedItems);
+        cartItemRepository.saveAll(addedItems);
+        userCart.setCartPriceMinor(cartPrice);
+        return toShoppingCartDTO(lines.values(), cartPrice);
     }
 
     @Transactional
     public void removeItemFromCart(Long cartItemId) {
         authenticationFacade.checkIfUserIsAuthenticated();
 
-        UserEntity user = userService.getCurrentUserByUsername();
+        Long cartId = getCurrentUserCartId();
+        ShoppingCartEntity userCart = cartRepository
+                .findByIdForUpdate(cartId)
+                .orElseThrow(() -> new ShoppingCartException(HttpStatus.NOT_FOUND, "Shopping cart not found"));
         CartItem itemToRemove = cartItemRepository
-                .findById(cartItemId)
+                .findByIdAndCartId(cartItemId, cartId)
                 .orElseThrow(() -> new ShoppingCartException(HttpStatus.NOT_FOUND, "Cart Item not found"));
 
-        ShoppingCartEntity userCart = user.getCart();
-        userCart.getCartItems().remove(itemToRemove);
+        userCart.setCartPriceMinor(PricingEngine.reprice(userCart.getCartPriceMinor(), itemToRemove.getPriceMinor(), 0));
+        cartItemRepository.delete(itemToRemove);
+    }
 
-        userCart.setCartPrice(getShoppingCartTotalPrice(userCart));
-        //cartItemRepository.delete(itemToRemove);
-        userRepository.save(user);
+    private Long getCurrentUserCartId() {
+        String username = authenticationFacade.getAuthentication().getName();
+        return userRepository
+                .findCartIdByEmail(username)
+                .orElseThrow(() -> new ShoppingCartException(HttpStatus.NOT_FOUND, "Shopping cart not found"));
     }
 
-    private CartItem findItemInShoppingCart(List<CartItem> items, Long productId) {
-        CartItem cartItem = null;
-        for (CartItem item : items) {
-            if (item.getProduct().getId() == productId) {
-                cartItem = item;
-            }
-        }
-        return cartItem;
+    private ShoppingCartEntity getCurrentUserCart() {
+        String username = authenticationFacade.getAuthentication().getName();
+        return cartRepository
+                .findByUserEmailWithItems(username)
+                .orElseThrow(() -> new ShoppingCartException(HttpStatus.NOT_FOUND, "Shopping cart not found"));
     }
 
-    private double getShoppingCartTotalPrice(ShoppingCartEntity shoppingCart) {
-        return shoppingCart.getCartItems().stream()
-                .mapToDouble(CartItem::getPrice)
-                .sum();
+    private ShoppingCartDTO toShoppingCartDTO(Collection<CartItem> cartItems, long cartPrice) {
+        List<CartItemDTO> items = cartItems.stream()
+                .map(item -> new CartItemDTO(item.getId(), ProductMapper.toProductView(item.getProduct()),
+                        item.getQuantity(), PricingEngine.toMajorUnits(item.getPriceMinor())))
+                .toList();
+        return new ShoppingCartDTO(new ArrayList<>(items), PricingEngine.toMajorUnits(cartPrice));
     }
 }
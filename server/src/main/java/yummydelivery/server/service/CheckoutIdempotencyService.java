@@ -0,0 +1,111 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import yummydelivery.server.cache.BoundedCache;
+import yummydelivery.server.exceptions.IdempotencyKeyException;
+import yummydelivery.server.security.AuthenticationFacade;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes checkout safe to retry. Keys are scoped to the current user; a key seen before is answered
+ * from memory with the original order id, and duplicates arriving while the first attempt is still
+ * running wait for its outcome instead of checking out a second time. Failed attempts are not stored,
+ * so the client can retry them with the same key.
+ */
+@Service
+@Slf4j
+public class CheckoutIdempotencyService {
+    static final int MAX_KEY_LENGTH = 128;
+
+    private final OrderService orderService;
+    private final AuthenticationFacade authenticationFacade;
+    private final BoundedCache<ScopedKey, CompletedCheckout> completed;
+    private final ConcurrentHashMap<ScopedKey, CompletableFuture<CompletedCheckout>> inFlight = new ConcurrentHashMap<>();
+    private final Counter replays;
+
+    public CheckoutIdempotencyService(OrderService orderService,
+                                      AuthenticationFacade authenticationFacade,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.idempotency.maxEntries:10000}") int maxEntries,
+                                      @Value("${app.idempotency.ttlMs:86400000}") long ttlMs) {
+        this.orderService = orderService;
+        this.authenticationFacade = authenticationFacade;
+        this.completed = new BoundedCache<>(maxEntries, ttlMs);
+        completed.registerMetrics(meterRegistry, "checkout.idempotency");
+        this.replays = Counter.builder("app.orders.checkout.replayed").register(meterRegistry);
+    }
+
+    public CheckoutResult createOrder(Long addressId, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        authenticationFacade.checkIfUserIsAuthenticated();
+        ScopedKey key = new ScopedKey(authenticationFacade.getAuthentication().getName(), idempotencyKey);
+
+        CompletedCheckout previous = completed.getIfPresent(key);
+        if (previous != null) {
+            return replay(previous, addressId);
+        }
+
+        CompletableFuture<CompletedCheckout> attempt = new CompletableFuture<>();
+        CompletableFuture<CompletedCheckout> running = inFlight.putIfAbsent(key, attempt);
+        if (running != null) {
+            return replay(await(running), addressId);
+        }
+        try {
+            // The previous owner may have finished between the lookup above and claiming the key.
+            CompletedCheckout finished = completed.getIfPresent(key);
+            if (finished != null) {
+                attempt.complete(finished);
+                return replay(finished, addressId);
+            }
+            CompletedCheckout checkout = new CompletedCheckout(addressId, orderService.createOrder(addressId));
+            completed.put(key, checkout);
+            attempt.complete(checkout);
+            return new CheckoutResult(checkout.orderId(), false);
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, attempt);
+        }
+    }
+
+    private CheckoutResult replay(CompletedCheckout checkout, Long addressId) {
+        if (!checkout.addressId().equals(addressId)) {
+            throw new IdempotencyKeyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different address");
+        }
+        replays.increment();
+        log.debug("Replaying checkout for order {}", checkout.orderId());
+        return new CheckoutResult(checkout.orderId(), true);
+    }
+
+    private static CompletedCheckout await(CompletableFuture<CompletedCheckout> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public record CheckoutResult(Long orderId, boolean replayed) {
+    }
+
+    private record ScopedKey(String username, String idempotencyKey) {
+    }
+
+    private record CompletedCheckout(Long addressId, Long orderId) {
+    }
+}
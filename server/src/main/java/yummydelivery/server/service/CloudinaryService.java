@@ -1,47 +1,64 @@
 package yummydelivery.server.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FilenameUtils;
-import org.imgscalr.Scalr;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.enums.ImageVariantEnum;
 import yummydelivery.server.exceptions.ApiException;
-import yummydelivery.server.exceptions.CloudinaryException;
+import yummydelivery.server.storage.EncodedImage;
+import yummydelivery.server.storage.ImageStore;
+import yummydelivery.server.storage.ProductImageUrls;
+import yummydelivery.server.utils.ImageResizer;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 
+/**
+ * Resizes product images and keeps them in the configured {@link ImageStore}
+ * (Cloudinary by default, local disk or memory with {@code app.images.store=local}).
+ */
 @Service
 @Slf4j
 public class CloudinaryService {
-    private final Cloudinary cloudinary;
+    private static final ImageVariantEnum[] VARIANTS = ImageVariantEnum.values();
 
-    public CloudinaryService(Cloudinary cloudinary) {
-        this.cloudinary = cloudinary;
+    private final ImageStore imageStore;
+
+    public CloudinaryService(ImageStore imageStore) {
+        this.imageStore = imageStore;
     }
 
 
-    public String uploadImage(MultipartFile image, String imageName) {
-        Map<String, String> options = new HashMap<>();
-        options.put("folder", "YummyDeliveryImages");
-        options.put("public_id", imageName.trim().replaceAll(" ", ""));
-        try {
-            File file = resizeAndConvertToFile(image);
-            @SuppressWarnings("unchecked")
-            Map<String, String> uploadResult = cloudinary.uploader().upload(file, options);
-            return uploadResult.get("url");
-        } catch (IOException e) {
-            throw new CloudinaryException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload the image: " + e.getMessage());
+    /**
+     * Stores every {@link ImageVariantEnum} of the image, each as JPEG (PNG for PNG uploads) and also as
+     * WebP, which webp-imageio encodes.
+     */
+    public ProductImageUrls uploadImage(byte[] image, String originalFilename, String imageName) {
+        String format = ImageResizer.outputFormat(originalFilename);
+        String name = imageName.trim().replaceAll(" ", "");
+        List<List<EncodedImage>> variants = resize(image, format);
+        String[] urls = new String[VARIANTS.length];
+        for (int i = 0; i < VARIANTS.length; i++) {
+            urls[i] = imageStore.store(name + "-" + VARIANTS[i].name().toLowerCase(), variants.get(i));
         }
+        return new ProductImageUrls(urls[ImageVariantEnum.THUMBNAIL.ordinal()],
+                urls[ImageVariantEnum.CARD.ordinal()],
+                urls[ImageVariantEnum.DETAIL.ordinal()]);
+    }
+
+    public String placeholderImageUrl() {
+        return imageStore.placeholderUrl();
     }
 
     public void validateImageFile(MultipartFile productImage) {
@@ -62,35 +79,51 @@ public class CloudinaryService {
     }
 
     public void deleteProductImageFromCloudinary(String productImageURL) {
-        String urlPublicKey = getCloudinaryPublicId(productImageURL);
-        try {
-            cloudinary.uploader().destroy(urlPublicKey, ObjectUtils.emptyMap());
-            log.info("Image successfully deleted from Cloudinary");
-        } catch (IOException e) {
-            log.info("Failed to delete product image from Cloudinary");
-            throw new CloudinaryException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete product image from Cloudinary");
+        if (productImageURL == null || productImageURL.equals(imageStore.placeholderUrl())) {
+            return;
         }
+        imageStore.delete(productImageURL);
     }
 
-    private String getCloudinaryPublicId(String productImageURL) {
-        String substring = productImageURL.substring(productImageURL.lastIndexOf("/") + 1, productImageURL.length() - 4);
-        return "YummyDeliveryImages/" + substring;
+    /**
+     * Deletes the images of a product that {@code current} replaced. An image the store overwrote in place
+     * has the same key in both and is kept.
+     */
+    public void deleteReplacedImages(ProductImageUrls replaced, ProductImageUrls current) {
+        Set<String> currentKeys = new HashSet<>();
+        for (String url : urls(current)) {
+            currentKeys.add(imageStore.key(url));
+        }
+        for (String url : new LinkedHashSet<>(urls(replaced))) {
+            if (!currentKeys.contains(imageStore.key(url))) {
+                deleteProductImageFromCloudinary(url);
+            }
+        }
     }
 
-    protected File resizeAndConvertToFile(MultipartFile productImage) {
-        BufferedImage bufferedImage;
-        File file;
+    protected List<List<EncodedImage>> resize(byte[] productImage, String format) {
+        int[] maxSizes = Arrays.stream(VARIANTS).mapToInt(ImageVariantEnum::getMaxSize).toArray();
+        boolean webp = ImageResizer.canEncode(ImageResizer.WEBP);
         try {
-            bufferedImage = ImageIO.read(productImage.getInputStream());
-            BufferedImage resized = Scalr.resize(bufferedImage, Scalr.Method.BALANCED, Scalr.Mode.AUTOMATIC, 350, 350);
-            file = File.createTempFile("temp-file", productImage.getOriginalFilename());
-
-            String format = FilenameUtils.getExtension(productImage.getOriginalFilename());
-            if (format == null) format = "jpg";
-            ImageIO.write(resized, format, file);
+            BufferedImage[] resized = ImageResizer.resizeAll(productImage, maxSizes);
+            List<List<EncodedImage>> variants = new ArrayList<>(resized.length);
+            for (BufferedImage variant : resized) {
+                List<EncodedImage> encodings = new ArrayList<>(2);
+                encodings.add(new EncodedImage(ImageResizer.encode(variant, format), format));
+                if (webp) {
+                    encodings.add(new EncodedImage(ImageResizer.encode(variant, ImageResizer.WEBP), ImageResizer.WEBP));
+                }
+                variants.add(encodings);
+            }
+            return variants;
         } catch (IOException e) {
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "File converting failed: " + e.getMessage());
         }
-        return file;
+    }
+
+    private static List<String> urls(ProductImageUrls imageUrls) {
+        return Stream.of(imageUrls.thumbnailURL(), imageUrls.cardURL(), imageUrls.detailURL())
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
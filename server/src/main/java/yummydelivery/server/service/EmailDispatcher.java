@@ -0,0 +1,214 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import yummydelivery.server.enums.EmailStatusEnum;
+import yummydelivery.server.model.EmailOutboxEntity;
+import yummydelivery.server.repository.EmailOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox. Each run leases due mails in batches and hands every batch to one of a fixed
+ * number of workers, which sends it over a single SMTP connection. Mails that fail are retried with
+ * exponential backoff until maxAttempts, then parked as FAILED. Delivery is at least once: a node that
+ * dies after sending but before recording it will have the batch sent again once the lease expires.
+ */
+@Service
+@Slf4j
+public class EmailDispatcher {
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender javaMailSender;
+    private final String emailSender;
+    private final int batchSize;
+    private final int workers;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final ExecutorService workerPool;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Timer sendTimer;
+    private final Counter sentMails;
+    private final Counter failedAttempts;
+
+    public EmailDispatcher(EmailOutboxRepository emailOutboxRepository,
+                           JavaMailSender javaMailSender,
+                           MeterRegistry meterRegistry,
+                           @Value("${spring.mail.username}") String emailSender,
+                           @Value("${app.emailOutbox.batchSize:50}") int batchSize,
+                           @Value("${app.emailOutbox.workers:2}") int workers,
+                           @Value("${app.emailOutbox.maxAttempts:6}") int maxAttempts,
+                           @Value("${app.emailOutbox.leaseMs:300000}") long leaseMs,
+                           @Value("${app.emailOutbox.baseBackoffMs:30000}") long baseBackoffMs,
+                           @Value("${app.emailOutbox.maxBackoffMs:3600000}") long maxBackoffMs) {
+        if (batchSize < 1 || workers < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Email outbox batch size, workers and max attempts must be positive");
+        }
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.emailSender = emailSender;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.baseBackoff = Duration.ofMillis(baseBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatcher-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("app.email.outbox.pending", queueDepth, AtomicLong::get).register(meterRegistry);
+        this.sendTimer = Timer.builder("app.email.send").register(meterRegistry);
+        this.sentMails = Counter.builder("app.email.sent").register(meterRegistry);
+        this.failedAttempts = Counter.builder("app.email.failed.attempts").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.emailOutbox.fixedDelayMs:5000}")
+    public void dispatchPending() {
+        boolean backlogLeft;
+        do {
+            List<Future<?>> sends = new ArrayList<>(workers);
+            backlogLeft = false;
+            for (int i = 0; i < workers; i++) {
+                List<EmailOutboxEntity> batch = claimBatch();
+                if (batch.isEmpty()) break;
+                sends.add(workerPool.submit(() -> sendBatch(batch)));
+                backlogLeft = batch.size() == batchSize;
+                if (!backlogLeft) break;
+            }
+            if (!awaitAll(sends)) return;
+        } while (backlogLeft);
+        queueDepth.set(emailOutboxRepository.countByStatus(EmailStatusEnum.PENDING));
+    }
+
+    public long pendingCount() {
+        return queueDepth.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workerPool.shutdown();
+        workerPool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private List<EmailOutboxEntity> claimBatch() {
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = emailOutboxRepository.claimDueBatch(EmailStatusEnum.PENDING.ordinal(),
+                now, now.plus(lease), claimToken, batchSize);
+        return claimed == 0 ? List.of() : emailOutboxRepository.findAllByClaimTokenOrderById(claimToken);
+    }
+
+    private void sendBatch(List<EmailOutboxEntity> batch) {
+        SimpleMailMessage[] messages = batch.stream().map(this::toMessage).toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = Map.of();
+        long started = System.nanoTime();
+        try {
+            javaMailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(messages, e);
+        }
+        sendTimer.record(Duration.ofNanos(System.nanoTime() - started));
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Exception failure = failures.get(messages[i]);
+            if (failure == null) {
+                sentIds.add(batch.get(i).getId());
+            } else {
+                recordFailure(batch.get(i), failure);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            emailOutboxRepository.markSent(sentIds, LocalDateTime.now());
+            sentMails.increment(sentIds.size());
+        }
+        log.debug("Email batch of {} sent, {} failed", batch.size(), batch.size() - sentIds.size());
+    }
+
+    private void recordFailure(EmailOutboxEntity mail, Exception failure) {
+        failedAttempts.increment();
+        boolean exhausted = mail.getAttempts() >= maxAttempts;
+        EmailStatusEnum status = exhausted ? EmailStatusEnum.FAILED : EmailStatusEnum.PENDING;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoffAfter(mail.getAttempts()));
+        emailOutboxRepository.markAttemptFailed(mail.getId(), status, nextAttemptAt, truncate(failure.getMessage()));
+        if (exhausted) {
+            log.error("Giving up on email {} after {} attempts: {}", mail.getId(), mail.getAttempts(), failure.getMessage());
+        } else {
+            log.warn("Email {} failed on attempt {}, retrying at {}", mail.getId(), mail.getAttempts(), nextAttemptAt);
+        }
+    }
+
+    Duration backoffAfter(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration backoff = baseBackoff.multipliedBy(1L << doublings);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private SimpleMailMessage toMessage(EmailOutboxEntity mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(emailSender);
+        message.setTo(mail.getRecipient());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getMessageBody());
+        return message;
+    }
+
+    private static Map<Object, Exception> allFailed(SimpleMailMessage[] messages, Exception failure) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, failure);
+        }
+        return failures;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static boolean awaitAll(List<Future<?>> sends) {
+        for (Future<?> send : sends) {
+            try {
+                send.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                log.error("Email batch failed unexpectedly", e.getCause());
+            }
+        }
+        return true;
+    }
+}
@@ -1,39 +1,33 @@
 package yummydelivery.server.service;
 
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import yummydelivery.server.dto.EmailDetails;
+import yummydelivery.server.model.EmailOutboxEntity;
+import yummydelivery.server.repository.EmailOutboxRepository;
 
+import java.time.LocalDateTime;
+
+/**
+ * Queues mails in the outbox table as part of the caller's transaction, so a mail is stored
+ * exactly when the change it announces is committed. {@link EmailDispatcher} delivers them.
+ */
 @Service
-@Slf4j
 public class EmailService {
 
-    private final JavaMailSender javaMailSender;
-    @Value("${spring.mail.username}")
-    private String emailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
 
-    public EmailService(JavaMailSender javaMailSender) {
-        this.javaMailSender = javaMailSender;
+    public EmailService(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
     }
 
-    @Async
-    public void sendEmail(EmailDetails emailDetails) {
-        try {
-            SimpleMailMessage mailMsg = new SimpleMailMessage();
-            mailMsg.setFrom(emailSender);
-            mailMsg.setTo(emailDetails.getRecipient());
-            mailMsg.setText(emailDetails.getMessageBody());
-            mailMsg.setSubject(emailDetails.getSubject());
-            javaMailSender.send(mailMsg);
-            log.info("Mail sent successfully");
-        } catch (MailException exception) {
-            log.error("Failure occurred while sending email: " + exception.getMessage());
-            log.error("Root cause: " + exception.getRootCause());
-        }
+    @Transactional
+    public void queueEmail(EmailDetails emailDetails) {
+        EmailOutboxEntity mail = new EmailOutboxEntity();
+        mail.setRecipient(emailDetails.getRecipient());
+        mail.setSubject(emailDetails.getSubject());
+        mail.setMessageBody(emailDetails.getMessageBody());
+        mail.setNextAttemptAt(LocalDateTime.now());
+        emailOutboxRepository.save(mail);
     }
 }
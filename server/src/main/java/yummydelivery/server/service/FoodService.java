@@ -2,26 +2,35 @@ package yummydelivery.server.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.cache.MenuCache;
 import yummydelivery.server.dto.foodDTO.AddFoodDTO;
 import yummydelivery.server.dto.foodDTO.FoodDTO;
 import yummydelivery.server.dto.foodDTO.UpdateFoodDTO;
+import yummydelivery.server.dto.view.FoodIngredientView;
+import yummydelivery.server.dto.view.FoodSummaryView;
 import yummydelivery.server.enums.FoodTypeEnum;
 import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
 import yummydelivery.server.exceptions.FoodNotFoundException;
 import yummydelivery.server.exceptions.InvalidProductTypeException;
 import yummydelivery.server.exceptions.ProductNotFoundException;
+import yummydelivery.server.mapper.FoodMapper;
 import yummydelivery.server.model.FoodEntity;
 import yummydelivery.server.model.Product;
 import yummydelivery.server.repository.ProductRepository;
 import yummydelivery.server.utils.CommonUtils;
 
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -31,24 +40,32 @@ public class FoodService {
     private final ModelMapper modelMapper;
     private final CloudinaryService cloudinaryService;
     private final CommonUtils utils;
-
-    public FoodService(ProductRepository productRepository, ModelMapper modelMapper, CloudinaryService cloudinaryService, CommonUtils utils) {
+    private final MenuCache menuCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductImagePipeline imagePipeline;
+    private final ProductPopularityService popularity;
+
+    public FoodService(ProductRepository productRepository, ModelMapper modelMapper, CloudinaryService cloudinaryService, CommonUtils utils,
+                       MenuCache menuCache, ApplicationEventPublisher eventPublisher, ProductImagePipeline imagePipeline,
+                       ProductPopularityService popularity) {
         this.productRepository = productRepository;
         this.modelMapper = modelMapper;
         this.cloudinaryService = cloudinaryService;
         this.utils = utils;
+        this.menuCache = menuCache;
+        this.eventPublisher = eventPublisher;
+        this.imagePipeline = imagePipeline;
+        this.popularity = popularity;
     }
 
     public FoodDTO getFoodById(Long id) {
-        Product product = productRepository
-                .findById(id).orElseThrow(() -> new ProductNotFoundException(HttpStatus.NOT_FOUND, "Product not found"));
-        FoodEntity foodEntityToReturn;
-        if (product.getProductType().equals(ProductTypeEnum.FOOD)) {
-            foodEntityToReturn = (FoodEntity) product;
-        } else {
+        Optional<FoodEntity> food = productRepository.findFoodWithIngredientsById(id);
+        if (food.isEmpty()) {
+            Product product = productRepository
+                    .findById(id).orElseThrow(() -> new ProductNotFoundException(HttpStatus.NOT_FOUND, "Product not found"));
             throw new InvalidProductTypeException(HttpStatus.BAD_REQUEST, "Unexpected product type: " + product.getProductType());
         }
-        return modelMapper.map(foodEntityToReturn, FoodDTO.class);
+        return FoodMapper.toFoodDTO(food.get());
     }
 
 
@@ -57,34 +74,88 @@ public class FoodService {
             throw new IllegalArgumentException("Cannot use this product name. it's already assigned");
         }
         FoodEntity foodEntity = modelMapper.map(addFoodDTO, FoodEntity.class);
+        boolean imageProvided = productImage != null && !productImage.isEmpty();
 
-        if (productImage == null || productImage.isEmpty()) {
-            String defaultProductImageURL = "https://res.cloudinary.com/dncjjyvqi/image/upload/v1707229014/YummyDeliveryImages/defaultProductImage.png";
-            foodEntity.setImageURL(defaultProductImageURL);
-            log.info("Product image is not provided. Default one is used");
-        } else {
+        if (imageProvided) {
             cloudinaryService.validateImageFile(productImage);
-            String imageUrl = cloudinaryService.uploadImage(productImage, addFoodDTO.getName());
-            foodEntity.setImageURL(imageUrl);
-            log.info("Product image is provided and uploaded successfully to Cloudinary");
+            imagePipeline.checkCapacity();
+        } else {
+            log.info("Product image is not provided. Default one is used");
         }
+        foodEntity.setImageURL(cloudinaryService.placeholderImageUrl());
         foodEntity.setProductType(ProductTypeEnum.FOOD);
         productRepository.save(foodEntity);
+        eventPublisher.publishEvent(CatalogChangedEvent.food(foodEntity.getId(),
+                foodTypes(foodEntity.getFoodTypeEnum()), CatalogChangedEvent.ChangeType.ADDED));
+        if (imageProvided) {
+            imagePipeline.submit(foodEntity.getId(), addFoodDTO.getName(), productImage, CatalogChangedEvent.food(foodEntity.getId(),
+                    foodTypes(foodEntity.getFoodTypeEnum()), CatalogChangedEvent.ChangeType.UPDATED));
+            log.info("Product image is queued for upload");
+        }
     }
 
     public Page<FoodDTO> getAllFoodsByType(String foodType, int page) {
         if (page > 0) page -= 1;
         FoodTypeEnum typeEnum = FoodTypeEnum.valueOf(foodType.toUpperCase());
-        Page<FoodEntity> foodsPage = productRepository
-                .findAllByProductTypePageable(typeEnum, PageRequest.of(page, 6));
+        Pageable pageable = PageRequest.of(page, 6);
+        return menuCache.getFoods(typeEnum, pageable, () -> loadFoodsByType(typeEnum, pageable));
+    }
+
+    /**
+     * Same page size as {@link #getAllFoodsByType}, ordered by units sold in the last week. The order comes
+     * from the sales rollups; only the ids of the type and the rows of the requested page are read.
+     */
+    public Page<FoodDTO> getAllFoodsByTypeByPopularity(String foodType, int page) {
+        if (page > 0) page -= 1;
+        FoodTypeEnum typeEnum = FoodTypeEnum.valueOf(foodType.toUpperCase());
+        Pageable pageable = PageRequest.of(page, 6);
+        List<Long> ranked = popularity.sortByUnitsSold(productRepository.findFoodIdsByFoodType(typeEnum), SalesWindowEnum.WEEK);
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(loadFoodsInOrder(ranked.subList(from, to)), pageable, ranked.size());
+    }
+
+    public List<FoodDTO> getBestSellingFoods(SalesWindowEnum window, int limit) {
+        return loadFoodsInOrder(popularity.bestSellers(ProductTypeEnum.FOOD, window, limit));
+    }
+
+    /**
+     * Loads a menu page with two statements: the page rows with the type's total count as a window
+     * aggregate, then the ingredients of every food on the page.
+     */
+    private Page<FoodDTO> loadFoodsByType(FoodTypeEnum typeEnum, Pageable pageable) {
+        List<FoodSummaryView> foods = productRepository.findFoodSummariesByFoodType(typeEnum, pageable);
+        if (foods.isEmpty()) {
+            long total = pageable.getOffset() == 0 ? 0 : productRepository.countFoodsByFoodType(typeEnum);
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        return new PageImpl<>(toFoodDTOs(foods), pageable, foods.get(0).getTotalCount());
+    }
 
-        List<FoodDTO> foodsByType = foodsPage
-                .getContent()
+    /**
+     * Foods with the given ids in that order; ids of products deleted meanwhile are skipped.
+     */
+    private List<FoodDTO> loadFoodsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, FoodDTO> foodsById = toFoodDTOs(productRepository.findFoodSummariesByIdIn(ids))
                 .stream()
-                .map(foodEntity -> modelMapper.map(foodEntity, FoodDTO.class))
-                .toList();
+                .collect(Collectors.toMap(FoodDTO::getId, food -> food));
+        return ids.stream().map(foodsById::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<FoodDTO> toFoodDTOs(List<FoodSummaryView> foods) {
+        Map<Long, List<String>> ingredientsByFoodId = productRepository
+                .findIngredientsByFoodIdIn(foods.stream().map(FoodSummaryView::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(FoodIngredientView::getFoodId,
+                        Collectors.mapping(FoodIngredientView::getIngredient, Collectors.toList())));
 
-        return new PageImpl<>(foodsByType, foodsPage.getPageable(), foodsPage.getTotalElements());
+        return foods
+                .stream()
+                .map(food -> FoodMapper.toFoodDTO(food, ingredientsByFoodId.getOrDefault(food.getId(), List.of())))
+                .toList();
     }
 
     public void deleteFoodOrBeverage(Long id) {
@@ -93,7 +164,15 @@ public class FoodService {
                         () -> new ProductNotFoundException(HttpStatus.NOT_FOUND, "Product with id " + id + " not found"));
 
         cloudinaryService.deleteProductImageFromCloudinary(product.getImageURL());
+        cloudinaryService.deleteProductImageFromCloudinary(product.getThumbnailImageURL());
+        cloudinaryService.deleteProductImageFromCloudinary(product.getDetailImageURL());
         productRepository.deleteById(id);
+        if (product instanceof FoodEntity foodEntity) {
+            eventPublisher.publishEvent(CatalogChangedEvent.food(id,
+                    foodTypes(foodEntity.getFoodTypeEnum()), CatalogChangedEvent.ChangeType.DELETED));
+        } else {
+            eventPublisher.publishEvent(CatalogChangedEvent.beverage(id, CatalogChangedEvent.ChangeType.DELETED));
+        }
     }
 
 
@@ -109,25 +188,35 @@ public class FoodService {
         }
         FoodEntity foodEntity;
         foodEntity = (FoodEntity) product;
-        if (productImage == null || productImage.isEmpty()) {
-            mapDtoToFoodEntity(updateFoodDTO, foodEntity);
-            log.info("Product image is not provided");
-        } else {
+        FoodTypeEnum previousFoodType = foodEntity.getFoodTypeEnum();
+        boolean imageProvided = productImage != null && !productImage.isEmpty();
+        if (imageProvided) {
             cloudinaryService.validateImageFile(productImage);
-            String newImageURL = cloudinaryService.uploadImage(productImage, updateFoodDTO.getName());
-            mapDtoToFoodEntityWithNewImageURL(updateFoodDTO, foodEntity, newImageURL);
-            log.info("Product image is provided and uploaded successfully to Cloudinary");
+            imagePipeline.checkCapacity();
+        } else {
+            log.info("Product image is not provided");
         }
+        mapDtoToFoodEntity(updateFoodDTO, foodEntity);
 
         productRepository.save(foodEntity);
+        CatalogChangedEvent change = CatalogChangedEvent.food(id,
+                foodTypes(previousFoodType, foodEntity.getFoodTypeEnum()), CatalogChangedEvent.ChangeType.UPDATED);
+        eventPublisher.publishEvent(change);
+        if (imageProvided) {
+            imagePipeline.submit(id, updateFoodDTO.getName(), productImage, change);
+            log.info("Product image is queued for upload");
+        }
     }
 
     protected void mapDtoToFoodEntity(UpdateFoodDTO updateFoodDTO, FoodEntity foodEntity) {
         modelMapper.map(updateFoodDTO, foodEntity);
     }
 
-    protected void mapDtoToFoodEntityWithNewImageURL(UpdateFoodDTO updateFoodDTO, FoodEntity foodEntity, String newImageURL) {
-        modelMapper.map(updateFoodDTO, foodEntity);
-        foodEntity.setImageURL(newImageURL);
+    private Set<FoodTypeEnum> foodTypes(FoodTypeEnum... types) {
+        Set<FoodTypeEnum> affected = new HashSet<>();
+        for (FoodTypeEnum type : types) {
+            if (type != null) affected.add(type);
+        }
+        return affected;
     }
 }
@@ -1,61 +1,92 @@
 package yummydelivery.server.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import yummydelivery.server.dto.CursorSliceDTO;
 import yummydelivery.server.dto.view.OrderView;
 import yummydelivery.server.enums.OrderStatusEnum;
 import yummydelivery.server.exceptions.AddressNotFoundException;
+import yummydelivery.server.exceptions.ShoppingCartException;
 import yummydelivery.server.exceptions.UserNotFoundException;
+import yummydelivery.server.mapper.OrderMapper;
 import yummydelivery.server.model.*;
+import yummydelivery.server.pricing.PricingEngine;
 import yummydelivery.server.repository.AddressRepository;
+import yummydelivery.server.repository.CartItemRepository;
 import yummydelivery.server.repository.CartRepository;
 import yummydelivery.server.repository.OrderRepository;
 import yummydelivery.server.repository.UserRepository;
 import yummydelivery.server.security.AuthenticationFacade;
+import yummydelivery.server.utils.OrderCursor;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class OrderService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 50;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
     private final AuthenticationFacade authenticationFacade;
     private final CartRepository cartRepository;
-    private final ModelMapper modelMapper;
+    private final CartItemRepository cartItemRepository;
+    private final ProductPopularityService productPopularity;
 
     public OrderService(OrderRepository orderRepository, UserRepository userRepository,
                         AddressRepository addressRepository, AuthenticationFacade authenticationFacade,
-                        ModelMapper modelMapper, CartRepository cartRepository) {
+                        CartRepository cartRepository,
+                        CartItemRepository cartItemRepository,
+                        ProductPopularityService productPopularity) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.addressRepository = addressRepository;
         this.authenticationFacade = authenticationFacade;
-        this.modelMapper = modelMapper;
         this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productPopularity = productPopularity;
     }
 
-    public void createOrder(Long addressId) {
+    /**
+     * Checkout touches only the current cart: the order row with its owner, its item rows
+     * (JDBC-batched) and the cart cleanup. The customer's previous orders are never loaded. Units sold
+     * are counted in memory after commit and reach the sales rollups with the next popularity flush.
+     */
+    @Transactional
+    public Long createOrder(Long addressId) {
         authenticationFacade.checkIfUserIsAuthenticated();
+        String username = authenticationFacade.getAuthentication().getName();
 
         AddressEntity address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new AddressNotFoundException(HttpStatus.NOT_FOUND, "Address not found"));
+        Long userId = userRepository.findIdByEmail(username)
+                .orElseThrow(() -> new UserNotFoundException(HttpStatus.NOT_FOUND, "User not found"));
+        Long cartId = userRepository.findCartIdByEmail(username)
+                .orElseThrow(() -> new ShoppingCartException(HttpStatus.NOT_FOUND, "Shopping cart not found"));
+
+        ShoppingCartEntity userCart = cartRepository.findByIdForUpdate(cartId)
+                .orElseThrow(() -> new ShoppingCartException(HttpStatus.NOT_FOUND, "Shopping cart not found"));
+        List<CartItem> cartItems = cartItemRepository.findAllByCartIdWithProduct(cartId);
+        if (cartItems.isEmpty()) {
+            throw new ShoppingCartException(HttpStatus.BAD_REQUEST, "Shopping cart is empty");
+        }
 
-        UserEntity currentUser = getCurrentUserWithOrders();
-        OrderEntity newOrder = createNewOrder(address, currentUser);
+        OrderEntity newOrder = createNewOrder(userId, address, cartItems);
+        if (newOrder.getOrderCostMinor() != userCart.getCartPriceMinor()) {
+            log.warn("Cart {} total {} differs from its lines {}, charging the lines", cartId,
+                    userCart.getCartPriceMinor(), newOrder.getOrderCostMinor());
+        }
         orderRepository.save(newOrder);
-
-        saveUpdatedUserWithNewOrder(currentUser, newOrder);
-        clearUserShoppingCart(currentUser);
+        clearUserShoppingCart(cartId);
+        productPopularity.recordSale(newOrder.getOrderedProducts());
+        return newOrder.getId();
     }
 
     public Page<OrderView> getUserOrders(int page) {
@@ -67,58 +98,62 @@ public class OrderService {
         List<OrderView> mappedOrders = ordersPageable
                 .getContent()
                 .stream()
-                .map(o -> modelMapper.map(o, OrderView.class))
+                .map(OrderMapper::toOrderView)
                 .toList();
 
         return new PageImpl<>(mappedOrders, ordersPageable.getPageable(), ordersPageable.getTotalElements());
     }
 
-    protected void clearUserShoppingCart(UserEntity currentUser) {
-        ShoppingCartEntity userCart = currentUser.getCart();
-        userCart.getCartItems().clear();
-        userCart.setCartPrice(0.0);
-        cartRepository.save(userCart);
+    public CursorSliceDTO<OrderView> getUserOrderHistory(String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        Long userId = userRepository.findIdByEmail(authenticationFacade.getAuthentication().getName())
+                .orElseThrow(() -> new UserNotFoundException(HttpStatus.NOT_FOUND, "User not found"));
+
+        PageRequest limit = PageRequest.of(0, size);
+        Slice<OrderEntity> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findLatestByUserId(userId, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findByUserIdBefore(userId, after.getCreatedOn(), after.getId(), limit);
+        }
+
+        List<OrderView> mappedOrders = orders
+                .getContent()
+                .stream()
+                .map(OrderMapper::toOrderView)
+                .toList();
+        String nextCursor = orders.hasNext()
+                ? OrderCursor.of(orders.getContent().get(orders.getNumberOfElements() - 1)).encode()
+                : null;
+        return new CursorSliceDTO<>(mappedOrders, size, orders.hasNext(), nextCursor);
     }
 
-    private UserEntity getCurrentUserWithOrders() {
-        String username = authenticationFacade.getAuthentication().getName();
-        return userRepository
-                .findUserWithOrders(username)
-                .orElseThrow(() -> new UserNotFoundException(HttpStatus.NOT_FOUND, "User not found"));
+    protected void clearUserShoppingCart(Long cartId) {
+        cartItemRepository.deleteAllByCartId(cartId);
+        cartRepository.resetCartPrice(cartId);
     }
 
-    private OrderEntity createNewOrder(AddressEntity address, UserEntity currentUser) {
+    /**
+     * The order cost is totalled from the lines as they are snapshotted, so it always equals what the order shows.
+     */
+    private OrderEntity createNewOrder(Long userId, AddressEntity address, List<CartItem> cartItems) {
         OrderEntity newOrder = new OrderEntity();
-        newOrder.setOrderCost(currentUser.getCart().getCartPrice());
+        newOrder.setUserId(userId);
         newOrder.setDeliveryAddress(address);
         newOrder.setStatus(OrderStatusEnum.PROCESSING);
 
-        List<ImmutableCartItem> orderedItems = currentUser.getCart().getCartItems()
-                .stream()
-                .map(cartItem -> modelMapper.map(cartItem, ImmutableCartItem.class)).toList();
+        List<ImmutableCartItem> orderedItems = new ArrayList<>(cartItems.size());
+        long orderCost = 0;
+        for (CartItem cartItem : cartItems) {
+            ImmutableCartItem orderedItem = OrderMapper.toImmutableCartItem(cartItem);
+            orderCost = PricingEngine.add(orderCost, orderedItem.getPriceMinor());
+            orderedItems.add(orderedItem);
+        }
         newOrder.setOrderedProducts(orderedItems);
+        newOrder.setOrderCostMinor(orderCost);
         return newOrder;
     }
-
-    private void saveUpdatedUserWithNewOrder(UserEntity currentUser, OrderEntity newOrder) {
-        List<OrderEntity> uOrders = currentUser.getOrders();
-        uOrders.add(newOrder);
-        currentUser.setOrders(uOrders);
-        userRepository.save(currentUser);
-    }
-
-    @Scheduled(fixedDelay = 600000)
-    private void updateOrderStatus() {
-        List<OrderEntity> processingOrders = orderRepository
-                .findAllByStatusOrderByCreatedOnDesc(OrderStatusEnum.PROCESSING);
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        for (OrderEntity o : processingOrders) {
-            boolean createMoreThanOneHour = o.getCreatedOn().isBefore(oneHourAgo);
-            if (createMoreThanOneHour) {
-                o.setStatus(OrderStatusEnum.DELIVERED);
-                orderRepository.save(o);
-                log.info("Order status is changed because 1 hour has passed since order creation time");
-            }
-        }
-    }
 }
@@ -0,0 +1,73 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import yummydelivery.server.enums.OrderStatusEnum;
+import yummydelivery.server.repository.OrderRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves orders from PROCESSING to DELIVERED in bounded, set-based batches.
+ * Every batch is its own transaction and locks its rows with SKIP LOCKED, so nodes running
+ * the same schedule split the work instead of updating the same orders twice.
+ */
+@Service
+@Slf4j
+public class OrderStatusTransitionService {
+    private final OrderRepository orderRepository;
+    private final Duration deliveredAfter;
+    private final int batchSize;
+    private final Timer transitionTimer;
+    private final Counter transitionedOrders;
+
+    public OrderStatusTransitionService(OrderRepository orderRepository,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.orderStatus.deliveredAfterMinutes:60}") long deliveredAfterMinutes,
+                                        @Value("${app.orderStatus.batchSize:1000}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Order status batch size must be positive");
+        }
+        this.orderRepository = orderRepository;
+        this.deliveredAfter = Duration.ofMinutes(deliveredAfterMinutes);
+        this.batchSize = batchSize;
+        this.transitionTimer = Timer.builder("app.orders.status.transition")
+                .tag("to", OrderStatusEnum.DELIVERED.name())
+                .register(meterRegistry);
+        this.transitionedOrders = Counter.builder("app.orders.status.transitioned")
+                .tag("to", OrderStatusEnum.DELIVERED.name())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orderStatus.fixedDelayMs:600000}")
+    public void markProcessingOrdersDelivered() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(deliveredAfter);
+        long started = System.nanoTime();
+        int batches = 0;
+        long updated = 0;
+        int updatedInBatch;
+        do {
+            updatedInBatch = orderRepository.transitionStatusBatch(
+                    OrderStatusEnum.PROCESSING.ordinal(),
+                    OrderStatusEnum.DELIVERED.ordinal(),
+                    cutoff,
+                    batchSize);
+            updated += updatedInBatch;
+            batches++;
+        } while (updatedInBatch == batchSize);
+
+        long elapsed = System.nanoTime() - started;
+        transitionTimer.record(Duration.ofNanos(elapsed));
+        transitionedOrders.increment(updated);
+        if (updated > 0) {
+            log.info("Marked {} orders created before {} as delivered in {} batches ({} ms)",
+                    updated, cutoff, batches, Duration.ofNanos(elapsed).toMillis());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.exceptions.ApiException;
+import yummydelivery.server.repository.ProductRepository;
+import yummydelivery.server.storage.ProductImageUrls;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resizes and uploads product images on a bounded worker pool, so the request that saved the product
+ * returns without waiting for the image store. The product keeps its current (or placeholder) image until the
+ * upload finishes, then its image URLs are patched, the catalog change is published and the replaced images
+ * are deleted from the store. When the same product gets a newer image before an older upload finishes, only
+ * the newest one is applied.
+ */
+@Service
+@Slf4j
+public class ProductImagePipeline {
+    private final CloudinaryService cloudinaryService;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentHashMap<Long, Long> latestUploadByProduct = new ConcurrentHashMap<>();
+    private final AtomicLong uploadSequence = new AtomicLong();
+    private final Timer uploadTimer;
+    private final Counter failedUploads;
+
+    public ProductImagePipeline(CloudinaryService cloudinaryService,
+                                ProductRepository productRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.imagePipeline.workers:2}") int workerCount,
+                                @Value("${app.imagePipeline.queueCapacity:50}") int queueCapacity) {
+        if (workerCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Image pipeline workers and queue capacity must be positive");
+        }
+        this.cloudinaryService = cloudinaryService;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-pipeline-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("app.images.queue.size", workers, executor -> executor.getQueue().size()).register(meterRegistry);
+        this.uploadTimer = Timer.builder("app.images.upload").register(meterRegistry);
+        this.failedUploads = Counter.builder("app.images.upload.failed").register(meterRegistry);
+    }
+
+    /**
+     * Fails fast, before anything is saved, when the queue has no room for another image.
+     */
+    public void checkCapacity() {
+        if (workers.getQueue().remainingCapacity() == 0) {
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many images are being processed, try again later");
+        }
+    }
+
+    /**
+     * Copies the image off the request and queues its upload. When called inside a transaction the upload
+     * starts after commit, so the worker never patches a product that is not visible yet.
+     */
+    public void submit(Long productId, String imageName, MultipartFile image, CatalogChangedEvent onUploaded) {
+        byte[] imageBytes;
+        try {
+            imageBytes = image.getBytes();
+        } catch (IOException e) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Failed to read the product image: " + e.getMessage());
+        }
+        long sequence = uploadSequence.incrementAndGet();
+        latestUploadByProduct.merge(productId, sequence, Math::max);
+        Runnable upload = () -> upload(productId, sequence, imageName, imageBytes, image.getOriginalFilename(), onUploaded);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(productId, upload);
+                }
+            });
+        } else {
+            enqueue(productId, upload);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void enqueue(Long productId, Runnable upload) {
+        try {
+            workers.execute(upload);
+        } catch (RejectedExecutionException e) {
+            failedUploads.increment();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Product " + productId + " was saved, but its image could not be queued. Upload it again later");
+        }
+    }
+
+    private void upload(Long productId, long sequence, String imageName, byte[] image, String originalFilename,
+                        CatalogChangedEvent onUploaded) {
+        long started = System.nanoTime();
+        try {
+            ProductImageUrls imageUrls = cloudinaryService.uploadImage(image, originalFilename, imageName);
+            if (!isLatest(productId, sequence)) {
+                log.info("Discarding outdated image upload for product {}", productId);
+                return;
+            }
+            Optional<ProductImageUrls> replaced = productRepository.findImageUrlsById(productId);
+            if (replaced.isEmpty() || productRepository.updateImageUrls(productId, imageUrls.cardURL(),
+                    imageUrls.thumbnailURL(), imageUrls.detailURL()) == 0) {
+                log.info("Product {} was removed before its image upload finished", productId);
+                return;
+            }
+            eventPublisher.publishEvent(onUploaded);
+            log.info("Product {} image uploaded", productId);
+            deleteReplaced(productId, replaced.get(), imageUrls);
+        } catch (RuntimeException e) {
+            failedUploads.increment();
+            log.error("Image upload for product {} failed: {}", productId, e.getMessage());
+        } finally {
+            latestUploadByProduct.remove(productId, sequence);
+            uploadTimer.record(Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    /**
+     * Runs once the new URLs are committed, so no product points at a deleted image. A failure leaves the
+     * old images in the store but does not undo the upload.
+     */
+    private void deleteReplaced(Long productId, ProductImageUrls replaced, ProductImageUrls current) {
+        try {
+            cloudinaryService.deleteReplacedImages(replaced, current);
+        } catch (RuntimeException e) {
+            log.warn("Replaced images of product {} could not be deleted: {}", productId, e.getMessage());
+        }
+    }
+
+    private boolean isLatest(Long productId, long sequence) {
+        Long latest = latestUploadByProduct.get(productId);
+        return latest != null && latest == sequence;
+    }
+}
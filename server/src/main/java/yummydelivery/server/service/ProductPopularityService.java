@@ -0,0 +1,261 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import yummydelivery.server.dto.view.ProductSalesView;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
+import yummydelivery.server.events.PopularityChangedEvent;
+import yummydelivery.server.model.ImmutableCartItem;
+import yummydelivery.server.model.ProductSalesEntity;
+import yummydelivery.server.repository.ProductSalesRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Units sold per product over the last hour, day and week. Checkout only bumps striped in-memory counters.
+ * A scheduled flush adds the new units to ten minute buckets in product_sales_rollup and reloads the window
+ * totals from that table, so every node ranks from the same numbers and no read scans the orders.
+ */
+@Service
+@Slf4j
+public class ProductPopularityService {
+    static final Duration BUCKET = Duration.ofMinutes(10);
+
+    private final ProductSalesRepository salesRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<BucketKey, SalesCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Rollups rollups = Rollups.EMPTY;
+    private final Timer flushTimer;
+    private final Counter failedWrites;
+
+    public ProductPopularityService(ProductSalesRepository salesRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry) {
+        this.salesRepository = salesRepository;
+        this.eventPublisher = eventPublisher;
+        this.flushTimer = Timer.builder("app.popularity.flush").register(meterRegistry);
+        this.failedWrites = Counter.builder("app.popularity.flush.failed").register(meterRegistry);
+    }
+
+    /**
+     * Counts the items of a new order once its transaction commits, so a rolled back checkout sells nothing.
+     */
+    public void recordSale(List<ImmutableCartItem> orderedItems) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(orderedItems);
+                }
+            });
+        } else {
+            count(orderedItems);
+        }
+    }
+
+    /**
+     * Writes the units counted since the previous flush and reloads the rollups. A bucket whose write fails
+     * keeps its units and is retried by the next run.
+     */
+    @Scheduled(initialDelayString = "${app.popularity.initialDelayMs:0}",
+            fixedDelayString = "${app.popularity.flushMs:60000}")
+    public void flush() {
+        long started = System.nanoTime();
+        LocalDateTime currentBucket = bucketOf(LocalDateTime.now());
+        writePendingSales(currentBucket);
+        salesRepository.deleteBucketsBefore(windowStart(currentBucket, SalesWindowEnum.WEEK));
+        reload(currentBucket);
+        flushTimer.record(Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writePendingSales(bucketOf(LocalDateTime.now()));
+    }
+
+    public long sold(Long productId, SalesWindowEnum window) {
+        Totals totals = rollups.byProduct().get(productId);
+        return totals == null ? 0 : totals.of(window);
+    }
+
+    /**
+     * Ids of the best selling products of one type in a window, most units first.
+     */
+    public List<Long> bestSellers(ProductTypeEnum productType, SalesWindowEnum window, int limit) {
+        List<Long> bestSellers = new ArrayList<>(limit);
+        Map<Long, Totals> byProduct = rollups.byProduct();
+        for (Long productId : rollups.ranked().get(window)) {
+            if (bestSellers.size() == limit) {
+                break;
+            }
+            Totals totals = byProduct.get(productId);
+            if (totals.productType() == productType && totals.of(window) > 0) {
+                bestSellers.add(productId);
+            }
+        }
+        return bestSellers;
+    }
+
+    /**
+     * The given products ordered by units sold in the window, most first; unsold products keep id order.
+     */
+    public List<Long> sortByUnitsSold(Collection<Long> productIds, SalesWindowEnum window) {
+        Map<Long, Totals> byProduct = rollups.byProduct();
+        return productIds.stream()
+                .sorted(Comparator.comparingLong((Long id) -> {
+                            Totals totals = byProduct.get(id);
+                            return totals == null ? 0 : totals.of(window);
+                        }).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    /**
+     * Changes whenever the rollups change, so rankings derived from them know when to rebuild.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    private void count(List<ImmutableCartItem> orderedItems) {
+        LocalDateTime bucket = bucketOf(LocalDateTime.now());
+        for (ImmutableCartItem item : orderedItems) {
+            if (item.getProduct() == null || item.getProduct().getId() == null || item.getQuantity() < 1) {
+                continue;
+            }
+            counters.computeIfAbsent(new BucketKey(item.getProduct().getId(), item.getProduct().getProductType(), bucket),
+                    key -> new SalesCounter()).sold.add(item.getQuantity());
+        }
+    }
+
+    /**
+     * Counters are never reset, only compared with what was already written, so units added while a bucket
+     * is being flushed are picked up by the next run. Buckets closed for a full bucket length are dropped
+     * once written; no checkout is that late to increment them.
+     */
+    private synchronized void writePendingSales(LocalDateTime currentBucket) {
+        LocalDateTime closedBefore = currentBucket.minus(BUCKET);
+        for (Map.Entry<BucketKey, SalesCounter> entry : counters.entrySet()) {
+            BucketKey key = entry.getKey();
+            SalesCounter counter = entry.getValue();
+            long total = counter.sold.sum();
+            long pending = total - counter.written;
+            if (pending > 0) {
+                try {
+                    write(key, pending);
+                    counter.written = total;
+                } catch (DataAccessException e) {
+                    failedWrites.increment();
+                    log.warn("Could not write {} units sold of product {}: {}", pending, key.productId(), e.getMessage());
+                    continue;
+                }
+            }
+            if (key.bucketStart().isBefore(closedBefore)) {
+                counters.remove(key, counter);
+            }
+        }
+    }
+
+    private void write(BucketKey key, long quantity) {
+        if (salesRepository.addQuantity(key.productId(), key.bucketStart(), quantity) == 0) {
+            salesRepository.save(new ProductSalesEntity(null, key.productId(), key.productType(), key.bucketStart(), quantity));
+        }
+    }
+
+    /**
+     * The new rollups are published, and listeners evict what was derived from the old ones, before the
+     * version moves, so a response validated against the new version is never built from the old rollups.
+     */
+    private synchronized void reload(LocalDateTime currentBucket) {
+        List<ProductSalesView> rows = salesRepository.sumQuantitiesSince(
+                windowStart(currentBucket, SalesWindowEnum.HOUR),
+                windowStart(currentBucket, SalesWindowEnum.DAY),
+                windowStart(currentBucket, SalesWindowEnum.WEEK));
+        Map<Long, Totals> byProduct = new HashMap<>();
+        for (ProductSalesView row : rows) {
+            byProduct.put(row.getProductId(),
+                    new Totals(row.getProductType(), row.getLastHour(), row.getLastDay(), row.getLastWeek()));
+        }
+        if (byProduct.equals(rollups.byProduct())) {
+            return;
+        }
+        Map<SalesWindowEnum, List<Long>> ranked = new EnumMap<>(SalesWindowEnum.class);
+        for (SalesWindowEnum window : SalesWindowEnum.values()) {
+            ranked.put(window, byProduct.keySet().stream()
+                    .sorted(Comparator.comparingLong((Long id) -> byProduct.get(id).of(window)).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .toList());
+        }
+        rollups = new Rollups(Map.copyOf(byProduct), ranked);
+        long nextVersion = version.get() + 1;
+        eventPublisher.publishEvent(new PopularityChangedEvent(nextVersion));
+        version.set(nextVersion);
+        log.debug("Popularity rollups reloaded for {} products", byProduct.size());
+    }
+
+    static LocalDateTime bucketOf(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        long bucketMinutes = BUCKET.toMinutes();
+        return hour.plusMinutes(time.getMinute() / bucketMinutes * bucketMinutes);
+    }
+
+    /**
+     * First bucket of a window ending with the current bucket, e.g. the last six buckets for an hour.
+     */
+    private static LocalDateTime windowStart(LocalDateTime currentBucket, SalesWindowEnum window) {
+        return currentBucket.minus(window.getLength()).plus(BUCKET);
+    }
+
+    private record BucketKey(Long productId, ProductTypeEnum productType, LocalDateTime bucketStart) {
+    }
+
+    private static final class SalesCounter {
+        private final LongAdder sold = new LongAdder();
+        private long written;
+    }
+
+    private record Totals(ProductTypeEnum productType, long lastHour, long lastDay, long lastWeek) {
+        long of(SalesWindowEnum window) {
+            return switch (window) {
+                case HOUR -> lastHour;
+                case DAY -> lastDay;
+                case WEEK -> lastWeek;
+            };
+        }
+    }
+
+    private record Rollups(Map<Long, Totals> byProduct, Map<SalesWindowEnum, List<Long>> ranked) {
+        static final Rollups EMPTY = new Rollups(Map.of(), emptyRankings());
+
+        private static Map<SalesWindowEnum, List<Long>> emptyRankings() {
+            Map<SalesWindowEnum, List<Long>> ranked = new EnumMap<>(SalesWindowEnum.class);
+            for (SalesWindowEnum window : SalesWindowEnum.values()) {
+                ranked.put(window, List.of());
+            }
+            return ranked;
+        }
+    }
+}
@@ -9,17 +9,25 @@ import yummydelivery.server.exceptions.UserNotFoundException;
 import yummydelivery.server.model.UserEntity;
 import yummydelivery.server.repository.UserRepository;
 import yummydelivery.server.security.AuthenticationFacade;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
     private final AuthenticationFacade authenticationFacade;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenVersionService tokenVersionService;
 
-    public UserService(UserRepository userRepository, AuthenticationFacade authenticationFacade, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, AuthenticationFacade authenticationFacade,
+                       PasswordEncoder passwordEncoder, PrincipalCache principalCache,
+                       TokenVersionService tokenVersionService) {
         this.userRepository = userRepository;
         this.authenticationFacade = authenticationFacade;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.tokenVersionService = tokenVersionService;
     }
 
     public void updateUserPassword(UpdatePasswordDTO userInfoDTO) {
@@ -34,7 +42,10 @@ public class UserService {
             throw new InvalidCredentialsException(HttpStatus.UNAUTHORIZED, "'Old Password' does not match your password");
         }
         user.setPassword(passwordEncoder.encode(userInfoDTO.getNewPassword()));
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        tokenVersionService.invalidate(user.getEmail());
     }
 
     protected UserEntity getCurrentUserByUsername() {
@@ -0,0 +1,98 @@
+package yummydelivery.server.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import yummydelivery.server.exceptions.CloudinaryException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "app.images.store", havingValue = "cloudinary", matchIfMissing = true)
+@Slf4j
+public class CloudinaryImageStore implements ImageStore {
+    static final String FOLDER = "YummyDeliveryImages";
+    static final String PLACEHOLDER_URL =
+            "https://res.cloudinary.com/dncjjyvqi/image/upload/v1707229014/YummyDeliveryImages/defaultProductImage.png";
+
+    private static final String UPLOAD_SEGMENT = "/image/upload/";
+    private static final String AUTOMATIC_FORMAT = "f_auto,q_auto/";
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryImageStore(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    /**
+     * Uploads only the first encoding: the returned URL asks Cloudinary for {@code f_auto}, so it converts
+     * to WebP or AVIF on delivery for browsers that accept them.
+     */
+    @Override
+    public String store(String name, List<EncodedImage> encodings) {
+        Map<String, String> options = new HashMap<>();
+        options.put("folder", FOLDER);
+        options.put("public_id", name);
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, String> uploadResult = cloudinary.uploader().upload(encodings.get(0).content(), options);
+            return withAutomaticFormat(uploadResult.get("url"));
+        } catch (IOException e) {
+            throw new CloudinaryException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload the image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(String imageURL) {
+        String publicId = key(imageURL);
+        try {
+            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            log.info("Image successfully deleted from Cloudinary");
+        } catch (IOException e) {
+            log.info("Failed to delete product image from Cloudinary");
+            throw new CloudinaryException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete product image from Cloudinary");
+        }
+    }
+
+    @Override
+    public String key(String imageURL) {
+        return publicId(imageURL);
+    }
+
+    @Override
+    public String placeholderUrl() {
+        return PLACEHOLDER_URL;
+    }
+
+    @Override
+    public Optional<StoredImage> find(String key) {
+        return Optional.empty();
+    }
+
+    static String withAutomaticFormat(String imageURL) {
+        int upload = imageURL.indexOf(UPLOAD_SEGMENT);
+        if (upload < 0) {
+            return imageURL;
+        }
+        int transformationStart = upload + UPLOAD_SEGMENT.length();
+        return imageURL.substring(0, transformationStart) + AUTOMATIC_FORMAT + imageURL.substring(transformationStart);
+    }
+
+    /**
+     * Public id of a delivery URL such as {@code .../upload/v123/YummyDeliveryImages/pizza.jpg}:
+     * the folder and file name without its extension.
+     */
+    static String publicId(String imageURL) {
+        int folderStart = imageURL.lastIndexOf(FOLDER + "/");
+        String path = folderStart >= 0 ? imageURL.substring(folderStart) : FOLDER + "/" + imageURL.substring(imageURL.lastIndexOf('/') + 1);
+        int extension = path.lastIndexOf('.');
+        return extension > path.lastIndexOf('/') ? path.substring(0, extension) : path;
+    }
+}
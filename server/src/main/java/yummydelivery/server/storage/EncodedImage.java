@@ -0,0 +1,4 @@
+package yummydelivery.server.storage;
+
+public record EncodedImage(byte[] content, String format) {
+}
@@ -0,0 +1,33 @@
+package yummydelivery.server.storage;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where resized product images live. {@link #store} returns the URL clients load the image from;
+ * {@link #find} is only answered by stores whose images are served by this application.
+ */
+public interface ImageStore {
+
+    /**
+     * Stores one image in one or more encodings. The first encoding is the one every client can display and
+     * the one the returned URL points to; the others (WebP) are served instead to clients that accept them.
+     */
+    String store(String name, List<EncodedImage> encodings);
+
+    default String store(String name, byte[] image, String format) {
+        return store(name, List.of(new EncodedImage(image, format)));
+    }
+
+    void delete(String imageURL);
+
+    /**
+     * What identifies the stored image behind a URL. Two URLs with the same key point to one image, e.g.
+     * two versions of a Cloudinary upload that was overwritten under the same public id.
+     */
+    String key(String imageURL);
+
+    String placeholderUrl();
+
+    Optional<StoredImage> find(String key);
+}
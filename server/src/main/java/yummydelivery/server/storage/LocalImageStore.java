@@ -0,0 +1,186 @@
+package yummydelivery.server.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import yummydelivery.server.exceptions.ApiException;
+import yummydelivery.server.utils.ImageResizer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps images on local disk, or in memory when no directory is configured, and serves them through
+ * {@code ImageController}. Keys carry a hash of the content, so a stored image never changes and can be
+ * cached by clients indefinitely. Meant for development, CI and load tests without outside network.
+ */
+@Component
+@ConditionalOnProperty(name = "app.images.store", havingValue = "local")
+@Slf4j
+public class LocalImageStore implements ImageStore {
+    public static final String WEBP_CONTENT_TYPE = "image/webp";
+    static final String PLACEHOLDER_KEY = "placeholder.png";
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9_-]+(\\.[a-z0-9]+)?");
+    private static final int PLACEHOLDER_SIZE = 350;
+
+    private final Path directory;
+    private final String publicBaseUrl;
+    private final Map<String, byte[]> inMemoryImages = new ConcurrentHashMap<>();
+
+    public LocalImageStore(@Value("${app.images.local.directory:}") String directory,
+                           @Value("${app.images.publicBaseUrl:http://localhost:8080/api/v1/images}") String publicBaseUrl) {
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+        try {
+            if (this.directory != null) {
+                Files.createDirectories(this.directory);
+            }
+            write(PLACEHOLDER_KEY, placeholderImage());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialise local image store", e);
+        }
+        log.info("Serving product images from {}", this.directory == null ? "memory" : this.directory.toAbsolutePath());
+    }
+
+    /**
+     * The first encoding decides the key; the others are written next to it under the same name with their
+     * own extension, where {@code ImageController} finds them for clients that accept them.
+     */
+    @Override
+    public String store(String name, List<EncodedImage> encodings) {
+        EncodedImage primary = encodings.get(0);
+        String baseName = name.replaceAll("[^A-Za-z0-9_-]", "") + "-" + contentHash(primary.content());
+        try {
+            for (int i = encodings.size() - 1; i >= 0; i--) {
+                write(baseName + "." + encodings.get(i).format(), encodings.get(i).content());
+            }
+        } catch (IOException e) {
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store the image: " + e.getMessage());
+        }
+        return urlFor(baseName + "." + primary.format());
+    }
+
+    @Override
+    public void delete(String imageURL) {
+        String key = key(imageURL);
+        if (!isValidKey(key) || PLACEHOLDER_KEY.equals(key)) {
+            return;
+        }
+        String webpKey = alternateKey(key, ImageResizer.WEBP);
+        List<String> keys = key.equals(webpKey) ? List.of(key) : List.of(key, webpKey);
+        if (directory == null) {
+            keys.forEach(inMemoryImages::remove);
+            return;
+        }
+        try {
+            for (String storedKey : keys) {
+                Files.deleteIfExists(directory.resolve(storedKey));
+            }
+        } catch (IOException e) {
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete the image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String key(String imageURL) {
+        return imageURL.substring(imageURL.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public String placeholderUrl() {
+        return urlFor(PLACEHOLDER_KEY);
+    }
+
+    @Override
+    public Optional<StoredImage> find(String key) {
+        if (!isValidKey(key)) {
+            return Optional.empty();
+        }
+        byte[] content;
+        if (directory == null) {
+            content = inMemoryImages.get(key);
+        } else {
+            try {
+                content = Files.readAllBytes(directory.resolve(key));
+            } catch (NoSuchFileException e) {
+                content = null;
+            } catch (IOException e) {
+                throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read the image: " + e.getMessage());
+            }
+        }
+        return Optional.ofNullable(content).map(bytes -> new StoredImage(bytes, contentType(key)));
+    }
+
+    /**
+     * Key of the same image in another encoding, e.g. {@code burger-0123.webp} for {@code burger-0123.jpg}.
+     */
+    public static String alternateKey(String key, String format) {
+        int extension = key.lastIndexOf('.');
+        return (extension < 0 ? key : key.substring(0, extension)) + "." + format;
+    }
+
+    private void write(String key, byte[] image) throws IOException {
+        if (directory == null) {
+            inMemoryImages.put(key, image);
+        } else {
+            Files.write(directory.resolve(key), image);
+        }
+    }
+
+    private String urlFor(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    private static boolean isValidKey(String key) {
+        return KEY_PATTERN.matcher(key).matches();
+    }
+
+    private static String contentType(String key) {
+        if (key.endsWith(".png")) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        return key.endsWith("." + ImageResizer.WEBP) ? WEBP_CONTENT_TYPE : MediaType.IMAGE_JPEG_VALUE;
+    }
+
+    private static String contentHash(byte[] image) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(image);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] placeholderImage() throws IOException {
+        BufferedImage image = new BufferedImage(PLACEHOLDER_SIZE, PLACEHOLDER_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(new Color(0xEEEEEE));
+            graphics.fillRect(0, 0, PLACEHOLDER_SIZE, PLACEHOLDER_SIZE);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
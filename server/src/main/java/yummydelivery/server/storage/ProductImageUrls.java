@@ -0,0 +1,4 @@
+package yummydelivery.server.storage;
+
+public record ProductImageUrls(String thumbnailURL, String cardURL, String detailURL) {
+}
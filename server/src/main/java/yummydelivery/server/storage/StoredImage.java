@@ -0,0 +1,4 @@
+package yummydelivery.server.storage;
+
+public record StoredImage(byte[] content, String contentType) {
+}
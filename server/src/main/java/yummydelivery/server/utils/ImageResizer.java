@@ -0,0 +1,154 @@
+package yummydelivery.server.utils;
+
+import org.imgscalr.Scalr;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Resizes images without holding the full-resolution bitmap: the reader subsamples rows and columns
+ * while decoding, so a 4000x3000 photo is decoded at roughly twice the target size, and the result is
+ * encoded straight into a byte array.
+ */
+public final class ImageResizer {
+    public static final String WEBP = "webp";
+    private static final float LOSSY_QUALITY = 0.85f;
+
+    private ImageResizer() {
+    }
+
+    public static byte[] resize(byte[] image, int maxWidth, int maxHeight, String format) throws IOException {
+        BufferedImage decoded = decodeSubsampled(image, maxWidth, maxHeight);
+        BufferedImage resized = decoded.getWidth() > maxWidth || decoded.getHeight() > maxHeight
+                ? Scalr.resize(decoded, Scalr.Method.BALANCED, Scalr.Mode.AUTOMATIC, maxWidth, maxHeight)
+                : decoded;
+        return encode(resized, format);
+    }
+
+    /**
+     * Decodes the image once, subsampled for the largest size, and scales it down size by size, each step
+     * starting from the previous result. Returns one image per entry of {@code maxSizes}, in the same order.
+     */
+    public static BufferedImage[] resizeAll(byte[] image, int... maxSizes) throws IOException {
+        Integer[] largestFirst = new Integer[maxSizes.length];
+        for (int i = 0; i < maxSizes.length; i++) {
+            largestFirst[i] = i;
+        }
+        Arrays.sort(largestFirst, Comparator.comparingInt((Integer i) -> maxSizes[i]).reversed());
+
+        int largest = maxSizes[largestFirst[0]];
+        BufferedImage current = decodeSubsampled(image, largest, largest);
+        BufferedImage[] resized = new BufferedImage[maxSizes.length];
+        for (int index : largestFirst) {
+            int maxSize = maxSizes[index];
+            if (current.getWidth() > maxSize || current.getHeight() > maxSize) {
+                current = Scalr.resize(current, Scalr.Method.BALANCED, Scalr.Mode.AUTOMATIC, maxSize, maxSize);
+            }
+            resized[index] = current;
+        }
+        return resized;
+    }
+
+    /**
+     * Whether an ImageIO writer for the format is registered; WebP needs a plugin on the classpath.
+     */
+    public static boolean canEncode(String format) {
+        return ImageIO.getImageWritersByFormatName(format).hasNext();
+    }
+
+    /**
+     * Output format for an uploaded file name: PNG stays PNG to keep transparency, everything else becomes JPEG.
+     */
+    public static String outputFormat(String originalFilename) {
+        return originalFilename != null && originalFilename.toLowerCase().endsWith(".png") ? "png" : "jpg";
+    }
+
+    static BufferedImage decodeSubsampled(byte[] image, int maxWidth, int maxHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int subsampling = subsamplingFor(reader.getWidth(0), reader.getHeight(0), maxWidth, maxHeight);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Largest whole step that still leaves at least twice the target size, so the final scale has
+     * enough pixels to filter from.
+     */
+    static int subsamplingFor(int width, int height, int maxWidth, int maxHeight) {
+        double ratio = Math.min((double) width / maxWidth, (double) height / maxHeight);
+        return Math.max(1, (int) Math.floor(ratio / 2));
+    }
+
+    public static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(64 * 1024);
+        if ("png".equals(format)) {
+            if (!ImageIO.write(image, "png", output)) {
+                throw new IOException("No PNG writer available");
+            }
+            return output.toByteArray();
+        }
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No " + format + " writer available");
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] compressionTypes = param.getCompressionTypes();
+                if (compressionTypes != null && compressionTypes.length > 0) {
+                    param.setCompressionType(compressionTypes[0]);
+                }
+                param.setCompressionQuality(LOSSY_QUALITY);
+            }
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage("jpg".equals(format) ? withoutAlpha(image) : image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static BufferedImage withoutAlpha(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha() && image.getType() != BufferedImage.TYPE_CUSTOM) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+}
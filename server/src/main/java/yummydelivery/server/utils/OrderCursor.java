@@ -0,0 +1,43 @@
+package yummydelivery.server.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import yummydelivery.server.model.OrderEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdOn;
+    private final Long id;
+
+    public static OrderCursor of(OrderEntity order) {
+        return new OrderCursor(order.getCreatedOn(), order.getId());
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new IllegalArgumentException("Invalid order cursor");
+            }
+            LocalDateTime createdOn = LocalDateTime.parse(decoded.substring(0, separatorIndex));
+            Long id = Long.parseLong(decoded.substring(separatorIndex + 1));
+            return new OrderCursor(createdOn, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid order cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdOn + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -21,6 +21,8 @@ import yummydelivery.server.exceptions.AddressNotFoundException;
 import yummydelivery.server.security.CustomUserDetailsService;
 import yummydelivery.server.security.JwtAuthenticationEntryPoint;
 import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
 import yummydelivery.server.service.AddressService;
 import yummydelivery.server.service.UserService;
 import yummydelivery.server.utils.CommonUtils;
@@ -47,6 +49,10 @@ class AddressControllerTest {
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
     @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
     private CustomUserDetailsService customUserDetailsService;
     @MockBean
     private AddressService addressService;
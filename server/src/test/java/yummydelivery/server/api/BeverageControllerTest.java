@@ -1,7 +1,9 @@
 package yummydelivery.server.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -17,40 +19,56 @@ import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import yummydelivery.server.cache.CatalogVersion;
+import yummydelivery.server.cache.MenuResponseCache;
 import yummydelivery.server.config.SecurityConfig;
 import yummydelivery.server.dto.BeverageDTO.BeverageDTO;
 import yummydelivery.server.dto.view.BeverageView;
 import yummydelivery.server.enums.ProductTypeEnum;
 import yummydelivery.server.exceptions.ProductNotFoundException;
 import yummydelivery.server.model.BeverageEntity;
+import yummydelivery.server.repository.CatalogVersionRepository;
 import yummydelivery.server.security.CustomUserDetailsService;
 import yummydelivery.server.security.JwtAuthenticationEntryPoint;
 import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
 import yummydelivery.server.service.BeverageService;
 import yummydelivery.server.service.FoodService;
+import yummydelivery.server.service.ProductPopularityService;
 import yummydelivery.server.utils.CommonUtils;
 
 import java.util.Collections;
 
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static yummydelivery.server.config.ApplicationConstants.API_BASE;
 
-@WebMvcTest(BeverageController.class)
+@WebMvcTest(controllers = BeverageController.class, properties = "app.catalogVersion.pollMs=3600000")
 @AutoConfigureMockMvc()
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, CatalogVersion.class, MenuResponseCache.class, SimpleMeterRegistry.class})
 @Slf4j
 class BeverageControllerTest {
     @Autowired
     private MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private MenuResponseCache menuResponseCache;
     @MockBean
     private JwtAuthenticationEntryPoint authenticationEntryPoint;
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
     @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
     private CustomUserDetailsService customUserDetailsService;
     @MockBean
     private BeverageService beverageService;
@@ -58,6 +76,15 @@ class BeverageControllerTest {
     private FoodService foodService;
     @MockBean
     private CommonUtils commonUtils;
+    @MockBean
+    private ProductPopularityService popularity;
+    @MockBean
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @BeforeEach
+    void setUp() {
+        menuResponseCache.invalidateAll();
+    }
 
     @Test
     @WithAnonymousUser
@@ -257,6 +284,43 @@ class BeverageControllerTest {
         verify(beverageService, times(1)).getAllBeverages(page);
     }
 
+    @Test
+    public void getAllBeverages_CurrentETag_NotModified304WithoutLoading() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/beverages")
+                        .header("If-None-Match", catalogVersion.eTag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", catalogVersion.eTag()));
+
+        verifyNoInteractions(beverageService);
+    }
+
+    @Test
+    public void getAllBeverages_NegativePageWithCurrentETag_BadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/beverages")
+                        .param("page", "-1")
+                        .header("If-None-Match", catalogVersion.eTag()))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(beverageService);
+    }
+
+    @Test
+    public void getAllBeverages_SortedByPopularity_CatalogETagAloneDoesNotMatch() throws Exception {
+        when(beverageService.getAllBeveragesByPopularity(0)).thenReturn(createMockBeveragePage());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/beverages")
+                        .param("sort", "popularity")
+                        .header("If-None-Match", catalogVersion.eTag()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.body.content[0].name").value(createMockBeveragePage().getContent().get(0).getName()));
+
+        verify(beverageService, times(1)).getAllBeveragesByPopularity(0);
+        verify(beverageService, never()).getAllBeverages(anyInt());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     public void updateBeverage_ShouldSucceed_OK200() throws Exception {
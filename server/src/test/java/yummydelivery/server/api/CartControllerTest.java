@@ -12,16 +12,21 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import yummydelivery.server.config.SecurityConfig;
+import yummydelivery.server.dto.CartItemDTO;
+import yummydelivery.server.dto.CartItemDeltaDTO;
+import yummydelivery.server.dto.CartSyncDTO;
 import yummydelivery.server.dto.ShoppingCartDTO;
+import yummydelivery.server.dto.view.ProductView;
 import yummydelivery.server.enums.ProductTypeEnum;
 import yummydelivery.server.exceptions.ProductNotFoundException;
 import yummydelivery.server.exceptions.ShoppingCartException;
-import yummydelivery.server.model.BeverageEntity;
-import yummydelivery.server.model.CartItem;
 import yummydelivery.server.security.CustomUserDetailsService;
 import yummydelivery.server.security.JwtAuthenticationEntryPoint;
 import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
 import yummydelivery.server.service.CartService;
+import yummydelivery.server.utils.CommonUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,28 +51,23 @@ class CartControllerTest {
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
     @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
     private CustomUserDetailsService customUserDetailsService;
     @MockBean
     private CartService cartService;
+    @MockBean
+    private CommonUtils utils;
 
     @Test
     @WithMockUser(value = "currentUser", roles = "CUSTOMER")
     public void getUserCart_ShouldReturnUserCart_With200() throws Exception {
-        BeverageEntity beverageProduct = new BeverageEntity();
-        beverageProduct.setImageURL(null);
-        beverageProduct.setMilliliters(100);
-        beverageProduct.setProductType(ProductTypeEnum.BEVERAGE);
-        beverageProduct.setName("Uzo");
-        beverageProduct.setPrice(10.10);
-        beverageProduct.setId(12L);
-
-        CartItem cartItem = new CartItem();
-        cartItem.setId(15L);
-        cartItem.setPrice(15.50);
-        cartItem.setQuantity(1);
-        cartItem.setProduct(beverageProduct);
-
-        List<CartItem> userCartItems = new ArrayList<>();
+        ProductView beverageProduct = new ProductView(12L, "Uzo", 10.10, null, null, ProductTypeEnum.BEVERAGE);
+        CartItemDTO cartItem = new CartItemDTO(15L, beverageProduct, 1, 15.50);
+
+        List<CartItemDTO> userCartItems = new ArrayList<>();
         userCartItems.add(cartItem);
 
         ShoppingCartDTO userCart = new ShoppingCartDTO();
@@ -147,4 +147,40 @@ class CartControllerTest {
 
         verify(cartService, times(1)).removeItemFromCart(cartItemId);
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(value = "currentUser", roles = "CUSTOMER")
+    public void syncCart_ShouldApplyChangesAndReturnCart_With200() throws Exception {
+        CartSyncDTO cartSyncDTO = new CartSyncDTO(List.of(new CartItemDeltaDTO(12L, 2), new CartItemDeltaDTO(4L, -1)));
+        ProductView beverageProduct = new ProductView(12L, "Uzo", 10.10, null, null, ProductTypeEnum.BEVERAGE);
+        ShoppingCartDTO userCart = new ShoppingCartDTO(new ArrayList<>(List.of(new CartItemDTO(15L, beverageProduct, 2, 20.20))), 20.20);
+
+        when(cartService.applyCartChanges(anyList())).thenReturn(userCart);
+
+        mockMvc.perform(post(API_BASE + "/shoppingCart/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cartSyncDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.OK.value()))
+                .andExpect(jsonPath("$.body.items.length()").value(1))
+                .andExpect(jsonPath("$.body.items[0].product.name").value("Uzo"))
+                .andExpect(jsonPath("$.body.items[0].quantity").value(2))
+                .andExpect(jsonPath("$.body.cartPrice").value(20.20));
+
+        verify(cartService, times(1)).applyCartChanges(argThat(changes -> changes.size() == 2));
+    }
+
+    @Test
+    @WithMockUser(value = "currentUser", roles = "CUSTOMER")
+    public void syncCart_ShouldReturnBadRequest_WhenNoChangesSent() throws Exception {
+        when(utils.collectErrorMessagesToString(any())).thenReturn("At least one cart change is required");
+
+        mockMvc.perform(post(API_BASE + "/shoppingCart/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CartSyncDTO())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At least one cart change is required"));
+
+        verify(cartService, never()).applyCartChanges(anyList());
+    }
+}
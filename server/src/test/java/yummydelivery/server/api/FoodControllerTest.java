@@ -1,7 +1,9 @@
 package yummydelivery.server.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -17,30 +19,52 @@ import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import yummydelivery.server.cache.CatalogVersion;
+import yummydelivery.server.cache.MenuResponseCache;
 import yummydelivery.server.config.SecurityConfig;
 import yummydelivery.server.dto.foodDTO.AddFoodDTO;
 import yummydelivery.server.dto.foodDTO.FoodDTO;
 import yummydelivery.server.dto.foodDTO.UpdateFoodDTO;
+import yummydelivery.server.dto.view.CatalogVersionView;
 import yummydelivery.server.enums.FoodTypeEnum;
 import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.PopularityChangedEvent;
 import yummydelivery.server.exceptions.ProductNotFoundException;
+import yummydelivery.server.model.CatalogVersionEntity;
 import yummydelivery.server.model.FoodEntity;
+import yummydelivery.server.repository.CatalogVersionRepository;
 import yummydelivery.server.security.CustomUserDetailsService;
 import yummydelivery.server.security.JwtAuthenticationEntryPoint;
 import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
 import yummydelivery.server.service.FoodService;
+import yummydelivery.server.service.ProductPopularityService;
 import yummydelivery.server.utils.CommonUtils;
 
+import java.io.ByteArrayInputStream;
 import java.util.Collections;
-
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static yummydelivery.server.config.ApplicationConstants.API_BASE;
 
-@WebMvcTest(FoodController.class)
+@WebMvcTest(controllers = FoodController.class, properties = "app.catalogVersion.pollMs=3600000")
 @AutoConfigureMockMvc()
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, CatalogVersion.class, MenuResponseCache.class, SimpleMeterRegistry.class})
 @Slf4j
 class FoodControllerTest {
 
@@ -48,16 +72,33 @@ class FoodControllerTest {
     private MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private MenuResponseCache menuResponseCache;
     @MockBean
     private JwtAuthenticationEntryPoint authenticationEntryPoint;
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
     @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
     private CustomUserDetailsService customUserDetailsService;
     @MockBean
     private FoodService foodService;
     @MockBean
     private CommonUtils commonUtils;
+    @MockBean
+    private ProductPopularityService popularity;
+    @MockBean
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @BeforeEach
+    void setUp() {
+        menuResponseCache.invalidateAll();
+    }
 
     @Test
     @WithAnonymousUser
@@ -215,6 +256,226 @@ class FoodControllerTest {
         verify(foodService, times(1)).getAllFoodsByType(requestedFoodType, 0);
     }
 
+    @Test
+    public void getFoodsByType_CurrentETag_NotModified304WithoutLoading() throws Exception {
+        when(foodService.getAllFoodsByType("pizza", 0)).thenReturn(createMockFoodPage());
+        String eTag = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")));
+
+        verify(foodService, times(1)).getAllFoodsByType("pizza", 0);
+    }
+
+    @Test
+    public void getFoodsByType_UnknownFoodTypeWithCurrentETag_BadRequest() throws Exception {
+        when(foodService.getAllFoodsByType("pizza", 0)).thenReturn(createMockFoodPage());
+        String eTag = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "sushi")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isBadRequest());
+
+        verify(foodService, never()).getAllFoodsByType(eq("sushi"), anyInt());
+    }
+
+    @Test
+    public void getFoodsByType_PagesZeroAndOne_ShareCachedResponse() throws Exception {
+        when(foodService.getAllFoodsByType("pizza", 0)).thenReturn(createMockFoodPage());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .param("page", "0"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "PIZZA")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.body.content[0].name").value(createMockFoodPage().getContent().get(0).getName()));
+
+        verify(foodService, times(1)).getAllFoodsByType(any(), anyInt());
+    }
+
+    @Test
+    public void getFoodsByType_GzipAndIdentity_SeparateETags() throws Exception {
+        when(foodService.getAllFoodsByType("pizza", 0)).thenReturn(createMockFoodPage());
+        String identityETag = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String gzipETag = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertEquals(identityETag.replaceAll("\"$", "-gz\""), gzipETag);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", identityETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", gzipETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", gzipETag));
+    }
+
+    @Test
+    public void getFoodsByType_GzipRefusedWithQZero_IdentityServed() throws Exception {
+        when(foodService.getAllFoodsByType("pizza", 0)).thenReturn(createMockFoodPage());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .header("Accept-Encoding", "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.body.content[0].name").value("Margherita"));
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .header("Accept-Encoding", "br, *;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    public void getFoodsByType_AcceptsGzip_CachedBytesServedCompressed() throws Exception {
+        when(foodService.getAllFoodsByType("pizza", 0)).thenReturn(createMockFoodPage());
+        byte[] json = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] compressed = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "PIZZA")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream unzipped = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, unzipped.readAllBytes());
+        }
+        verify(foodService, times(1)).getAllFoodsByType("pizza", 0);
+    }
+
+    @Test
+    public void getFoodsByType_CatalogChanged_ResponseRebuilt() throws Exception {
+        when(foodService.getAllFoodsByType("pizza", 0)).thenReturn(createMockFoodPage());
+        mockMvc.perform(MockMvcRequestBuilders.get(API_BASE + "/foods").param("foodType", "pizza"))
+                .andExpect(status().isOk());
+
+        menuResponseCache.onCatalogChanged(CatalogChangedEvent.food(15L, Set.of(FoodTypeEnum.PIZZA), CatalogChangedEvent.ChangeType.UPDATED));
+        mockMvc.perform(MockMvcRequestBuilders.get(API_BASE + "/foods").param("foodType", "pizza"))
+                .andExpect(status().isOk());
+
+        verify(foodService, times(2)).getAllFoodsByType("pizza", 0);
+    }
+
+    @Test
+    public void getFoodsByType_SortedByPopularity_RebuiltWhenRollupsChange() throws Exception {
+        when(foodService.getAllFoodsByTypeByPopularity("pizza", 0)).thenReturn(createMockFoodPage());
+        when(popularity.version()).thenReturn(1L);
+        String eTag = mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .param("sort", "popularity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.body.content[0].name").value("Margherita"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        when(popularity.version()).thenReturn(2L);
+        menuResponseCache.onPopularityChanged(new PopularityChangedEvent(2L));
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .param("sort", "popularity")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+
+        verify(foodService, times(2)).getAllFoodsByTypeByPopularity("pizza", 0);
+        verify(foodService, never()).getAllFoodsByType(any(), anyInt());
+    }
+
+    @Test
+    public void getFoodsByType_UnknownSort_BadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods")
+                        .param("foodType", "pizza")
+                        .param("sort", "cheapest"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getBestSellingFoods_Anonymous_RankedFoodsWithShortCache() throws Exception {
+        when(foodService.getBestSellingFoods(SalesWindowEnum.WEEK, 3)).thenReturn(createMockFoodPage().getContent());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods/popular")
+                        .param("window", "WEEK")
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, public"))
+                .andExpect(jsonPath("$.body[0].name").value("Margherita"));
+    }
+
+    @Test
+    public void getBestSellingFoods_LimitTooLarge_BadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods/popular")
+                        .param("limit", "500"))
+                .andExpect(status().isBadRequest());
+
+        verify(foodService, never()).getBestSellingFoods(any(), anyInt());
+    }
+
+    @Test
+    public void getFoodById_CatalogChanged_OldETagGetsFullResponse() throws Exception {
+        when(foodService.getFoodById(15L)).thenReturn(new FoodDTO());
+        String eTag = catalogVersion.eTag();
+        when(catalogVersionRepository.findView(CatalogVersionEntity.ID)).thenReturn(Optional.of(
+                new CatalogVersionView(System.currentTimeMillis(), catalogVersion.version() + 1, System.currentTimeMillis())));
+
+        catalogVersion.onCatalogChanged(CatalogChangedEvent.food(15L, Set.of(FoodTypeEnum.PIZZA), CatalogChangedEvent.ChangeType.UPDATED));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(API_BASE + "/foods/{id}", 15L)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogVersion.eTag()));
+        verify(foodService, times(1)).getFoodById(15L);
+    }
+
     @Test
     @WithMockUser(roles = "CUSTOMER")
     public void deleteFoodById_ShouldFail_Unauthorized403() throws Exception {
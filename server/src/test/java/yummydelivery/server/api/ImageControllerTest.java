@@ -0,0 +1,120 @@
+package yummydelivery.server.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import yummydelivery.server.config.SecurityConfig;
+import yummydelivery.server.security.CustomUserDetailsService;
+import yummydelivery.server.security.JwtAuthenticationEntryPoint;
+import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
+import yummydelivery.server.storage.ImageStore;
+import yummydelivery.server.storage.StoredImage;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static yummydelivery.server.config.ApplicationConstants.API_BASE;
+
+@WebMvcTest(ImageController.class)
+@AutoConfigureMockMvc
+@Import(SecurityConfig.class)
+class ImageControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+    @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+    @MockBean
+    private ImageStore imageStore;
+
+    @Test
+    void getImage_Anonymous_ServedWithLongLivedCacheHeaders() throws Exception {
+        byte[] image = {1, 2, 3};
+        when(imageStore.find("burger-0123456789abcdef.jpg"))
+                .thenReturn(Optional.of(new StoredImage(image, MediaType.IMAGE_JPEG_VALUE)));
+
+        mockMvc.perform(get(API_BASE + "/images/{key}", "burger-0123456789abcdef.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(content().bytes(image))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(header().string("ETag", "\"burger-0123456789abcdef.jpg\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void getImage_MatchingIfNoneMatch_NotModifiedWithoutBody() throws Exception {
+        byte[] image = {1, 2, 3};
+        String eTag = "\"burger-0123456789abcdef.jpg\"";
+        when(imageStore.find("burger-0123456789abcdef.jpg"))
+                .thenReturn(Optional.of(new StoredImage(image, MediaType.IMAGE_JPEG_VALUE)));
+
+        mockMvc.perform(get(API_BASE + "/images/{key}", "burger-0123456789abcdef.jpg").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getImage_WeakTagInIfNoneMatchList_NotModified() throws Exception {
+        when(imageStore.find("burger-0123456789abcdef.jpg"))
+                .thenReturn(Optional.of(new StoredImage(new byte[]{1, 2, 3}, MediaType.IMAGE_JPEG_VALUE)));
+
+        mockMvc.perform(get(API_BASE + "/images/{key}", "burger-0123456789abcdef.jpg")
+                        .header("If-None-Match", "\"other\", W/\"burger-0123456789abcdef.jpg\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getImage_AcceptsWebp_WebpEncodingServed() throws Exception {
+        byte[] webp = {9, 9};
+        when(imageStore.find("burger-0123456789abcdef.webp"))
+                .thenReturn(Optional.of(new StoredImage(webp, "image/webp")));
+
+        mockMvc.perform(get(API_BASE + "/images/{key}", "burger-0123456789abcdef.jpg")
+                        .header("Accept", "image/avif,image/webp,*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/webp"))
+                .andExpect(header().string("ETag", "\"burger-0123456789abcdef.webp\""))
+                .andExpect(content().bytes(webp));
+    }
+
+    @Test
+    void getImage_AcceptsWebpButOnlyJpegStored_JpegServed() throws Exception {
+        byte[] jpeg = {1, 2, 3};
+        when(imageStore.find("burger-0123456789abcdef.webp")).thenReturn(Optional.empty());
+        when(imageStore.find("burger-0123456789abcdef.jpg"))
+                .thenReturn(Optional.of(new StoredImage(jpeg, MediaType.IMAGE_JPEG_VALUE)));
+
+        mockMvc.perform(get(API_BASE + "/images/{key}", "burger-0123456789abcdef.jpg").header("Accept", "image/webp"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(content().bytes(jpeg));
+    }
+
+    @Test
+    void getImage_UnknownKey_NotFound() throws Exception {
+        when(imageStore.find("missing.jpg")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get(API_BASE + "/images/{key}", "missing.jpg"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -14,18 +14,24 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import yummydelivery.server.config.SecurityConfig;
+import yummydelivery.server.dto.CursorSliceDTO;
 import yummydelivery.server.dto.view.OrderView;
 import yummydelivery.server.model.AddressEntity;
 import yummydelivery.server.security.CustomUserDetailsService;
 import yummydelivery.server.security.JwtAuthenticationEntryPoint;
 import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
+import yummydelivery.server.service.CheckoutIdempotencyService;
 import yummydelivery.server.service.OrderService;
 
 import java.util.Arrays;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static yummydelivery.server.config.ApplicationConstants.API_BASE;
@@ -41,9 +47,15 @@ class OrderControllerTest {
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
     @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
     private CustomUserDetailsService userDetailsService;
     @MockBean
     private OrderService orderService;
+    @MockBean
+    private CheckoutIdempotencyService checkoutIdempotencyService;
 
     @Test
     @WithMockUser(value = "currentUser", roles = "CUSTOMER")
@@ -56,16 +68,35 @@ class OrderControllerTest {
         address.setPhoneNumber("35988855213");
         address.setStreetName("Qwerty");
 
-        doNothing().when(orderService).createOrder(addressId);
+        when(orderService.createOrder(addressId)).thenReturn(11L);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .post(API_BASE + "/orders/{addressId}", addressId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.statusCode").value(HttpStatus.OK.value()))
-                .andExpect(jsonPath("$.message").value("Order created successfully"));
+                .andExpect(jsonPath("$.message").value("Order created successfully"))
+                .andExpect(jsonPath("$.body").value(11));
 
         verify(orderService, times(1)).createOrder(addressId);
+        verifyNoInteractions(checkoutIdempotencyService);
+    }
+
+    @Test
+    @WithMockUser(value = "currentUser", roles = "CUSTOMER")
+    void createOrderForSelectedAddress_WithIdempotencyKey_ReplayReturnsOriginalOrder() throws Exception {
+        when(checkoutIdempotencyService.createOrder(4L, "retry-1"))
+                .thenReturn(new CheckoutIdempotencyService.CheckoutResult(11L, true));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post(API_BASE + "/orders/{addressId}", 4L)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.body").value(11));
+
+        verify(orderService, never()).createOrder(any());
     }
 
     @Test
@@ -82,6 +113,24 @@ class OrderControllerTest {
         verify(orderService, times(1)).getUserOrders(0);
     }
 
+    @Test
+    @WithMockUser(username = "customer", roles = "CUSTOMER")
+    public void getUserOrderHistory_ReturnsNextCursor() throws Exception {
+        CursorSliceDTO<OrderView> history =
+                new CursorSliceDTO<>(createMockUserOrdersPage().getContent(), 2, true, "next-cursor");
+        when(orderService.getUserOrderHistory("abc", 2)).thenReturn(history);
+
+        mockMvc.perform(get(API_BASE + "/orders/history")
+                        .param("cursor", "abc")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.body.content.length()").value(2))
+                .andExpect(jsonPath("$.body.hasNext").value(true))
+                .andExpect(jsonPath("$.body.nextCursor").value("next-cursor"));
+
+        verify(orderService, times(1)).getUserOrderHistory("abc", 2);
+    }
+
     private Page<OrderView> createMockUserOrdersPage() {
         OrderView order1 = new OrderView();
         order1.setId(1L);
@@ -0,0 +1,102 @@
+package yummydelivery.server.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import yummydelivery.server.config.SecurityConfig;
+import yummydelivery.server.dto.ProductSearchHitDTO;
+import yummydelivery.server.dto.SearchResultDTO;
+import yummydelivery.server.dto.SuggestionDTO;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.PriceBandEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.search.ProductSearchIndex;
+import yummydelivery.server.search.SearchFilters;
+import yummydelivery.server.security.CustomUserDetailsService;
+import yummydelivery.server.security.JwtAuthenticationEntryPoint;
+import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static yummydelivery.server.config.ApplicationConstants.API_BASE;
+
+@WebMvcTest(SearchController.class)
+@AutoConfigureMockMvc
+@Import(SecurityConfig.class)
+class SearchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+    @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+    @MockBean
+    private ProductSearchIndex searchIndex;
+
+    @Test
+    void search_Anonymous_FiltersPassedToIndex() throws Exception {
+        ProductSearchHitDTO hit = new ProductSearchHitDTO(1L, "Pizza Marinara", ProductTypeEnum.FOOD, FoodTypeEnum.PIZZA,
+                9.5, null, null, 400, null, List.of("Shrimps"));
+        when(searchIndex.search(eq("pizza with shrimp"), any(), eq(0))).thenReturn(
+                new SearchResultDTO(List.of(hit), 0, 20, 1, Map.of("foodType", Map.of("PIZZA", 1L))));
+
+        mockMvc.perform(get(API_BASE + "/search")
+                        .param("q", "pizza with shrimp")
+                        .param("foodType", "PIZZA")
+                        .param("priceBand", "FROM_5_TO_10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.body.content[0].name").value("Pizza Marinara"))
+                .andExpect(jsonPath("$.body.content[0].milliliters").doesNotExist())
+                .andExpect(jsonPath("$.body.facets.foodType.PIZZA").value(1));
+
+        verify(searchIndex).search("pizza with shrimp",
+                new SearchFilters(null, FoodTypeEnum.PIZZA, PriceBandEnum.FROM_5_TO_10, null), 0);
+    }
+
+    @Test
+    void search_UnknownFacetValue_BadRequest() throws Exception {
+        mockMvc.perform(get(API_BASE + "/search").param("priceBand", "CHEAP"))
+                .andExpect(status().isBadRequest());
+
+        verify(searchIndex, never()).search(any(), any(), anyInt());
+    }
+
+    @Test
+    void suggest_Anonymous_CacheableSuggestions() throws Exception {
+        when(searchIndex.suggest("marg", 8)).thenReturn(
+                List.of(new SuggestionDTO("Pizza Margherita", 2L, ProductTypeEnum.FOOD, "/thumb.png")));
+
+        mockMvc.perform(get(API_BASE + "/search/suggest").param("q", "marg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, public"))
+                .andExpect(jsonPath("$.body[0].text").value("Pizza Margherita"))
+                .andExpect(jsonPath("$.body[0].productId").value(2));
+    }
+
+    @Test
+    void suggest_LimitAboveMaximum_BadRequest() throws Exception {
+        mockMvc.perform(get(API_BASE + "/search/suggest").param("q", "marg").param("limit", "500"))
+                .andExpect(status().isBadRequest());
+
+        verify(searchIndex, never()).suggest(any(), anyInt());
+    }
+}
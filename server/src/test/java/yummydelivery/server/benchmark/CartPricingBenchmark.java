@@ -0,0 +1,108 @@
+package yummydelivery.server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import yummydelivery.server.model.CartItem;
+import yummydelivery.server.pricing.PricingEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of changing one line of a cart and getting the new cart total: re-summing double prices the way the
+ * cart used to, re-summing minor units, and repricing only the changed line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartPricingBenchmark {
+    @Param({"10", "100", "1000"})
+    private int cartSize;
+
+    private double[] unitPrices;
+    private List<DoubleLine> doubleLines;
+    private List<CartItem> lines;
+    private long cartTotal;
+    private int change;
+
+    @Setup
+    public void setUp() {
+        unitPrices = new double[cartSize];
+        doubleLines = new ArrayList<>(cartSize);
+        lines = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            unitPrices[i] = 2.5 + (i % 40) * 0.35;
+            DoubleLine doubleLine = new DoubleLine();
+            doubleLine.quantity = 1;
+            doubleLine.price = unitPrices[i];
+            doubleLines.add(doubleLine);
+
+            CartItem line = new CartItem();
+            line.setQuantity(1);
+            line.setPriceMinor(PricingEngine.toMinorUnits(unitPrices[i]));
+            lines.add(line);
+            cartTotal = PricingEngine.add(cartTotal, line.getPriceMinor());
+        }
+    }
+
+    @Benchmark
+    public double recomputeDoubles() {
+        int index = nextIndex();
+        DoubleLine line = doubleLines.get(index);
+        line.quantity = line.quantity % 9 + 1;
+        line.price = line.quantity * unitPrices[index];
+        return doubleLines.stream().mapToDouble(DoubleLine::getPrice).sum();
+    }
+
+    @Benchmark
+    public long recomputeMinorUnits() {
+        int index = nextIndex();
+        CartItem line = lines.get(index);
+        line.setQuantity(line.getQuantity() % 9 + 1);
+        line.setPriceMinor(PricingEngine.lineTotal(PricingEngine.toMinorUnits(unitPrices[index]), line.getQuantity()));
+        long total = 0;
+        for (CartItem cartItem : lines) {
+            total = PricingEngine.add(total, cartItem.getPriceMinor());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long repriceChangedLine() {
+        int index = nextIndex();
+        CartItem line = lines.get(index);
+        long oldLineTotal = line.getPriceMinor();
+        line.setQuantity(line.getQuantity() % 9 + 1);
+        line.setPriceMinor(PricingEngine.lineTotal(PricingEngine.toMinorUnits(unitPrices[index]), line.getQuantity()));
+        cartTotal = PricingEngine.reprice(cartTotal, oldLineTotal, line.getPriceMinor());
+        return cartTotal;
+    }
+
+    private int nextIndex() {
+        change = change + 1 == cartSize ? 0 : change + 1;
+        return change;
+    }
+
+    private static final class DoubleLine {
+        private int quantity;
+        private double price;
+
+        double getPrice() {
+            return price;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CartPricingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
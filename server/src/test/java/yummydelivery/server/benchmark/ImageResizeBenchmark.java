@@ -0,0 +1,123 @@
+package yummydelivery.server.benchmark;
+
+import org.imgscalr.Scalr;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import yummydelivery.server.utils.ImageResizer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per 350x350 product image for the old path (full decode, resize, temp file) against the streaming
+ * resizer, for a 4000x3000 JPEG and PNG. {@code main} adds the GC profiler for bytes allocated per image and
+ * then measures the peak heap of a single resize on each path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageResizeBenchmark {
+    private static final int WIDTH = 4000;
+    private static final int HEIGHT = 3000;
+    private static final int TARGET = 350;
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    private byte[] image;
+
+    @Setup
+    public void setUp() throws IOException {
+        image = sourceImage(format);
+    }
+
+    @Benchmark
+    public byte[] fullDecodeWithTempFile() throws IOException {
+        return resizeWithTempFile(image, format);
+    }
+
+    @Benchmark
+    public byte[] subsampledStreaming() throws IOException {
+        return ImageResizer.resize(image, TARGET, TARGET, format);
+    }
+
+    static byte[] resizeWithTempFile(byte[] source, String format) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(source));
+        BufferedImage resized = Scalr.resize(decoded, Scalr.Method.BALANCED, Scalr.Mode.AUTOMATIC, TARGET, TARGET);
+        File file = File.createTempFile("benchmark-image", "." + format);
+        try {
+            ImageIO.write(resized, format, file);
+            return Files.readAllBytes(file.toPath());
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    static byte[] sourceImage(String format) throws IOException {
+        BufferedImage photo = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Random noise = new Random(42);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int red = (x * 255 / WIDTH + noise.nextInt(24)) & 0xFF;
+                int green = (y * 255 / HEIGHT + noise.nextInt(24)) & 0xFF;
+                int blue = ((x + y) % 256 + noise.nextInt(24)) & 0xFF;
+                photo.setRGB(x, y, (red << 16) | (green << 8) | blue);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(photo, format, output);
+        return output.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Options options = new OptionsBuilder()
+                .include(ImageResizeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+
+        System.out.println();
+        System.out.printf("%-8s %-24s %14s%n", "format", "path", "peak heap MB");
+        for (String format : List.of("jpg", "png")) {
+            byte[] source = sourceImage(format);
+            printPeakHeap(format, "fullDecodeWithTempFile", () -> resizeWithTempFile(source, format));
+            printPeakHeap(format, "subsampledStreaming", () -> ImageResizer.resize(source, TARGET, TARGET, format));
+        }
+    }
+
+    private static void printPeakHeap(String format, String path, ImageTask task) throws IOException {
+        task.run();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        long baseline = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        task.run();
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("%-8s %-24s %14.1f%n", format, path, (peak - baseline) / (1024.0 * 1024.0));
+    }
+
+    @FunctionalInterface
+    private interface ImageTask {
+        byte[] run() throws IOException;
+    }
+}
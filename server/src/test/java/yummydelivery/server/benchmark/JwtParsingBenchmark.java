@@ -0,0 +1,68 @@
+package yummydelivery.server.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import yummydelivery.server.security.JwtTokenProvider;
+import yummydelivery.server.security.UserPrincipal;
+import yummydelivery.server.security.VerifiedJwt;
+
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second by the request filter.
+ * "perRequestKeyDoubleParse" is the previous flow: validate, then parse again for the subject,
+ * rebuilding the key and parser each time. Run with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParsingBenchmark {
+    private static final String SECRET = "c2VjcmV0LWtleS11c2VkLW9ubHktYnktdGhlLWp3dC1wYXJzaW5nLWJlbmNobWFyaw==";
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 600000);
+        UserPrincipal principal = new UserPrincipal("user@email.com", "encoded",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), 0);
+        token = tokenProvider.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public String perRequestKeyDoubleParse() {
+        Jwts.parserBuilder().setSigningKey(perRequestKey()).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(perRequestKey()).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String prebuiltParserSingleParse() {
+        return tokenProvider.parseVerifiedToken(token).map(VerifiedJwt::getSubject).orElseThrow();
+    }
+
+    private Key perRequestKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtParsingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,161 @@
+package yummydelivery.server.benchmark;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import yummydelivery.server.dto.foodDTO.FoodDTO;
+import yummydelivery.server.dto.view.BeverageView;
+import yummydelivery.server.dto.view.OrderView;
+import yummydelivery.server.dto.view.ProductView;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.OrderStatusEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.mapper.BeverageMapper;
+import yummydelivery.server.mapper.FoodMapper;
+import yummydelivery.server.mapper.OrderMapper;
+import yummydelivery.server.mapper.UserPrincipalMapper;
+import yummydelivery.server.model.*;
+import yummydelivery.server.security.UserPrincipal;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mappings per second for the read paths, ModelMapper against the explicit mappers.
+ * {@code main} adds the GC profiler, so the report also has the allocation rate ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+    private ModelMapper modelMapper;
+    private FoodEntity food;
+    private BeverageEntity beverage;
+    private OrderEntity order;
+    private CartItem cartItem;
+    private UserEntity user;
+    private Set<SimpleGrantedAuthority> authorities;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+
+        food = new FoodEntity();
+        food.setId(1L);
+        food.setName("Margherita");
+        food.setPrice(10.5);
+        food.setGrams(450);
+        food.setImageURL("https://images.example.com/margherita.png");
+        food.setFoodTypeEnum(FoodTypeEnum.PIZZA);
+        food.setProductType(ProductTypeEnum.FOOD);
+        food.setIngredients(new ArrayList<>(List.of("Tomato sauce", "Mozzarella", "Basil")));
+
+        beverage = new BeverageEntity();
+        beverage.setId(2L);
+        beverage.setName("Orange juice");
+        beverage.setPrice(3.2);
+        beverage.setMilliliters(330);
+        beverage.setProductType(ProductTypeEnum.BEVERAGE);
+
+        cartItem = new CartItem();
+        cartItem.setId(3L);
+        cartItem.setProduct(food);
+        cartItem.setQuantity(2);
+        cartItem.setPriceMinor(2100);
+
+        AddressEntity address = AddressEntity.builder()
+                .id(4L).city("Sofia").streetName("Vitosha").streetNumber("12").phoneNumber("0888123456")
+                .build();
+        order = new OrderEntity();
+        order.setId(5L);
+        order.setCreatedOn(LocalDateTime.of(2024, 3, 1, 18, 30));
+        order.setOrderCostMinor(2730);
+        order.setStatus(OrderStatusEnum.PROCESSING);
+        order.setDeliveryAddress(address);
+        for (long i = 0; i < 3; i++) {
+            ImmutableCartItem item = new ImmutableCartItem();
+            item.setId(i);
+            item.setProduct(new ProductView(i, "Product " + i, 9.1, null, null, ProductTypeEnum.FOOD));
+            item.setQuantity(1);
+            item.setPriceMinor(910);
+            order.getOrderedProducts().add(item);
+        }
+
+        user = new UserEntity();
+        user.setEmail("user@email.com");
+        user.setPassword("encodedPassword");
+        user.setTokenVersion(3);
+        authorities = Set.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
+    }
+
+    @Benchmark
+    public FoodDTO foodModelMapper() {
+        return modelMapper.map(food, FoodDTO.class);
+    }
+
+    @Benchmark
+    public FoodDTO foodExplicit() {
+        return FoodMapper.toFoodDTO(food);
+    }
+
+    @Benchmark
+    public BeverageView beverageModelMapper() {
+        return modelMapper.map(beverage, BeverageView.class);
+    }
+
+    @Benchmark
+    public BeverageView beverageExplicit() {
+        return BeverageMapper.toBeverageView(beverage);
+    }
+
+    @Benchmark
+    public OrderView orderModelMapper() {
+        return modelMapper.map(order, OrderView.class);
+    }
+
+    @Benchmark
+    public OrderView orderExplicit() {
+        return OrderMapper.toOrderView(order);
+    }
+
+    @Benchmark
+    public ImmutableCartItem cartItemModelMapper() {
+        return modelMapper.map(cartItem, ImmutableCartItem.class);
+    }
+
+    @Benchmark
+    public ImmutableCartItem cartItemExplicit() {
+        return OrderMapper.toImmutableCartItem(cartItem);
+    }
+
+    @Benchmark
+    public UserPrincipal userPrincipalModelMapper() {
+        UserPrincipal principal = modelMapper.map(user, UserPrincipal.class);
+        principal.setAuthorities(authorities);
+        return principal;
+    }
+
+    @Benchmark
+    public UserPrincipal userPrincipalExplicit() {
+        return UserPrincipalMapper.toUserPrincipal(user, authorities);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MappingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
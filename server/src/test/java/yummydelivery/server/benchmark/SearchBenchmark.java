@@ -0,0 +1,99 @@
+package yummydelivery.server.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.mockito.Mockito;
+import yummydelivery.server.dto.SearchResultDTO;
+import yummydelivery.server.dto.SuggestionDTO;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.PriceBandEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.model.BeverageEntity;
+import yummydelivery.server.model.FoodEntity;
+import yummydelivery.server.repository.ProductRepository;
+import yummydelivery.server.search.ProductSearchIndex;
+import yummydelivery.server.search.SearchFilters;
+import yummydelivery.server.service.ProductPopularityService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of in-memory menu searches over 2,000 products, including facet counts, and of typeahead lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final String[] INGREDIENTS = {"tomato", "mozzarella", "shrimp", "basil", "ham", "mushroom",
+            "olive", "garlic", "onion", "egg", "rucola", "tuna", "salami", "pepper", "zucchini", "eggplant"};
+
+    private ProductSearchIndex searchIndex;
+    private final SearchFilters pizzas = new SearchFilters(null, FoodTypeEnum.PIZZA, PriceBandEnum.FROM_5_TO_10, null);
+
+    @Setup
+    public void setUp() {
+        searchIndex = new ProductSearchIndex(Mockito.mock(ProductRepository.class),
+                Mockito.mock(ProductPopularityService.class), new SimpleMeterRegistry());
+        FoodTypeEnum[] types = FoodTypeEnum.values();
+        for (long i = 0; i < 1800; i++) {
+            FoodEntity food = new FoodEntity();
+            food.setId(i);
+            food.setName(types[(int) (i % types.length)].name() + " Special " + i);
+            food.setFoodTypeEnum(types[(int) (i % types.length)]);
+            food.setProductType(ProductTypeEnum.FOOD);
+            food.setPrice(4 + i % 20);
+            food.setIngredients(List.of(INGREDIENTS[(int) (i % INGREDIENTS.length)] + ", "
+                    + INGREDIENTS[(int) ((i * 7) % INGREDIENTS.length)] + ", " + INGREDIENTS[(int) ((i * 3) % INGREDIENTS.length)]));
+            searchIndex.index(food);
+        }
+        for (long i = 1800; i < 2000; i++) {
+            BeverageEntity beverage = new BeverageEntity();
+            beverage.setId(i);
+            beverage.setName("Juice " + i);
+            beverage.setProductType(ProductTypeEnum.BEVERAGE);
+            beverage.setPrice(2 + i % 4);
+            beverage.setMilliliters(i % 2 == 0 ? 330 : 500);
+            searchIndex.index(beverage);
+        }
+    }
+
+    @Benchmark
+    public SearchResultDTO twoTerms() {
+        return searchIndex.search("pizza with shrimp", SearchFilters.none(), 0);
+    }
+
+    @Benchmark
+    public SearchResultDTO twoTermsFiltered() {
+        return searchIndex.search("tomato mozzarella", pizzas, 0);
+    }
+
+    @Benchmark
+    public SearchResultDTO browseWholeMenu() {
+        return searchIndex.search("", SearchFilters.none(), 0);
+    }
+
+    @Benchmark
+    public List<SuggestionDTO> suggestOneLetter() {
+        return searchIndex.suggest("p", 8);
+    }
+
+    @Benchmark
+    public List<SuggestionDTO> suggestWord() {
+        return searchIndex.suggest("mozz", 8);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
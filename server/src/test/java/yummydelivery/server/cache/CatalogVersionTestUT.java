@@ -0,0 +1,133 @@
+package yummydelivery.server.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import yummydelivery.server.dto.view.CatalogVersionView;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.CatalogVersionChangedEvent;
+import yummydelivery.server.model.CatalogVersionEntity;
+import yummydelivery.server.repository.CatalogVersionRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogVersionTestUT {
+    private static final long EPOCH = 1_700_000_000_000L;
+    private static final long LAST_MODIFIED = 1_700_000_100_000L;
+
+    @Mock
+    private CatalogVersionRepository repository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CatalogVersion catalogVersion;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.findView(CatalogVersionEntity.ID)).thenReturn(view(EPOCH, 0, LAST_MODIFIED));
+        catalogVersion = new CatalogVersion(repository, eventPublisher);
+    }
+
+    @Test
+    public void onCatalogChanged_OnlyThisChange_NewVersionWithoutDroppingCaches() {
+        String firstETag = catalogVersion.eTag();
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        assertFalse(catalogVersion.checkNotModified(new ServletWebRequest(new MockHttpServletRequest("GET", "/"), firstResponse)));
+        when(repository.findView(CatalogVersionEntity.ID)).thenReturn(view(EPOCH, 1, LAST_MODIFIED + 1000));
+
+        catalogVersion.onCatalogChanged(CatalogChangedEvent.beverage(1L, CatalogChangedEvent.ChangeType.ADDED));
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        catalogVersion.checkNotModified(new ServletWebRequest(new MockHttpServletRequest("GET", "/"), secondResponse));
+
+        assertEquals(1, catalogVersion.version());
+        assertNotEquals(firstETag, catalogVersion.eTag());
+        assertTrue(secondResponse.getDateHeader("Last-Modified") > firstResponse.getDateHeader("Last-Modified"));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void onCatalogChanged_OtherNodeChangedToo_CachesDropped() {
+        when(repository.findView(CatalogVersionEntity.ID)).thenReturn(view(EPOCH, 2, LAST_MODIFIED + 2000));
+
+        catalogVersion.onCatalogChanged(CatalogChangedEvent.beverage(1L, CatalogChangedEvent.ChangeType.ADDED));
+
+        assertEquals(2, catalogVersion.version());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof CatalogVersionChangedEvent changed
+                && changed.getVersion() == 2));
+    }
+
+    @Test
+    public void poll_ChangedOnAnotherNode_CachesDroppedBeforeVersionMoves() {
+        List<Long> versionsSeenByListener = new ArrayList<>();
+        doAnswer(invocation -> versionsSeenByListener.add(catalogVersion.version()))
+                .when(eventPublisher).publishEvent(any(Object.class));
+        when(repository.findView(CatalogVersionEntity.ID)).thenReturn(view(EPOCH, 1, LAST_MODIFIED + 1000));
+
+        catalogVersion.poll();
+        catalogVersion.poll();
+
+        assertEquals(List.of(0L), versionsSeenByListener);
+        assertEquals(1, catalogVersion.version());
+    }
+
+    @Test
+    public void eTag_SameSharedVersion_SameOnEveryNode() {
+        CatalogVersion otherNode = new CatalogVersion(repository, eventPublisher);
+
+        assertEquals(catalogVersion.eTag(), otherNode.eTag());
+    }
+
+    @Test
+    public void poll_RowRecreated_NewETagAndCachesDropped() {
+        String firstETag = catalogVersion.eTag();
+        when(repository.findView(CatalogVersionEntity.ID)).thenReturn(view(EPOCH + 5000, 0, LAST_MODIFIED + 5000));
+
+        catalogVersion.poll();
+
+        assertNotEquals(firstETag, catalogVersion.eTag());
+        verify(eventPublisher).publishEvent(any(CatalogVersionChangedEvent.class));
+    }
+
+    @Test
+    public void newCatalogVersion_NoRow_RowCreated() {
+        when(repository.findView(CatalogVersionEntity.ID)).thenReturn(Optional.empty());
+
+        CatalogVersion created = new CatalogVersion(repository, eventPublisher);
+
+        assertEquals(0, created.version());
+        verify(repository).save(argThat(row -> row.getId().equals(CatalogVersionEntity.ID) && row.getVersion() == 0));
+    }
+
+    @Test
+    public void recordChange_SharedVersionIncremented() {
+        catalogVersion.recordChange(CatalogChangedEvent.beverage(1L, CatalogChangedEvent.ChangeType.DELETED));
+
+        verify(repository).increment(eq(CatalogVersionEntity.ID), anyLong());
+    }
+
+    @Test
+    public void checkNotModified_IfModifiedSinceCurrent_NotModified() {
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        catalogVersion.checkNotModified(new ServletWebRequest(new MockHttpServletRequest("GET", "/"), firstResponse));
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/");
+        conditional.addHeader("If-Modified-Since", firstResponse.getHeader("Last-Modified"));
+
+        assertTrue(catalogVersion.checkNotModified(new ServletWebRequest(conditional, new MockHttpServletResponse())));
+    }
+
+    private static Optional<CatalogVersionView> view(long epoch, long version, long lastModified) {
+        return Optional.of(new CatalogVersionView(epoch, version, lastModified));
+    }
+}
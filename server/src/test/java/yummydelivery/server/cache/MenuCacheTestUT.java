@@ -0,0 +1,113 @@
+package yummydelivery.server.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import yummydelivery.server.dto.foodDTO.FoodDTO;
+import yummydelivery.server.dto.view.BeverageView;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.CatalogVersionChangedEvent;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuCacheTestUT {
+    private final PageRequest firstPage = PageRequest.of(0, 6);
+    private MenuCache menuCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        menuCache = new MenuCache(new SimpleMeterRegistry(), 16, 0);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void getFoods_RepeatedRequest_LoadedOnce() {
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, menuCache.hitCount());
+        assertEquals(1, menuCache.missCount());
+        assertEquals(2L, menuCache.getFoodCount(FoodTypeEnum.PIZZA));
+    }
+
+    @Test
+    public void getFoods_PageBeyondKnownCount_AnsweredWithoutLoading() {
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+
+        Page<FoodDTO> outOfRange = menuCache.getFoods(FoodTypeEnum.PIZZA, PageRequest.of(3, 6), this::loadPizzas);
+
+        assertTrue(outOfRange.getContent().isEmpty());
+        assertEquals(2, outOfRange.getTotalElements());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void onCatalogChanged_EvictsOnlyAffectedFoodTypes() {
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+        menuCache.getFoods(FoodTypeEnum.SALAD, firstPage, this::loadPizzas);
+        menuCache.getBeverages(firstPage, this::loadBeverages);
+
+        menuCache.onCatalogChanged(CatalogChangedEvent.food(1L, Set.of(FoodTypeEnum.PIZZA), CatalogChangedEvent.ChangeType.UPDATED));
+
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+        menuCache.getFoods(FoodTypeEnum.SALAD, firstPage, this::loadPizzas);
+        menuCache.getBeverages(firstPage, this::loadBeverages);
+
+        assertEquals(4, loads.get());
+        assertEquals(1, menuCache.evictionCount());
+        assertEquals(2, menuCache.hitCount());
+    }
+
+    @Test
+    public void onCatalogVersionChanged_EverythingEvicted() {
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+        menuCache.getBeverages(firstPage, this::loadBeverages);
+
+        menuCache.onCatalogVersionChanged(new CatalogVersionChangedEvent(3));
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+        menuCache.getBeverages(firstPage, this::loadBeverages);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void onCatalogChanged_BeverageChange_EvictsBeveragePages() {
+        menuCache.getBeverages(firstPage, this::loadBeverages);
+
+        menuCache.onCatalogChanged(CatalogChangedEvent.beverage(5L, CatalogChangedEvent.ChangeType.DELETED));
+        menuCache.getBeverages(firstPage, this::loadBeverages);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getFoods_InvalidatedWhileLoading_StaleResultNotCached() {
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, () -> {
+            menuCache.onCatalogChanged(CatalogChangedEvent.food(1L, Set.of(FoodTypeEnum.PIZZA), CatalogChangedEvent.ChangeType.ADDED));
+            return loadPizzas();
+        });
+        menuCache.getFoods(FoodTypeEnum.PIZZA, firstPage, this::loadPizzas);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Page<FoodDTO> loadPizzas() {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(new FoodDTO(), new FoodDTO()), firstPage, 2);
+    }
+
+    private Page<BeverageView> loadBeverages() {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(new BeverageView()), firstPage, 1);
+    }
+}
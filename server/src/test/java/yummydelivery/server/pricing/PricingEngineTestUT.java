@@ -0,0 +1,132 @@
+package yummydelivery.server.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property checks over seeded random inputs, so a failure names its seed and can be replayed.
+ */
+class PricingEngineTestUT {
+    private static final int RUNS = 10_000;
+    private static final long SEED = 20240301L;
+
+    @Test
+    public void toMinorUnits_AnyPriceWrittenWithCents_ConvertedExactly() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < RUNS; run++) {
+            long cents = random.nextLong(1, 100_000_000_000L);
+            double price = Double.parseDouble(BigDecimal.valueOf(cents, 2).toPlainString());
+
+            assertEquals(cents, PricingEngine.toMinorUnits(price), "seed " + SEED + ", run " + run + ", price " + price);
+        }
+    }
+
+    @Test
+    public void toMinorUnits_AnyDecimal_SameAsRoundingTheDecimalHalfUp() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < RUNS; run++) {
+            BigDecimal written = BigDecimal.valueOf(random.nextLong(1, 10_000_000_000L), random.nextInt(0, 5));
+            double amount = written.doubleValue();
+            long expected = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+
+            assertEquals(expected, PricingEngine.toMinorUnits(amount), "seed " + SEED + ", run " + run + ", amount " + written);
+        }
+    }
+
+    @Test
+    public void toMajorUnits_RoundTripsThroughMinorUnits() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < RUNS; run++) {
+            long minorUnits = random.nextLong(0, 1_000_000_000_000L);
+
+            assertEquals(minorUnits, PricingEngine.toMinorUnits(PricingEngine.toMajorUnits(minorUnits)),
+                    "seed " + SEED + ", run " + run + ", minor units " + minorUnits);
+        }
+    }
+
+    @Test
+    public void reprice_RandomCartChanges_TotalEqualsExactSumOfLines() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < 200; run++) {
+            Map<Integer, Long> lines = new HashMap<>();
+            long cartTotal = 0;
+            for (int change = 0; change < 500; change++) {
+                int product = random.nextInt(50);
+                long unitPrice = PricingEngine.toMinorUnits(random.nextInt(1, 10_000) / 100.0);
+                int quantity = random.nextInt(0, 20);
+                long oldLineTotal = lines.getOrDefault(product, 0L);
+                long newLineTotal = PricingEngine.lineTotal(unitPrice, quantity);
+                if (quantity == 0) {
+                    lines.remove(product);
+                } else {
+                    lines.put(product, newLineTotal);
+                }
+                cartTotal = PricingEngine.reprice(cartTotal, oldLineTotal, newLineTotal);
+            }
+
+            BigDecimal exact = lines.values().stream()
+                    .map(line -> BigDecimal.valueOf(line, 2))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(exact, BigDecimal.valueOf(cartTotal, 2), "seed " + SEED + ", run " + run);
+        }
+    }
+
+    @Test
+    public void add_AnyOrderOfLines_SameTotal() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < 1_000; run++) {
+            List<Long> lineTotals = new ArrayList<>();
+            for (int line = random.nextInt(1, 200); line > 0; line--) {
+                lineTotals.add(PricingEngine.lineTotal(random.nextLong(1, 1_000_000), random.nextInt(1, 100)));
+            }
+            long inOrder = total(lineTotals);
+            Collections.shuffle(lineTotals, random);
+
+            assertEquals(inOrder, total(lineTotals), "seed " + SEED + ", run " + run);
+        }
+    }
+
+    @Test
+    public void toMinorUnits_RoundsHalfUpOnTheWrittenDecimal() {
+        assertEquals(29, PricingEngine.toMinorUnits(0.29));
+        assertEquals(1550, PricingEngine.toMinorUnits(15.5));
+        assertEquals(101, PricingEngine.toMinorUnits(1.005));
+        assertEquals(100, PricingEngine.toMinorUnits(1.004));
+    }
+
+    @Test
+    public void toMinorUnits_NotAFiniteNumber_ExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> PricingEngine.toMinorUnits(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> PricingEngine.toMinorUnits(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void lineTotal_NegativeQuantity_ExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> PricingEngine.lineTotal(1000, -1));
+    }
+
+    @Test
+    public void overflow_ExceptionThrownInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> PricingEngine.lineTotal(Long.MAX_VALUE / 2 + 1, 2));
+        assertThrows(ArithmeticException.class, () -> PricingEngine.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> PricingEngine.reprice(Long.MAX_VALUE, 0, 1));
+    }
+
+    private static long total(List<Long> lineTotals) {
+        long total = 0;
+        for (long lineTotal : lineTotals) {
+            total = PricingEngine.add(total, lineTotal);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,164 @@
+package yummydelivery.server.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import yummydelivery.server.dto.CartItemDeltaDTO;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.model.CartItem;
+import yummydelivery.server.model.FoodEntity;
+import yummydelivery.server.model.ShoppingCartEntity;
+import yummydelivery.server.model.UserEntity;
+import yummydelivery.server.pricing.PricingEngine;
+import yummydelivery.server.security.AuthenticationFacade;
+import yummydelivery.server.service.CartService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-concurrency;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuthenticationFacade.class, CartService.class})
+class CartConcurrencyTest {
+    private static final String EMAIL = "customer@email.com";
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 10;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long pizzaId;
+    private Long saladId;
+
+    @BeforeEach
+    void setUp() {
+        pizzaId = productRepository.save(food("Margherita", 10.0, FoodTypeEnum.PIZZA)).getId();
+        saladId = productRepository.save(food("Caesar", 7.5, FoodTypeEnum.SALAD)).getId();
+
+        UserEntity user = new UserEntity();
+        user.setFirstName("Customer");
+        user.setLastName("Customer");
+        user.setEmail(EMAIL);
+        user.setPassword("encodedPassword");
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void addItemToShoppingCart_ConcurrentAdds_NoLostUpdatesOrDuplicateRows() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Long productId = i % 2 == 0 ? pizzaId : saladId;
+            results.add(executor.submit(() -> {
+                SecurityContextHolder.getContext()
+                        .setAuthentication(new TestingAuthenticationToken(EMAIL, null, "ROLE_CUSTOMER"));
+                try {
+                    start.await();
+                    for (int j = 0; j < ADDS_PER_THREAD; j++) {
+                        cartService.addItemToShoppingCart(productId);
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int addsPerProduct = THREADS / 2 * ADDS_PER_THREAD;
+        transactionTemplate.executeWithoutResult(status -> {
+            ShoppingCartEntity cart = cartRepository.findByUserEmailWithItems(EMAIL).orElseThrow();
+            assertEquals(2, cart.getCartItems().size());
+            for (CartItem item : cart.getCartItems()) {
+                long unitPrice = PricingEngine.toMinorUnits(item.getProduct().getPrice());
+                assertEquals(addsPerProduct, item.getQuantity());
+                assertEquals(addsPerProduct * unitPrice, item.getPriceMinor());
+            }
+            assertEquals(addsPerProduct * (1000 + 750), cart.getCartPriceMinor());
+        });
+    }
+
+    @Test
+    void addItemAndApplyCartChanges_PriceChanged_BothRepriceTheWholeLine() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(EMAIL, null, "ROLE_CUSTOMER"));
+        try {
+            cartService.addItemToShoppingCart(pizzaId);
+            setPrice(pizzaId, 12.0);
+            cartService.addItemToShoppingCart(pizzaId);
+            assertCart(2, 2400);
+
+            setPrice(pizzaId, 11.0);
+            cartService.applyCartChanges(List.of(new CartItemDeltaDTO(pizzaId, 1)));
+            assertCart(3, 3300);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void setPrice(Long productId, double price) {
+        transactionTemplate.executeWithoutResult(status -> productRepository.findById(productId).orElseThrow().setPrice(price));
+    }
+
+    private void assertCart(int quantity, long priceMinor) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ShoppingCartEntity cart = cartRepository.findByUserEmailWithItems(EMAIL).orElseThrow();
+            assertEquals(1, cart.getCartItems().size());
+            assertEquals(quantity, cart.getCartItems().get(0).getQuantity());
+            assertEquals(priceMinor, cart.getCartItems().get(0).getPriceMinor());
+            assertEquals(priceMinor, cart.getCartPriceMinor());
+        });
+    }
+
+    private FoodEntity food(String name, double price, FoodTypeEnum foodType) {
+        FoodEntity food = new FoodEntity();
+        food.setName(name);
+        food.setPrice(price);
+        food.setGrams(400);
+        food.setFoodTypeEnum(foodType);
+        food.setProductType(ProductTypeEnum.FOOD);
+        food.setIngredients(List.of("Tomato"));
+        return food;
+    }
+}
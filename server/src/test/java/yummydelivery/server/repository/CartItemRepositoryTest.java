@@ -0,0 +1,112 @@
+package yummydelivery.server.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.model.CartItem;
+import yummydelivery.server.model.FoodEntity;
+import yummydelivery.server.model.UserEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class CartItemRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private Long pizzaId;
+    private Long firstCartId;
+    private Long secondCartId;
+
+    @BeforeEach
+    void setUp() {
+        FoodEntity pizza = new FoodEntity();
+        pizza.setName("Margherita");
+        pizza.setPrice(10.0);
+        pizza.setGrams(400);
+        pizza.setFoodTypeEnum(FoodTypeEnum.PIZZA);
+        pizza.setProductType(ProductTypeEnum.FOOD);
+        pizza.setIngredients(List.of("Tomato"));
+        pizzaId = entityManager.persist(pizza).getId();
+        firstCartId = entityManager.persist(user("first@email.com")).getCart().getId();
+        secondCartId = entityManager.persist(user("second@email.com")).getCart().getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void sameProductInTwoCarts_EachCartGetsItsOwnLine() {
+        cartItemRepository.insertCartItem(firstCartId, pizzaId, 1, 1000L);
+        cartItemRepository.insertCartItem(secondCartId, pizzaId, 2, 2000L);
+
+        CartItem firstLine = onlyLine(firstCartId);
+        CartItem secondLine = onlyLine(secondCartId);
+
+        assertNotEquals(firstLine.getId(), secondLine.getId());
+        assertEquals(1, firstLine.getQuantity());
+        assertEquals(2, secondLine.getQuantity());
+    }
+
+    @Test
+    void incrementQuantity_OnlyTouchesTheGivenCartsLine() {
+        cartItemRepository.insertCartItem(firstCartId, pizzaId, 1, 1000L);
+        cartItemRepository.insertCartItem(secondCartId, pizzaId, 1, 1000L);
+
+        int updated = cartItemRepository.incrementQuantity(firstCartId, pizzaId, 1, 1000L);
+        entityManager.clear();
+
+        CartItem firstLine = onlyLine(firstCartId);
+        CartItem secondLine = onlyLine(secondCartId);
+        assertEquals(1, updated);
+        assertEquals(2, firstLine.getQuantity());
+        assertEquals(2000, firstLine.getPriceMinor());
+        assertEquals(1, secondLine.getQuantity());
+        assertEquals(1000, secondLine.getPriceMinor());
+    }
+
+    @Test
+    void incrementQuantity_PriceChanged_WholeLineRepriced() {
+        cartItemRepository.insertCartItem(firstCartId, pizzaId, 2, 1600L);
+
+        cartItemRepository.incrementQuantity(firstCartId, pizzaId, 1, 1000L);
+        entityManager.clear();
+
+        CartItem line = onlyLine(firstCartId);
+        assertEquals(3, line.getQuantity());
+        assertEquals(3000, line.getPriceMinor());
+    }
+
+    @Test
+    void duplicateLineForSameCartAndProduct_Rejected() {
+        cartItemRepository.insertCartItem(firstCartId, pizzaId, 1, 1000L);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> cartItemRepository.insertCartItem(firstCartId, pizzaId, 1, 1000L));
+    }
+
+    private CartItem onlyLine(Long cartId) {
+        List<CartItem> lines = cartItemRepository.findAllByCartIdWithProduct(cartId);
+        assertEquals(1, lines.size());
+        assertEquals(pizzaId, lines.get(0).getProduct().getId());
+        return lines.get(0);
+    }
+
+    private UserEntity user(String email) {
+        UserEntity user = new UserEntity();
+        user.setFirstName("Customer");
+        user.setLastName("Customer");
+        user.setEmail(email);
+        user.setPassword("encodedPassword");
+        return user;
+    }
+}
@@ -0,0 +1,44 @@
+package yummydelivery.server.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import yummydelivery.server.dto.view.CatalogVersionView;
+import yummydelivery.server.model.CatalogVersionEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class CatalogVersionRepositoryTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Test
+    public void increment_SameSecond_LastModifiedStillMovesBySecond() {
+        entityManager.persistAndFlush(new CatalogVersionEntity(CatalogVersionEntity.ID, 7L, 0, NOW));
+
+        assertEquals(1, catalogVersionRepository.increment(CatalogVersionEntity.ID, NOW));
+        assertEquals(NOW + 1000, catalogVersionRepository.findView(CatalogVersionEntity.ID).orElseThrow().getLastModified());
+        assertEquals(1, catalogVersionRepository.increment(CatalogVersionEntity.ID, NOW + 5000));
+
+        CatalogVersionView view = catalogVersionRepository.findView(CatalogVersionEntity.ID).orElseThrow();
+        assertEquals(7L, view.getEpoch());
+        assertEquals(2, view.getVersion());
+        assertEquals(NOW + 5000, view.getLastModified());
+    }
+
+    @Test
+    public void findView_RowAlreadyLoaded_IncrementSeen() {
+        CatalogVersionEntity row = entityManager.persistAndFlush(new CatalogVersionEntity(CatalogVersionEntity.ID, 7L, 0, NOW));
+
+        catalogVersionRepository.increment(CatalogVersionEntity.ID, NOW + 2000);
+
+        assertEquals(0, row.getVersion());
+        assertEquals(1, catalogVersionRepository.findView(CatalogVersionEntity.ID).orElseThrow().getVersion());
+    }
+}
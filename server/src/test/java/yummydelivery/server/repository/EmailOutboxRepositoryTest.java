@@ -0,0 +1,69 @@
+package yummydelivery.server.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import yummydelivery.server.enums.EmailStatusEnum;
+import yummydelivery.server.model.EmailOutboxEntity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class EmailOutboxRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    public void markSent_ReleasesClaimAndLeavesQueue() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Long id = persist("a@example.com", now.plusMinutes(5));
+        Long other = persist("b@example.com", now.plusMinutes(5));
+        entityManager.flush();
+
+        emailOutboxRepository.markSent(List.of(id), now);
+        entityManager.clear();
+
+        EmailOutboxEntity mail = emailOutboxRepository.findById(id).orElseThrow();
+        assertEquals(EmailStatusEnum.SENT, mail.getStatus());
+        assertEquals(now, mail.getSentAt());
+        assertNull(mail.getClaimToken());
+        assertEquals(List.of(other), emailOutboxRepository.findAllByClaimTokenOrderById("token-1")
+                .stream().map(EmailOutboxEntity::getId).toList());
+        assertEquals(1, emailOutboxRepository.countByStatus(EmailStatusEnum.PENDING));
+    }
+
+    @Test
+    public void markAttemptFailed_ReleasesClaimAndRecordsError() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Long id = persist("a@example.com", now.plusMinutes(5));
+        entityManager.flush();
+
+        emailOutboxRepository.markAttemptFailed(id, EmailStatusEnum.FAILED, now, "550 mailbox unavailable");
+        entityManager.clear();
+
+        EmailOutboxEntity mail = emailOutboxRepository.findById(id).orElseThrow();
+        assertEquals(EmailStatusEnum.FAILED, mail.getStatus());
+        assertEquals("550 mailbox unavailable", mail.getLastError());
+        assertNull(mail.getClaimToken());
+        assertEquals(0, emailOutboxRepository.countByStatus(EmailStatusEnum.PENDING));
+    }
+
+    private Long persist(String recipient, LocalDateTime nextAttemptAt) {
+        EmailOutboxEntity mail = new EmailOutboxEntity();
+        mail.setRecipient(recipient);
+        mail.setSubject("Registration Success");
+        mail.setMessageBody("Welcome");
+        mail.setNextAttemptAt(nextAttemptAt);
+        mail.setClaimToken("token-1");
+        mail.setAttempts(1);
+        return entityManager.persist(mail).getId();
+    }
+}
@@ -0,0 +1,268 @@
+package yummydelivery.server.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import yummydelivery.server.dto.CartItemDeltaDTO;
+import yummydelivery.server.dto.ShoppingCartDTO;
+import yummydelivery.server.dto.UpdatePasswordDTO;
+import yummydelivery.server.dto.view.BeverageView;
+import yummydelivery.server.dto.view.FoodIngredientView;
+import yummydelivery.server.dto.view.FoodSummaryView;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.OrderStatusEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.RoleEnum;
+import yummydelivery.server.model.*;
+import yummydelivery.server.pricing.PricingEngine;
+import yummydelivery.server.security.AuthenticationFacade;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
+import yummydelivery.server.service.CartService;
+import yummydelivery.server.service.OrderService;
+import yummydelivery.server.service.ProductPopularityService;
+import yummydelivery.server.service.UserService;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AuthenticationFacade.class, CartService.class, UserService.class, OrderService.class})
+class FetchPlanStatementCountTest {
+    private static final String EMAIL = "customer@email.com";
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private OrderService orderService;
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+    @MockBean
+    private PrincipalCache principalCache;
+    @MockBean
+    private TokenVersionService tokenVersionService;
+    @MockBean
+    private ProductPopularityService productPopularity;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        RoleEntity customerRole = entityManager.persist(RoleEntity.builder().name(RoleEnum.CUSTOMER).build());
+        FoodEntity margherita = entityManager.persist(food("Margherita", FoodTypeEnum.PIZZA, "Tomato", "Mozzarella"));
+        FoodEntity capricciosa = entityManager.persist(food("Capricciosa", FoodTypeEnum.PIZZA, "Ham", "Mushrooms"));
+        entityManager.persist(food("Diavola", FoodTypeEnum.PIZZA, "Salami"));
+
+        UserEntity user = new UserEntity();
+        user.setFirstName("Customer");
+        user.setLastName("Customer");
+        user.setEmail(EMAIL);
+        user.setPassword("encodedPassword");
+        user.setRoles(Set.of(customerRole));
+        user.getCart().getCartItems().add(cartItem(user.getCart(), margherita, 2));
+        user.getCart().getCartItems().add(cartItem(user.getCart(), capricciosa, 1));
+        user.getCart().setCartPriceMinor(3000);
+        entityManager.persist(user);
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(EMAIL, null, "ROLE_CUSTOMER"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authLookup_LoadsUserAndRolesInOneStatement() {
+        UserEntity user = userRepository.findWithRolesByEmail(EMAIL).orElseThrow();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(Hibernate.isInitialized(user.getRoles()));
+        assertFalse(Hibernate.isInitialized(user.getCart()));
+    }
+
+    @Test
+    void cartView_LoadsCartItemsAndProductsInOneStatement() {
+        ShoppingCartDTO cart = cartService.getUserCart();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, cart.getItems().size());
+        cart.getItems().forEach(item -> assertNotNull(item.getProduct().getName()));
+    }
+
+    @Test
+    void cartSync_SingleProductLookupAndOneCartWrite() {
+        Long margheritaId = productRepository.findByName("Margherita").orElseThrow().getId();
+        Long diavolaId = productRepository.findByName("Diavola").orElseThrow().getId();
+        entityManager.clear();
+        statistics.clear();
+
+        ShoppingCartDTO cart = cartService.applyCartChanges(List.of(
+                new CartItemDeltaDTO(margheritaId, 1),
+                new CartItemDeltaDTO(diavolaId, 3)));
+        entityManager.flush();
+
+        // cart id, cart lock, cart lines, products, then the line update, the new line and the cart price
+        assertEquals(7, statistics.getPrepareStatementCount());
+        assertEquals(3, cart.getItems().size());
+        assertEquals(70.0, cart.getCartPrice());
+    }
+
+    @Test
+    void passwordChange_DoesNotLoadCartGraph() {
+        UpdatePasswordDTO dto = new UpdatePasswordDTO();
+        dto.setOldPassword("password");
+        dto.setNewPassword("newPassword");
+        dto.setRepeatNewPassword("newPassword");
+        when(passwordEncoder.matches(any(), any())).thenReturn(true);
+        when(passwordEncoder.encode("newPassword")).thenReturn("encodedNewPassword");
+
+        userService.updateUserPassword(dto);
+        entityManager.flush();
+
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void menuPage_TwoStatementsRegardlessOfPageSize() {
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        List<FoodSummaryView> foods = productRepository.findFoodSummariesByFoodType(FoodTypeEnum.PIZZA, pageRequest);
+        List<FoodIngredientView> ingredients = productRepository
+                .findIngredientsByFoodIdIn(foods.stream().map(FoodSummaryView::getId).toList());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, foods.size());
+        assertEquals(3, foods.get(0).getTotalCount());
+        assertEquals(4, ingredients.size());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void foodsById_ProjectionInOneStatement() {
+        List<Long> ids = productRepository.findFoodIdsByFoodType(FoodTypeEnum.PIZZA);
+        statistics.clear();
+
+        List<FoodSummaryView> foods = productRepository.findFoodSummariesByIdIn(ids);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, foods.size());
+        assertEquals(0, foods.get(0).getTotalCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void beverageMenuPage_ProjectionWithoutEntityLoads() {
+        Page<BeverageView> beverages = productRepository.findAllBeverageViews(PageRequest.of(0, 6));
+
+        assertTrue(beverages.isEmpty());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void foodDetails_LoadsIngredientsInOneStatement() {
+        Long foodId = productRepository.findByName("Margherita").orElseThrow().getId();
+        entityManager.clear();
+        statistics.clear();
+
+        FoodEntity food = productRepository.findFoodWithIngredientsById(foodId).orElseThrow();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of("Tomato", "Mozzarella"), food.getIngredients());
+    }
+
+    @Test
+    void checkout_DoesNotLoadOrderHistory() {
+        AddressEntity address = entityManager.persist(AddressEntity.builder()
+                .city("Sofia").streetName("Vitosha").streetNumber("12").phoneNumber("0888123456").build());
+        UserEntity user = userRepository.findByEmail(EMAIL).orElseThrow();
+        for (int i = 0; i < 5; i++) {
+            OrderEntity previousOrder = new OrderEntity();
+            previousOrder.setOrderCostMinor(1000);
+            previousOrder.setStatus(OrderStatusEnum.DELIVERED);
+            previousOrder.setDeliveryAddress(address);
+            previousOrder.setUserId(user.getId());
+            entityManager.persist(previousOrder);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        orderService.createOrder(address.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(0, statistics.getEntityStatistics(OrderEntity.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        List<OrderEntity> orders = orderRepository.findLatestByUserId(user.getId(), PageRequest.of(0, 10)).getContent();
+        assertEquals(6, orders.size());
+        OrderEntity newOrder = orders.stream()
+                .filter(order -> order.getStatus() == OrderStatusEnum.PROCESSING)
+                .findFirst().orElseThrow();
+        assertEquals(3000, newOrder.getOrderCostMinor());
+        assertEquals(2, newOrder.getOrderedProducts().size());
+        ShoppingCartEntity cart = cartRepository.findByUserEmailWithItems(EMAIL).orElseThrow();
+        assertTrue(cart.getCartItems().isEmpty());
+        assertEquals(0, cart.getCartPriceMinor());
+    }
+
+    private FoodEntity food(String name, FoodTypeEnum foodType, String... ingredients) {
+        FoodEntity food = new FoodEntity();
+        food.setName(name);
+        food.setPrice(10.0);
+        food.setGrams(400);
+        food.setFoodTypeEnum(foodType);
+        food.setProductType(ProductTypeEnum.FOOD);
+        food.setIngredients(List.of(ingredients));
+        return food;
+    }
+
+    private CartItem cartItem(ShoppingCartEntity cart, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setPriceMinor(PricingEngine.lineTotal(PricingEngine.toMinorUnits(product.getPrice()), quantity));
+        return cartItem;
+    }
+}
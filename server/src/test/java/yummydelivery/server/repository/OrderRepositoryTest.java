@@ -0,0 +1,94 @@
+package yummydelivery.server.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import yummydelivery.server.enums.OrderStatusEnum;
+import yummydelivery.server.model.OrderEntity;
+import yummydelivery.server.model.UserEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class OrderRepositoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 8, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Long firstUserId;
+    private Long secondUserId;
+
+    @BeforeEach
+    void setUp() {
+        firstUserId = entityManager.persist(user("first@email.com")).getId();
+        secondUserId = entityManager.persist(user("second@email.com")).getId();
+    }
+
+    @Test
+    public void historyPages_OnlyOwnOrdersNewestFirst() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(0, persist(firstUserId, NOW.plusMinutes(i / 2)));
+            persist(secondUserId, NOW.plusMinutes(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> seen = new ArrayList<>();
+        Slice<OrderEntity> page = orderRepository.findLatestByUserId(firstUserId, PageRequest.of(0, 3));
+        while (true) {
+            page.getContent().forEach(order -> seen.add(order.getId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            OrderEntity last = page.getContent().get(page.getNumberOfElements() - 1);
+            page = orderRepository.findByUserIdBefore(firstUserId, last.getCreatedOn(), last.getId(), PageRequest.of(0, 3));
+        }
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void findAllByUserId_CountsOnlyOwnOrders() {
+        persist(firstUserId, NOW);
+        persist(firstUserId, NOW.plusMinutes(1));
+        persist(secondUserId, NOW);
+        entityManager.flush();
+
+        assertEquals(2, orderRepository.findAllByUserId(firstUserId, PageRequest.of(0, 6)).getTotalElements());
+    }
+
+    private Long persist(Long userId, LocalDateTime createdOn) {
+        OrderEntity order = new OrderEntity();
+        order.setUserId(userId);
+        order.setOrderCostMinor(1000);
+        order.setStatus(OrderStatusEnum.DELIVERED);
+        Long id = entityManager.persistAndFlush(order).getId();
+        entityManager.getEntityManager()
+                .createQuery("UPDATE OrderEntity o SET o.createdOn = :createdOn WHERE o.id = :id")
+                .setParameter("createdOn", createdOn)
+                .setParameter("id", id)
+                .executeUpdate();
+        return id;
+    }
+
+    private UserEntity user(String email) {
+        UserEntity user = new UserEntity();
+        user.setFirstName("Customer");
+        user.setLastName("Customer");
+        user.setEmail(email);
+        user.setPassword("encodedPassword");
+        return user;
+    }
+}
@@ -0,0 +1,71 @@
+package yummydelivery.server.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import yummydelivery.server.dto.view.ProductSalesView;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.model.ProductSalesEntity;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ProductSalesRepositoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 8, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductSalesRepository salesRepository;
+
+    @Test
+    public void addQuantity_OnlyExistingBucketUpdated() {
+        persist(1L, ProductTypeEnum.FOOD, NOW, 2);
+        entityManager.flush();
+
+        assertEquals(1, salesRepository.addQuantity(1L, NOW, 3));
+        assertEquals(0, salesRepository.addQuantity(1L, NOW.plusMinutes(10), 3));
+        entityManager.clear();
+
+        assertEquals(5, salesRepository.findAll().get(0).getQuantity());
+    }
+
+    @Test
+    public void sumQuantitiesSince_TotalsPerWindow() {
+        persist(1L, ProductTypeEnum.FOOD, NOW, 2);
+        persist(1L, ProductTypeEnum.FOOD, NOW.minusHours(3), 5);
+        persist(1L, ProductTypeEnum.FOOD, NOW.minusDays(3), 7);
+        persist(1L, ProductTypeEnum.FOOD, NOW.minusDays(9), 100);
+        persist(2L, ProductTypeEnum.BEVERAGE, NOW.minusMinutes(20), 1);
+        entityManager.flush();
+
+        List<ProductSalesView> totals = salesRepository.sumQuantitiesSince(NOW.minusMinutes(50), NOW.minusDays(1), NOW.minusDays(7))
+                .stream().sorted(Comparator.comparing(ProductSalesView::getProductId)).toList();
+
+        assertEquals(2, totals.size());
+        assertEquals(List.of(2L, 7L, 14L), List.of(totals.get(0).getLastHour(), totals.get(0).getLastDay(), totals.get(0).getLastWeek()));
+        assertEquals(ProductTypeEnum.BEVERAGE, totals.get(1).getProductType());
+        assertEquals(List.of(1L, 1L, 1L), List.of(totals.get(1).getLastHour(), totals.get(1).getLastDay(), totals.get(1).getLastWeek()));
+    }
+
+    @Test
+    public void deleteBucketsBefore_DropsOnlyOldBuckets() {
+        persist(1L, ProductTypeEnum.FOOD, NOW, 2);
+        persist(1L, ProductTypeEnum.FOOD, NOW.minusDays(8), 5);
+        entityManager.flush();
+
+        assertEquals(1, salesRepository.deleteBucketsBefore(NOW.minusDays(7)));
+        entityManager.clear();
+
+        assertEquals(List.of(NOW), salesRepository.findAll().stream().map(ProductSalesEntity::getBucketStart).toList());
+    }
+
+    private void persist(Long productId, ProductTypeEnum productType, LocalDateTime bucketStart, long quantity) {
+        entityManager.persist(new ProductSalesEntity(null, productId, productType, bucketStart, quantity));
+    }
+}
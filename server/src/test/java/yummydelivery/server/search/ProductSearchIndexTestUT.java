@@ -0,0 +1,231 @@
+package yummydelivery.server.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import yummydelivery.server.dto.ProductSearchHitDTO;
+import yummydelivery.server.dto.SearchResultDTO;
+import yummydelivery.server.dto.SuggestionDTO;
+import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.PriceBandEnum;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.events.CatalogVersionChangedEvent;
+import yummydelivery.server.model.BeverageEntity;
+import yummydelivery.server.model.FoodEntity;
+import yummydelivery.server.repository.ProductRepository;
+import yummydelivery.server.service.ProductPopularityService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTestUT {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductPopularityService popularity;
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchIndex = new ProductSearchIndex(productRepository, popularity, new SimpleMeterRegistry());
+        when(productRepository.findAllFoodsWithIngredients()).thenReturn(List.of(
+                food(1L, "Pizza Marinara", FoodTypeEnum.PIZZA, 9.5, "Shrimps, tomato sauce, garlic"),
+                food(2L, "Margherita", FoodTypeEnum.PIZZA, 8.0, "Tomato sauce, mozzarella"),
+                food(3L, "Kob Salad", FoodTypeEnum.SALAD, 12.0, "Shrimp, Fresh tomato, Onion, Egg")));
+        when(productRepository.findAllBeverages()).thenReturn(List.of(
+                beverage(4L, "Coca Cola", 2.5, 330),
+                beverage(5L, "Orange Juice", 4.0, 500)));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    public void search_EveryTermMustMatch_FillerWordsAndPluralsIgnored() {
+        SearchResultDTO result = searchIndex.search("Pizza with shrimp", SearchFilters.none(), 0);
+
+        assertEquals(List.of(1L), ids(result));
+        assertEquals(1, result.getTotalElements());
+    }
+
+    @Test
+    public void search_NameMatchesRankAboveIngredientMatches() {
+        SearchResultDTO result = searchIndex.search("tomatoes", SearchFilters.none(), 0);
+
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(ids(result)));
+        assertEquals(3, result.getTotalElements());
+        assertEquals("Kob Salad", result.getContent().get(0).getName());
+    }
+
+    @Test
+    public void search_FacetsCountedWithoutTheirOwnFilter() {
+        SearchResultDTO result = searchIndex.search("tomato",
+                new SearchFilters(null, FoodTypeEnum.PIZZA, null, null), 0);
+
+        assertEquals(Set.of(1L, 2L), Set.copyOf(ids(result)));
+        assertEquals(Map.of("PIZZA", 2L, "SALAD", 1L), result.getFacets().get("foodType"));
+        assertEquals(Map.of("FROM_5_TO_10", 2L), result.getFacets().get("priceBand"));
+    }
+
+    @Test
+    public void search_EmptyQuery_BrowsesByBeverageSize() {
+        SearchResultDTO result = searchIndex.search("",
+                new SearchFilters(ProductTypeEnum.BEVERAGE, null, PriceBandEnum.UNDER_5, 500), 0);
+
+        assertEquals(List.of(5L), ids(result));
+        assertEquals(Map.of("330", 1L, "500", 1L), result.getFacets().get("milliliters"));
+        assertEquals(500, result.getContent().get(0).getMilliliters());
+    }
+
+    @Test
+    public void search_UnknownTerm_NoHits() {
+        SearchResultDTO result = searchIndex.search("pizza sushi", SearchFilters.none(), 0);
+
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(0, result.getTotalElements());
+    }
+
+    @Test
+    public void onCatalogChanged_UpdatedProductReindexedWithoutFullReload() {
+        FoodEntity renamed = food(2L, "Margherita Bianca", FoodTypeEnum.PIZZA, 8.0, "Mozzarella, basil");
+        when(productRepository.findFoodWithIngredientsById(2L)).thenReturn(Optional.of(renamed));
+
+        searchIndex.onCatalogChanged(CatalogChangedEvent.food(2L, Set.of(FoodTypeEnum.PIZZA), CatalogChangedEvent.ChangeType.UPDATED));
+
+        assertEquals(List.of(2L), ids(searchIndex.search("bianca", SearchFilters.none(), 0)));
+        assertEquals(Set.of(1L, 3L), Set.copyOf(ids(searchIndex.search("tomato", SearchFilters.none(), 0))));
+        verify(productRepository, times(1)).findAllFoodsWithIngredients();
+    }
+
+    @Test
+    public void onCatalogChanged_DeletedProductRemoved() {
+        searchIndex.onCatalogChanged(CatalogChangedEvent.beverage(4L, CatalogChangedEvent.ChangeType.DELETED));
+
+        assertTrue(searchIndex.search("cola", SearchFilters.none(), 0).getContent().isEmpty());
+        assertEquals(4, searchIndex.size());
+    }
+
+    @Test
+    public void onCatalogVersionChanged_ChangesFromOtherNodesPickedUp() {
+        when(productRepository.findAllFoodsWithIngredients()).thenReturn(List.of(
+                food(1L, "Pizza Marinara", FoodTypeEnum.PIZZA, 9.5, "Shrimps, tomato sauce, garlic"),
+                food(2L, "Margherita", FoodTypeEnum.PIZZA, 11.0, "Tomato sauce, mozzarella"),
+                food(3L, "Kob Salad", FoodTypeEnum.SALAD, 12.0, "Shrimp, Fresh tomato, Onion, Egg")));
+        when(productRepository.findAllBeverages()).thenReturn(List.of(
+                beverage(5L, "Orange Juice", 4.0, 500),
+                beverage(6L, "Cola Zero", 2.5, 330)));
+
+        searchIndex.onCatalogVersionChanged(new CatalogVersionChangedEvent(3));
+
+        assertEquals(List.of(6L), ids(searchIndex.search("cola", SearchFilters.none(), 0)));
+        assertEquals(Map.of("FROM_5_TO_10", 1L, "FROM_10_TO_20", 2L),
+                searchIndex.search("tomato", SearchFilters.none(), 0).getFacets().get("priceBand"));
+        assertEquals(5, searchIndex.size());
+    }
+
+    @Test
+    public void search_PageBeyondResults_EmptyContentWithTotal() {
+        SearchResultDTO result = searchIndex.search("", SearchFilters.none(), 3);
+
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(5, result.getTotalElements());
+    }
+
+    @Test
+    public void suggest_MatchesWordStartsOfNamesAndIngredients() {
+        assertEquals(List.of("Margherita", "Pizza Marinara"), texts(searchIndex.suggest("mar", 8)));
+        assertEquals(List.of("mozzarella"), texts(searchIndex.suggest("Mozz", 8)));
+        assertEquals(List.of(), searchIndex.suggest("arinara", 8));
+    }
+
+    @Test
+    public void suggest_MostOrderedFirst_RankingFollowsPopularityRefresh() {
+        when(popularity.sold(1L, SalesWindowEnum.WEEK)).thenReturn(40L);
+        when(popularity.sold(2L, SalesWindowEnum.WEEK)).thenReturn(3L);
+        when(popularity.version()).thenReturn(1L);
+
+        List<SuggestionDTO> suggestions = searchIndex.suggest("mar", 1);
+
+        assertEquals(List.of("Pizza Marinara"), texts(suggestions));
+        assertEquals(1L, suggestions.get(0).getProductId());
+        assertEquals(ProductTypeEnum.FOOD, suggestions.get(0).getProductType());
+    }
+
+    @Test
+    public void suggest_FollowsCatalogChanges() {
+        assertEquals(List.of("Coca Cola"), texts(searchIndex.suggest("cola", 8)));
+        when(productRepository.findById(6L)).thenReturn(Optional.of(beverage(6L, "Cola Zero", 2.5, 330)));
+
+        searchIndex.onCatalogChanged(CatalogChangedEvent.beverage(4L, CatalogChangedEvent.ChangeType.DELETED));
+        searchIndex.onCatalogChanged(CatalogChangedEvent.beverage(6L, CatalogChangedEvent.ChangeType.ADDED));
+
+        assertEquals(List.of("Cola Zero"), texts(searchIndex.suggest("cola", 8)));
+    }
+
+    @Test
+    public void suggest_FollowsChangesFromOtherNodes() {
+        assertEquals(List.of("Coca Cola"), texts(searchIndex.suggest("cola", 8)));
+        when(productRepository.findAllBeverages()).thenReturn(List.of(
+                beverage(5L, "Orange Juice", 4.0, 500),
+                beverage(6L, "Cola Zero", 2.5, 330)));
+
+        searchIndex.onCatalogVersionChanged(new CatalogVersionChangedEvent(3));
+
+        assertEquals(List.of("Cola Zero"), texts(searchIndex.suggest("cola", 8)));
+    }
+
+    @Test
+    public void suggest_SharedVersionMovedWithoutProductChanges_SuggestionsKept() {
+        searchIndex.suggest("cola", 8);
+
+        searchIndex.onCatalogVersionChanged(new CatalogVersionChangedEvent(3));
+        searchIndex.suggest("cola", 8);
+
+        verify(popularity, times(5)).sold(anyLong(), eq(SalesWindowEnum.WEEK));
+    }
+
+    @Test
+    public void ingredientPhrases_SplitsListedItems() {
+        assertEquals(Set.of("shrimp", "fresh tomato", "onion", "egg"),
+                ProductSearchIndex.ingredientPhrases(List.of("Shrimp, Fresh tomato, Onion and Egg.")));
+    }
+
+    private static List<String> texts(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getText).toList();
+    }
+
+    private static List<Long> ids(SearchResultDTO result) {
+        return result.getContent().stream().map(ProductSearchHitDTO::getId).toList();
+    }
+
+    private static FoodEntity food(Long id, String name, FoodTypeEnum type, double price, String ingredients) {
+        FoodEntity food = new FoodEntity();
+        food.setId(id);
+        food.setName(name);
+        food.setFoodTypeEnum(type);
+        food.setPrice(price);
+        food.setGrams(400);
+        food.setProductType(ProductTypeEnum.FOOD);
+        food.setIngredients(List.of(ingredients));
+        return food;
+    }
+
+    private static BeverageEntity beverage(Long id, String name, double price, int milliliters) {
+        BeverageEntity beverage = new BeverageEntity();
+        beverage.setId(id);
+        beverage.setName(name);
+        beverage.setPrice(price);
+        beverage.setMilliliters(milliliters);
+        beverage.setProductType(ProductTypeEnum.BEVERAGE);
+        return beverage;
+    }
+}
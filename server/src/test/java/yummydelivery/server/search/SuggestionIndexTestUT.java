@@ -0,0 +1,56 @@
+package yummydelivery.server.search;
+
+import org.junit.jupiter.api.Test;
+import yummydelivery.server.enums.ProductTypeEnum;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionIndexTestUT {
+    private final SuggestionIndex index = SuggestionIndex.build(List.of(
+            product(1L, "Pizza Margherita", 12),
+            product(2L, "Pizza Marinara", 30),
+            product(3L, "Margarita Cocktail", 0),
+            new Suggestion("marinated tuna", null, null, null, 30),
+            product(4L, "Pasta Pomodoro", 5)), 1, 1);
+
+    @Test
+    public void find_AnyWordStart_MostPopularFirst() {
+        assertEquals(List.of("Pizza Marinara", "marinated tuna", "Pizza Margherita", "Margarita Cocktail"),
+                texts(index.find("mar", 10)));
+    }
+
+    @Test
+    public void find_LimitKeepsBest() {
+        assertEquals(List.of("Pizza Marinara", "marinated tuna"), texts(index.find("Mar", 2)));
+    }
+
+    @Test
+    public void find_SeveralWordsMatchingPrefix_ReturnedOnce() {
+        assertEquals(List.of("Pizza Marinara", "Pizza Margherita", "Pasta Pomodoro"), texts(index.find("p", 10)));
+    }
+
+    @Test
+    public void find_MultiWordPrefixAndPunctuation() {
+        assertEquals(List.of("Pizza Margherita"), texts(index.find("pizza  marg", 10)));
+        assertEquals(List.of(), index.find("  ", 10));
+        assertEquals(List.of(), index.find("izza", 10));
+    }
+
+    @Test
+    public void isCurrent_ComparesBothVersions() {
+        assertTrue(index.isCurrent(1, 1));
+        assertFalse(index.isCurrent(2, 1));
+        assertFalse(index.isCurrent(1, 2));
+        assertEquals(10, index.keyCount());
+    }
+
+    private static Suggestion product(Long id, String name, long popularity) {
+        return new Suggestion(name, id, ProductTypeEnum.FOOD, null, popularity);
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
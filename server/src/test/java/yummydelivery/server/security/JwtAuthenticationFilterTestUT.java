@@ -0,0 +1,96 @@
+package yummydelivery.server.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTestUT {
+    @Mock
+    private JwtTokenProvider tokenProvider;
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private PrincipalCache principalCache;
+    @Mock
+    private TokenVersionService tokenVersionService;
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    private final VerifiedJwt verifiedJwt =
+            new VerifiedJwt("user@email.com", List.of("ROLE_CUSTOMER"), 0, null);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+        when(tokenProvider.parseVerifiedToken("token")).thenReturn(Optional.of(verifiedJwt));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void doFilter_StatelessAuth_AuthenticatesFromClaimsWithoutLoadingUser() throws Exception {
+        when(tokenVersionService.isCurrent(verifiedJwt)).thenReturn(true);
+
+        filter.doFilter(requestWithToken(), new MockHttpServletResponse(), filterChain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("user@email.com", authentication.getName());
+        assertEquals(List.of("ROLE_CUSTOMER"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userDetailsService, principalCache);
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    public void doFilter_RevokedTokenVersion_NotAuthenticated() throws Exception {
+        when(tokenVersionService.isCurrent(verifiedJwt)).thenReturn(false);
+
+        filter.doFilter(requestWithToken(), new MockHttpServletResponse(), filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    public void doFilter_StatelessAuthDisabled_UsesPrincipalCache() throws Exception {
+        ReflectionTestUtils.setField(filter, "statelessAuth", false);
+        UserPrincipal principal = new UserPrincipal("user@email.com", "encoded", List.of(), 0);
+        when(tokenVersionService.isCurrent(verifiedJwt)).thenReturn(true);
+        when(principalCache.get(eq("user@email.com"), any())).thenReturn(principal);
+
+        filter.doFilter(requestWithToken(), new MockHttpServletResponse(), filterChain);
+
+        assertSame(principal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    private MockHttpServletRequest requestWithToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.setServletPath("/api/v1/orders");
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+}
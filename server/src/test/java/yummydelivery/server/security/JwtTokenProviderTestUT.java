@@ -0,0 +1,71 @@
+package yummydelivery.server.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTestUT {
+    private static final String SECRET = "c2VjcmV0LWtleS11c2VkLW9ubHktYnktdGhlLWp3dC10b2tlbi1wcm92aWRlci10ZXN0cw==";
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 600000);
+    }
+
+    @Test
+    public void parseVerifiedToken_ValidToken_ReturnsSubjectAndRoles() {
+        String token = tokenProvider.generateJwtToken(authenticationFor("user@email.com", "ROLE_CUSTOMER"));
+
+        Optional<VerifiedJwt> verified = tokenProvider.parseVerifiedToken(token);
+
+        assertTrue(verified.isPresent());
+        assertEquals("user@email.com", verified.get().getSubject());
+        assertEquals(List.of("ROLE_CUSTOMER"), verified.get().getRoles());
+        assertNotNull(verified.get().getExpiration());
+        assertEquals(0, verified.get().getTokenVersion());
+    }
+
+    @Test
+    public void parseVerifiedToken_CarriesTokenVersion() {
+        UserPrincipal principal = new UserPrincipal("user@email.com", "encoded",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), 3);
+        String token = tokenProvider.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        assertEquals(3, tokenProvider.parseVerifiedToken(token).orElseThrow().getTokenVersion());
+    }
+
+    @Test
+    public void parseVerifiedToken_TamperedToken_ReturnsEmpty() {
+        String token = tokenProvider.generateJwtToken(authenticationFor("user@email.com", "ROLE_CUSTOMER"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(tokenProvider.parseVerifiedToken(tampered).isEmpty());
+    }
+
+    @Test
+    public void parseVerifiedToken_ExpiredToken_ReturnsEmpty() {
+        JwtTokenProvider expiringProvider = new JwtTokenProvider(SECRET, -1000);
+        String token = expiringProvider.generateJwtToken(authenticationFor("user@email.com", "ROLE_CUSTOMER"));
+
+        assertTrue(tokenProvider.parseVerifiedToken(token).isEmpty());
+    }
+
+    @Test
+    public void parseVerifiedToken_Garbage_ReturnsEmpty() {
+        assertTrue(tokenProvider.parseVerifiedToken("not.a.token").isEmpty());
+    }
+
+    private UsernamePasswordAuthenticationToken authenticationFor(String email, String role) {
+        UserPrincipal principal = new UserPrincipal(email, "encoded", List.of(new SimpleGrantedAuthority(role)), 0);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,60 @@
+package yummydelivery.server.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTestUT {
+    private SimpleMeterRegistry meterRegistry;
+    private PrincipalCache principalCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new PrincipalCache(meterRegistry, 16, 300000, 600000);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void get_RepeatedLookup_LoadedOnce() {
+        UserDetails first = principalCache.get("user@email.com", () -> load("user@email.com"));
+        UserDetails second = principalCache.get("user@email.com", () -> load("user@email.com"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, principalCache.hitRatio());
+        assertEquals(0.5, meterRegistry.get("app.cache.hit.ratio").tag("cache", "principals").gauge().value());
+    }
+
+    @Test
+    public void invalidate_NextLookupReloadsPrincipal() {
+        principalCache.get("user@email.com", () -> load("user@email.com"));
+        principalCache.invalidate("user@email.com");
+        principalCache.get("user@email.com", () -> load("user@email.com"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void get_TtlCappedByTokenExpiration() throws InterruptedException {
+        principalCache = new PrincipalCache(new SimpleMeterRegistry(), 16, 300000, 20);
+
+        principalCache.get("user@email.com", () -> load("user@email.com"));
+        Thread.sleep(40);
+        principalCache.get("user@email.com", () -> load("user@email.com"));
+
+        assertEquals(2, loads.get());
+    }
+
+    private UserDetails load(String email) {
+        loads.incrementAndGet();
+        return new UserPrincipal(email, "encoded", List.of(), 0);
+    }
+}
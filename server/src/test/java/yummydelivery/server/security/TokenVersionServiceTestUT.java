@@ -0,0 +1,59 @@
+package yummydelivery.server.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import yummydelivery.server.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenVersionServiceTestUT {
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenVersionService = new TokenVersionService(userRepository, new SimpleMeterRegistry(), 16, 60000);
+    }
+
+    @Test
+    public void isCurrent_MatchingVersion_LookedUpOnce() {
+        when(userRepository.findTokenVersionByEmail("user@email.com")).thenReturn(Optional.of(0));
+
+        assertTrue(tokenVersionService.isCurrent(token(0)));
+        assertTrue(tokenVersionService.isCurrent(token(0)));
+
+        verify(userRepository, times(1)).findTokenVersionByEmail("user@email.com");
+    }
+
+    @Test
+    public void isCurrent_AfterPasswordChange_OldTokenRejected() {
+        when(userRepository.findTokenVersionByEmail("user@email.com")).thenReturn(Optional.of(0), Optional.of(1));
+
+        assertTrue(tokenVersionService.isCurrent(token(0)));
+        tokenVersionService.invalidate("user@email.com");
+
+        assertFalse(tokenVersionService.isCurrent(token(0)));
+        assertTrue(tokenVersionService.isCurrent(token(1)));
+    }
+
+    @Test
+    public void isCurrent_UnknownUser_Rejected() {
+        when(userRepository.findTokenVersionByEmail("user@email.com")).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersionService.isCurrent(token(0)));
+    }
+
+    private VerifiedJwt token(int version) {
+        return new VerifiedJwt("user@email.com", List.of("ROLE_CUSTOMER"), version, null);
+    }
+}
@@ -65,7 +65,7 @@ class AuthServiceTestUT {
         authService.signUpUser(signUpDTO);
 
         verify(userRepository, times(1)).save(any());
-        verify(emailService, times(1)).sendEmail(any());
+        verify(emailService, times(1)).queueEmail(any());
     }
 
     @Test
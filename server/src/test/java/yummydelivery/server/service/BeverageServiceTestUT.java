@@ -1,18 +1,23 @@
 package yummydelivery.server.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.cache.MenuCache;
 import yummydelivery.server.dto.BeverageDTO.BeverageDTO;
 import yummydelivery.server.dto.view.BeverageView;
 import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
 import yummydelivery.server.exceptions.BeverageNotFoundException;
 import yummydelivery.server.exceptions.InvalidProductTypeException;
 import yummydelivery.server.exceptions.ProductNotFoundException;
@@ -22,7 +27,6 @@ import yummydelivery.server.model.Product;
 import yummydelivery.server.repository.ProductRepository;
 import yummydelivery.server.utils.CommonUtils;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,8 +42,17 @@ class BeverageServiceTestUT {
     @Mock
     private CloudinaryService cloudinaryService;
     @Mock
+    private ProductImagePipeline imagePipeline;
+    @Mock
     private CommonUtils utils;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private MenuCache menuCache = new MenuCache(new SimpleMeterRegistry(), 16, 0);
+
+    @Mock
+    private ProductPopularityService popularity;
     @InjectMocks
     private BeverageService beverageService;
 
@@ -81,16 +94,8 @@ class BeverageServiceTestUT {
         beverage.setProductType(ProductTypeEnum.BEVERAGE);
         beverage.setMilliliters(50);
 
-        BeverageView expectedBeverageView = new BeverageView();
-        expectedBeverageView.setId(beverage.getId());
-        expectedBeverageView.setName(beverage.getName());
-        expectedBeverageView.setPrice(beverage.getPrice());
-        expectedBeverageView.setImageURL(beverage.getImageURL());
-        expectedBeverageView.setMilliliters(beverage.getMilliliters());
-
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(beverage));
-        when(modelMapper.map(beverage, BeverageView.class)).thenReturn(expectedBeverageView);
 
         BeverageView beverageView = beverageService.getBeverageById(productId);
 
@@ -158,13 +163,16 @@ class BeverageServiceTestUT {
 
         when(utils.productWithThisNameExist(dto.getName())).thenReturn(false);
         when(modelMapper.map(dto, BeverageEntity.class)).thenReturn(beverage);
-        when(cloudinaryService.uploadImage(image, "imageFileName")).thenReturn(cloudinaryURL);
+
+        when(cloudinaryService.placeholderImageUrl()).thenReturn("placeholderURL");
 
         beverageService.addBeverage(dto, image);
 
+        assertEquals("placeholderURL", beverage.getImageURL());
         verify(productRepository, times(1)).save(beverage);
         verify(cloudinaryService, times(1)).validateImageFile(image);
-        verify(cloudinaryService, times(1)).uploadImage(image, dto.getName());
+        verify(imagePipeline, times(1)).checkCapacity();
+        verify(imagePipeline, times(1)).submit(eq(10L), eq(dto.getName()), eq(image), any());
     }
 
     @Test
@@ -195,6 +203,23 @@ class BeverageServiceTestUT {
         assertThrows(BeverageNotFoundException.class, () -> beverageService.updateBeverage(productId, dto, any()));
     }
 
+    @Test
+    public void getAllBeveragesByPopularity_PageInRollupOrder() {
+        List<Long> beverageIds = List.of(1L, 2L, 3L);
+        when(productRepository.findAllBeverageIds()).thenReturn(beverageIds);
+        when(popularity.sortByUnitsSold(beverageIds, SalesWindowEnum.WEEK)).thenReturn(List.of(3L, 1L, 2L));
+        when(productRepository.findBeverageViewsByIdIn(List.of(3L, 1L, 2L))).thenReturn(List.of(
+                new BeverageView(1L, "Water", 1.5, null, null, null, 500),
+                new BeverageView(2L, "Cola", 2.5, null, null, null, 330),
+                new BeverageView(3L, "Lemonade", 3.0, null, null, null, 330)));
+
+        Page<BeverageView> resultPage = beverageService.getAllBeveragesByPopularity(0);
+
+        assertEquals(List.of("Lemonade", "Water", "Cola"), resultPage.getContent().stream().map(BeverageView::getName).toList());
+        assertEquals(3, resultPage.getTotalElements());
+        verify(productRepository, never()).findAllBeverageViews(any());
+    }
+
     @Test
     public void updateBeverage_InvalidProductType_ExceptionThrown() {
         Long productId = 10L;
@@ -237,19 +262,18 @@ class BeverageServiceTestUT {
         assertEquals(dto.getMilliliters(), product.getMilliliters());
         assertEquals(dto.getPrice(), product.getPrice());
         verify(cloudinaryService, never()).validateImageFile(any());
-        verify(cloudinaryService, never()).uploadImage(any(), any());
+        verify(imagePipeline, never()).submit(any(), any(), any(), any());
         verify(productRepository, times(1)).save(product);
     }
 
     @Test
-    public void updateBeverage_ImageIsProvided_UpdateImageURL_Success() {
+    public void updateBeverage_ImageIsProvided_KeepsCurrentImageUntilUploadFinishes() {
         Long productId = 10L;
         BeverageDTO dto = new BeverageDTO();
         dto.setPrice(10.00);
         dto.setMilliliters(50);
         dto.setName("newBev");
 
-        String cloudURL = "CloudUrl";
         BeverageEntity product = new BeverageEntity();
         product.setId(productId);
         product.setProductType(ProductTypeEnum.BEVERAGE);
@@ -263,62 +287,34 @@ class BeverageServiceTestUT {
 
         when(utils.productWithThisNameExist(dto.getName())).thenReturn(false);
         when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-        when(cloudinaryService.uploadImage(imageMock, dto.getName())).thenReturn(cloudURL);
 
         beverageService.updateBeverage(productId, dto, imageMock);
 
         assertEquals(dto.getName(), product.getName());
         assertEquals(dto.getMilliliters(), product.getMilliliters());
         assertEquals(dto.getPrice(), product.getPrice());
-        assertEquals(product.getImageURL(), cloudURL);
+        assertEquals("blabla", product.getImageURL());
         verify(cloudinaryService, times(1)).validateImageFile(imageMock);
-        verify(cloudinaryService, times(1)).uploadImage(imageMock, dto.getName());
+        verify(imagePipeline, times(1)).submit(eq(productId), eq(dto.getName()), eq(imageMock), any());
         verify(productRepository, times(1)).save(product);
     }
 
     @Test
     public void getAllBeverages() {
-        BeverageEntity beverage1 = new BeverageEntity();
-        beverage1.setId(1L);
-        beverage1.setName("Beverage 1");
-
-        BeverageEntity beverage2 = new BeverageEntity();
-        beverage2.setId(2L);
-        beverage2.setName("Beverage 2");
-
-        List<BeverageEntity> beveragesList = new ArrayList<>();
-        beveragesList.add(beverage1);
-        beveragesList.add(beverage2);
-
         PageRequest pageRequest = PageRequest.of(0, 6);
-        Page<BeverageEntity> beverageEntityPage = new PageImpl<>(beveragesList, pageRequest, beveragesList.size());
-
-        when(productRepository.findAllBeveragesPageable(pageRequest)).thenReturn(beverageEntityPage);
-
-        BeverageView beverageView1 = new BeverageView();
-        beverageView1.setId(1L);
-        beverageView1.setName("Beverage 1");
-
-        BeverageView beverageView2 = new BeverageView();
-        beverageView2.setId(2L);
-        beverageView2.setName("Beverage 2");
-
-        List<BeverageView> viewList = new ArrayList<>();
-        viewList.add(beverageView1);
-        viewList.add(beverageView2);
+        List<BeverageView> views = List.of(
+                new BeverageView(1L, "Beverage 1", 2.5, null, null, null, 330),
+                new BeverageView(2L, "Beverage 2", 3.0, null, null, null, 500));
+        Page<BeverageView> viewPage = new PageImpl<>(views, pageRequest, views.size());
 
-        when(modelMapper.map(any(BeverageEntity.class), eq(BeverageView.class)))
-                .thenAnswer(invocation -> {
-                    BeverageEntity beverageEntity = invocation.getArgument(0);
-                    return new BeverageView(beverageEntity.getId(), beverageEntity.getName(), beverageEntity.getPrice(), beverageEntity.getImageURL(), beverageEntity.getMilliliters());
-                });
+        when(productRepository.findAllBeverageViews(pageRequest)).thenReturn(viewPage);
 
-        // Act
         Page<BeverageView> result = beverageService.getAllBeverages(0);
 
-        assertEquals(beverageEntityPage.getTotalElements(), result.getTotalElements());
-        assertEquals(beverageEntityPage.getTotalPages(), result.getTotalPages());
-        assertEquals(beverageView1.getId(), result.getContent().get(0).getId());
-        assertEquals(beverageView2.getId(), result.getContent().get(1).getId());
+        assertEquals(viewPage.getTotalElements(), result.getTotalElements());
+        assertEquals(viewPage.getTotalPages(), result.getTotalPages());
+        assertEquals(1L, result.getContent().get(0).getId());
+        assertEquals(2L, result.getContent().get(1).getId());
+        verify(productRepository, never()).findAll();
     }
-}
\ No newline at end of file
+}
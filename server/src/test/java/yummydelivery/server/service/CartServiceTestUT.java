@@ -2,15 +2,20 @@ package yummydelivery.server.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import yummydelivery.server.dto.CartItemDTO;
+import yummydelivery.server.dto.CartItemDeltaDTO;
 import yummydelivery.server.dto.ShoppingCartDTO;
 import yummydelivery.server.enums.ProductTypeEnum;
 import yummydelivery.server.exceptions.ProductNotFoundException;
 import yummydelivery.server.exceptions.ShoppingCartException;
 import yummydelivery.server.model.*;
+import yummydelivery.server.pricing.PricingEngine;
 import yummydelivery.server.repository.CartItemRepository;
 import yummydelivery.server.repository.CartRepository;
 import yummydelivery.server.repository.ProductRepository;
@@ -18,10 +23,12 @@ import yummydelivery.server.repository.UserRepository;
 import yummydelivery.server.security.AuthenticationFacade;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class CartServiceTestUT {
@@ -29,15 +36,13 @@ class CartServiceTestUT {
     @Mock
     private CartRepository cartRepository;
     @Mock
-    private UserRepository userRepository;
-    @Mock
-    private UserService userService;
-    @Mock
     private CartItemRepository cartItemRepository;
     @Mock
     private AuthenticationFacade authenticationFacade;
     @Mock
     private ProductRepository productRepository;
+    @Mock
+    private UserRepository userRepository;
     @InjectMocks
     private CartService cartService;
 
@@ -56,173 +61,266 @@ class CartServiceTestUT {
 
         List<CartItem> cartItems = new ArrayList<>();
 
-        CartItem newItem = new CartItem();
-
         Product food = new FoodEntity();
+        food.setId(13L);
         food.setName("Pizza");
         food.setProductType(ProductTypeEnum.FOOD);
         food.setPrice(10.00);
 
+        CartItem newItem = new CartItem();
+        newItem.setId(4L);
+        newItem.setProduct(food);
+        newItem.setQuantity(1);
+        newItem.setPriceMinor(1000);
+
         cartItems.add(newItem);
         shoppingCart.setCartItems(cartItems);
+        shoppingCart.setCartPriceMinor(1000);
         currentUser.setCart(shoppingCart);
+        Authentication authentication = mock();
 
-        when(userService.getCurrentUserByUsername()).thenReturn(currentUser);
+        when(authenticationFacade.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn(currentUser.getEmail());
+        when(cartRepository.findByUserEmailWithItems(currentUser.getEmail())).thenReturn(Optional.of(shoppingCart));
 
         ShoppingCartDTO userCart = cartService.getUserCart();
 
-        assertEquals(newItem, userCart.getItems().get(0));
+        CartItemDTO item = userCart.getItems().get(0);
         assertEquals(1, userCart.getItems().size());
-        assertEquals(shoppingCart.getCartPrice(), userCart.getCartPrice());
+        assertEquals(4L, item.getId());
+        assertEquals(13L, item.getProduct().getId());
+        assertEquals("Pizza", item.getProduct().getName());
+        assertEquals(1, item.getQuantity());
+        assertEquals(10.00, item.getPrice());
+        assertEquals(10.00, userCart.getCartPrice());
     }
 
     @Test
     public void removeCartItem_Success() {
-        UserEntity currentUser = new UserEntity();
-        currentUser.setEmail("current@email.com");
-
+        String email = "current@email.com";
         ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
-
-        List<CartItem> cartItems = new ArrayList<>();
+        shoppingCart.setId(3L);
+        shoppingCart.setCartPriceMinor(2500);
 
         CartItem cartItem = new CartItem();
         cartItem.setId(10L);
+        cartItem.setQuantity(2);
+        cartItem.setPriceMinor(2000);
 
-        Product food = new FoodEntity();
-        food.setName("Pizza");
-        food.setProductType(ProductTypeEnum.FOOD);
-        food.setPrice(10.00);
-
-        cartItems.add(cartItem);
-        shoppingCart.setCartItems(cartItems);
-        currentUser.setCart(shoppingCart);
-
-        Authentication authentication = mock();
-
-        when(authenticationFacade.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn(currentUser.getEmail());
-        when(userService.getCurrentUserByUsername()).thenReturn(currentUser);
-        when(cartItemRepository.findById(10L)).thenReturn(Optional.of(cartItem));
+        mockCurrentUser(email);
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findByIdAndCartId(10L, 3L)).thenReturn(Optional.of(cartItem));
 
         cartService.removeItemFromCart(10L);
 
-        assertEquals(0, cartItems.size());
-        verify(userRepository, times(1)).save(currentUser);
+        assertEquals(500, shoppingCart.getCartPriceMinor());
         verify(cartItemRepository, times(1)).delete(cartItem);
     }
 
     @Test
     public void removeCartItem_ItemNotFound_ExceptionThrown() {
-        UserEntity currentUser = new UserEntity();
-        currentUser.setEmail("current@email.com");
+        String email = "current@email.com";
+        ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
+        shoppingCart.setId(3L);
 
-        when(userService.getCurrentUserByUsername()).thenReturn(currentUser);
+        mockCurrentUser(email);
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findByIdAndCartId(50L, 3L)).thenReturn(Optional.empty());
 
         assertThrows(ShoppingCartException.class, () -> cartService.removeItemFromCart(50L));
         verify(cartItemRepository, never()).delete(any());
-        verify(userRepository, never()).save(currentUser);
+        assertEquals(0, shoppingCart.getCartPriceMinor());
     }
 
     @Test
-    public void addItemToShoppingCart_ProductNotInShoppingCart_Success() {
-        UserEntity currentUser = new UserEntity();
-        currentUser.setEmail("current@email.com");
-        Long productId = 13L;
+    public void addItemToShoppingCart_ProductNotInShoppingCart_ItemInserted() {
+        String email = "current@email.com";
 
-        Product food = new FoodEntity();
-        food.setId(13L);
-        food.setName("Pizza");
-        food.setProductType(ProductTypeEnum.FOOD);
-        food.setPrice(10.00);
+        mockCurrentUser(email);
+        when(productRepository.findPriceById(13L)).thenReturn(Optional.of(10.00));
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartItemRepository.incrementQuantity(3L, 13L, 1, 1000L)).thenReturn(0);
 
-        CartItem expectedCartItem = new CartItem();
-        expectedCartItem.setQuantity(1);
-        expectedCartItem.setProduct(food);
-        expectedCartItem.setPrice(10.00);
-        Authentication authentication = mock();
+        cartService.addItemToShoppingCart(13L);
 
-        when(authenticationFacade.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn(currentUser.getEmail());
-        when(productRepository.findById(productId)).thenReturn(Optional.of(food));
-        when(userService.getCurrentUserByUsername()).thenReturn(currentUser);
+        InOrder inOrder = inOrder(cartRepository, cartItemRepository);
+        inOrder.verify(cartRepository).repriceLineInCartPrice(3L, 13L, 1, 1000L);
+        inOrder.verify(cartItemRepository).incrementQuantity(3L, 13L, 1, 1000L);
+        inOrder.verify(cartItemRepository).insertCartItem(3L, 13L, 1, 1000L);
+    }
 
-        cartService.addItemToShoppingCart(13L);
+    @Test
+    public void addItemToShoppingCart_ProductExistInCart_QuantityIncremented() {
+        String email = "current@email.com";
 
-        verify(cartItemRepository, times(1)).save(expectedCartItem);
-        verify(cartRepository, times(1)).save(any(ShoppingCartEntity.class));
+        mockCurrentUser(email);
+        when(productRepository.findPriceById(13L)).thenReturn(Optional.of(10.00));
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartItemRepository.incrementQuantity(3L, 13L, 1, 1000L)).thenReturn(1);
 
-        assertEquals(1, currentUser.getCart().getCartItems().size());
-        assertEquals(13L, currentUser.getCart().getCartItems().get(0).getProduct().getId());
-        assertEquals(1, currentUser.getCart().getCartItems().get(0).getQuantity());
-        assertEquals(10, currentUser.getCart().getCartPrice());
-        assertEquals(expectedCartItem, currentUser.getCart().getCartItems().get(0));
+        cartService.addItemToShoppingCart(13L);
+
+        verify(cartRepository, times(1)).repriceLineInCartPrice(3L, 13L, 1, 1000L);
+        verify(cartItemRepository, never()).insertCartItem(anyLong(), anyLong(), anyInt(), anyLong());
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(cartRepository, never()).save(any(ShoppingCartEntity.class));
     }
 
     @Test
-    public void addItemToShoppingCart_ProductExistInCart_Success() {
-        UserEntity currentUser = new UserEntity();
-        currentUser.setEmail("current@email.com");
-        Long productId = 13L;
+    public void addItemToShoppingCart_ProductNotFound_ExceptionThrown() {
+        Long productId = 16L;
+        Authentication authenticationMock = mock();
 
-        Product food = new FoodEntity();
-        food.setId(13L);
-        food.setName("Pizza");
-        food.setProductType(ProductTypeEnum.FOOD);
-        food.setPrice(10.00);
+        when(authenticationFacade.getAuthentication()).thenReturn(authenticationMock);
+        when(authenticationMock.isAuthenticated()).thenReturn(true);
+        when(productRepository.findPriceById(productId)).thenReturn(Optional.empty());
 
-        CartItem cartItem = new CartItem();
-        cartItem.setId(8L);
-        cartItem.setQuantity(1);
-        cartItem.setProduct(food);
-        cartItem.setPrice(10.00);
+        assertThrows(ProductNotFoundException.class, () -> cartService.addItemToShoppingCart(productId));
+        verify(cartRepository, never()).repriceLineInCartPrice(anyLong(), anyLong(), anyInt(), anyLong());
+        verify(cartItemRepository, never()).insertCartItem(anyLong(), anyLong(), anyInt(), anyLong());
+    }
 
-        CartItem expectedItem = new CartItem();
-        expectedItem.setId(8L);
-        expectedItem.setQuantity(2);
-        expectedItem.setProduct(food);
-        expectedItem.setPrice(20.00);
+    @Test
+    public void applyCartChanges_MixedChanges_OneProductLookupAndCartRepriced() {
+        String email = "current@email.com";
+        ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
+        shoppingCart.setId(3L);
+        Product pizza = product(13L, "Pizza", 10.00);
+        Product salad = product(14L, "Salad", 7.50);
+        Product juice = product(15L, "Juice", 3.00);
+        CartItem pizzaLine = cartLine(1L, shoppingCart, pizza, 1);
+        CartItem saladLine = cartLine(2L, shoppingCart, salad, 2);
+        shoppingCart.setCartPriceMinor(2500);
+
+        mockCurrentUser(email);
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findAllByCartIdWithProduct(3L)).thenReturn(List.of(pizzaLine, saladLine));
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(pizza, salad, juice));
+
+        ShoppingCartDTO result = cartService.applyCartChanges(List.of(
+                new CartItemDeltaDTO(13L, 1),
+                new CartItemDeltaDTO(14L, -2),
+                new CartItemDeltaDTO(15L, 2),
+                new CartItemDeltaDTO(13L, 1)));
+
+        assertEquals(3, pizzaLine.getQuantity());
+        assertEquals(3000, pizzaLine.getPriceMinor());
+        assertEquals(3600, shoppingCart.getCartPriceMinor());
+        assertEquals(36.00, result.getCartPrice());
+        assertEquals(List.of("Pizza", "Juice"), result.getItems().stream().map(item -> item.getProduct().getName()).toList());
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(cartItemRepository, times(1)).deleteAll(List.of(saladLine));
+        verify(cartItemRepository, times(1)).saveAll(argThat(items -> {
+            Iterator<CartItem> added = items.iterator();
+            CartItem juiceLine = added.next();
+            return !added.hasNext() && juiceLine.getProduct() == juice && juiceLine.getQuantity() == 2
+                    && juiceLine.getCart() == shoppingCart && juiceLine.getPriceMinor() == 600;
+        }));
+        verify(cartRepository, never()).save(any());
+    }
 
-        List<CartItem> cartItems = new ArrayList<>();
-        cartItems.add(cartItem);
+    @Test
+    public void applyCartChanges_ManySmallPrices_TotalIsExact() {
+        String email = "current@email.com";
+        ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
+        shoppingCart.setId(3L);
+        List<Product> products = new ArrayList<>();
+        List<CartItemDeltaDTO> changes = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            products.add(product(id, "Mint " + id, 0.10));
+            changes.add(new CartItemDeltaDTO(id, 1));
+        }
+
+        mockCurrentUser(email);
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findAllByCartIdWithProduct(3L)).thenReturn(List.of());
+        when(productRepository.findAllById(anyIterable())).thenReturn(products);
+
+        ShoppingCartDTO result = cartService.applyCartChanges(changes);
+
+        assertEquals(100, shoppingCart.getCartPriceMinor());
+        assertEquals(1.00, result.getCartPrice());
+    }
 
+    @Test
+    public void applyCartChanges_UnknownProduct_ExceptionThrown() {
+        String email = "current@email.com";
         ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
-        shoppingCart.setCartItems(cartItems);
+        shoppingCart.setId(3L);
 
-        currentUser.setCart(shoppingCart);
-        Authentication authentication = mock();
+        mockCurrentUser(email);
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findAllByCartIdWithProduct(3L)).thenReturn(List.of());
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of());
 
-        when(authenticationFacade.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn(currentUser.getEmail());
-        when(productRepository.findById(productId)).thenReturn(Optional.of(food));
-        when(userService.getCurrentUserByUsername()).thenReturn(currentUser);
+        assertThrows(ProductNotFoundException.class,
+                () -> cartService.applyCartChanges(List.of(new CartItemDeltaDTO(99L, 1))));
+        verify(cartItemRepository, never()).saveAll(anyIterable());
+    }
 
-        cartService.addItemToShoppingCart(13L);
+    @Test
+    public void applyCartChanges_DeltasOverflowWhenSummed_BadRequest() {
+        String email = "current@email.com";
 
-        verify(cartItemRepository, times(1)).save(expectedItem);
-        verify(cartRepository, times(1)).save(shoppingCart);
+        mockCurrentUser(email);
 
-        assertEquals(1, currentUser.getCart().getCartItems().size());
-        assertEquals(13L, currentUser.getCart().getCartItems().get(0).getProduct().getId());
-        assertEquals(2, currentUser.getCart().getCartItems().get(0).getQuantity());
-        assertEquals(20, currentUser.getCart().getCartPrice());
-        assertEquals(expectedItem, currentUser.getCart().getCartItems().get(0));
+        ShoppingCartException exception = assertThrows(ShoppingCartException.class,
+                () -> cartService.applyCartChanges(List.of(
+                        new CartItemDeltaDTO(13L, Integer.MAX_VALUE),
+                        new CartItemDeltaDTO(13L, 1))));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(cartRepository, never()).findByIdForUpdate(anyLong());
     }
 
     @Test
-    public void addItemToShoppingCart_ProductNotFound_ExceptionThrown() {
-        Long productId = 16L;
-
-        UserEntity user = new UserEntity();
-        user.setId(5L);
-        Authentication authenticationMock = mock();
+    public void applyCartChanges_QuantityBeyondLimit_BadRequestAndCartUnchanged() {
+        String email = "current@email.com";
+        ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
+        shoppingCart.setId(3L);
+        Product pizza = product(13L, "Pizza", 10.00);
+        CartItem pizzaLine = cartLine(1L, shoppingCart, pizza, 2);
+        shoppingCart.setCartPriceMinor(2000);
+
+        mockCurrentUser(email);
+        when(userRepository.findCartIdByEmail(email)).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findAllByCartIdWithProduct(3L)).thenReturn(List.of(pizzaLine));
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(pizza));
+
+        ShoppingCartException exception = assertThrows(ShoppingCartException.class,
+                () -> cartService.applyCartChanges(List.of(new CartItemDeltaDTO(13L, Integer.MAX_VALUE))));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals(2000, shoppingCart.getCartPriceMinor());
+        verify(cartItemRepository, never()).saveAll(anyIterable());
+    }
 
+    private Product product(Long id, String name, double price) {
+        Product food = new FoodEntity();
+        food.setId(id);
+        food.setName(name);
+        food.setProductType(ProductTypeEnum.FOOD);
+        food.setPrice(price);
+        return food;
+    }
 
-        when(authenticationFacade.getAuthentication()).thenReturn(authenticationMock);
-        when(authenticationMock.isAuthenticated()).thenReturn(true);
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+    private CartItem cartLine(Long id, ShoppingCartEntity cart, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setId(id);
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setPriceMinor(PricingEngine.lineTotal(PricingEngine.toMinorUnits(product.getPrice()), quantity));
+        return cartItem;
+    }
 
-        assertThrows(ProductNotFoundException.class, () -> cartService.addItemToShoppingCart(productId));
-        verify(cartItemRepository, never()).save(any(CartItem.class));
-        verify(cartRepository, never()).save(any(ShoppingCartEntity.class));
+    private void mockCurrentUser(String email) {
+        Authentication authentication = mock();
+        when(authenticationFacade.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn(email);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import yummydelivery.server.exceptions.IdempotencyKeyException;
+import yummydelivery.server.exceptions.ShoppingCartException;
+import yummydelivery.server.security.AuthenticationFacade;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CheckoutIdempotencyServiceTestUT {
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private AuthenticationFacade authenticationFacade;
+    @Mock
+    private Authentication authentication;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CheckoutIdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new CheckoutIdempotencyService(orderService, authenticationFacade, meterRegistry, 100, 0);
+        when(authenticationFacade.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user@example.com");
+    }
+
+    @Test
+    public void createOrder_RepeatedKey_ReplaysWithoutCheckingOutAgain() {
+        when(orderService.createOrder(4L)).thenReturn(11L);
+
+        CheckoutIdempotencyService.CheckoutResult first = idempotencyService.createOrder(4L, "key-1");
+        CheckoutIdempotencyService.CheckoutResult second = idempotencyService.createOrder(4L, "key-1");
+
+        assertEquals(11L, first.orderId());
+        assertFalse(first.replayed());
+        assertEquals(11L, second.orderId());
+        assertTrue(second.replayed());
+        verify(orderService, times(1)).createOrder(4L);
+        assertEquals(1.0, meterRegistry.get("app.orders.checkout.replayed").counter().count());
+    }
+
+    @Test
+    public void createOrder_SameKeyForAnotherUser_ChecksOutSeparately() {
+        when(orderService.createOrder(4L)).thenReturn(11L, 12L);
+
+        idempotencyService.createOrder(4L, "key-1");
+        when(authentication.getName()).thenReturn("other@example.com");
+        CheckoutIdempotencyService.CheckoutResult other = idempotencyService.createOrder(4L, "key-1");
+
+        assertEquals(12L, other.orderId());
+        assertFalse(other.replayed());
+        verify(orderService, times(2)).createOrder(4L);
+    }
+
+    @Test
+    public void createOrder_KeyReusedForDifferentAddress_Rejected() {
+        when(orderService.createOrder(4L)).thenReturn(11L);
+        idempotencyService.createOrder(4L, "key-1");
+
+        IdempotencyKeyException exception =
+                assertThrows(IdempotencyKeyException.class, () -> idempotencyService.createOrder(5L, "key-1"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
+        verify(orderService, never()).createOrder(5L);
+    }
+
+    @Test
+    public void createOrder_FailedAttempt_NotStoredSoRetryRunsAgain() {
+        when(orderService.createOrder(4L))
+                .thenThrow(new ShoppingCartException(HttpStatus.BAD_REQUEST, "Shopping cart is empty"))
+                .thenReturn(11L);
+
+        assertThrows(ShoppingCartException.class, () -> idempotencyService.createOrder(4L, "key-1"));
+        CheckoutIdempotencyService.CheckoutResult retry = idempotencyService.createOrder(4L, "key-1");
+
+        assertEquals(11L, retry.orderId());
+        assertFalse(retry.replayed());
+        verify(orderService, times(2)).createOrder(4L);
+    }
+
+    @Test
+    public void createOrder_BlankKey_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.createOrder(4L, " "));
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.createOrder(4L, "k".repeat(CheckoutIdempotencyService.MAX_KEY_LENGTH + 1)));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    public void createOrder_ConcurrentDuplicates_CollapseOntoOneCheckout() throws Exception {
+        int callers = 8;
+        CountDownLatch checkoutStarted = new CountDownLatch(1);
+        CountDownLatch releaseCheckout = new CountDownLatch(1);
+        when(orderService.createOrder(4L)).thenAnswer(invocation -> {
+            checkoutStarted.countDown();
+            assertTrue(releaseCheckout.await(5, TimeUnit.SECONDS));
+            return 11L;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<CheckoutIdempotencyService.CheckoutResult>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> idempotencyService.createOrder(4L, "key-1")));
+            }
+            assertTrue(checkoutStarted.await(5, TimeUnit.SECONDS));
+            releaseCheckout.countDown();
+
+            int executed = 0;
+            for (Future<CheckoutIdempotencyService.CheckoutResult> result : results) {
+                CheckoutIdempotencyService.CheckoutResult checkout = result.get(5, TimeUnit.SECONDS);
+                assertEquals(11L, checkout.orderId());
+                if (!checkout.replayed()) executed++;
+            }
+            assertEquals(1, executed);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(orderService, times(1)).createOrder(4L);
+    }
+}
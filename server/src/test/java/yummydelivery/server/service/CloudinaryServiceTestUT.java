@@ -1,10 +1,8 @@
 package yummydelivery.server.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.Uploader;
-import com.cloudinary.utils.ObjectUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -12,21 +10,28 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.util.ResourceUtils;
 import org.springframework.util.StreamUtils;
-import org.springframework.web.multipart.MultipartFile;
-
+import yummydelivery.server.exceptions.ApiException;
+import yummydelivery.server.enums.ImageVariantEnum;
+import yummydelivery.server.storage.EncodedImage;
+import yummydelivery.server.storage.ImageStore;
+import yummydelivery.server.storage.ProductImageUrls;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class CloudinaryServiceTestUT {
     @Mock
-    private Cloudinary cloudinary;
+    private ImageStore imageStore;
     @InjectMocks
     public CloudinaryService cloudinaryService;
 
@@ -65,36 +70,97 @@ class CloudinaryServiceTestUT {
     void uploadImage_Success() throws IOException {
         File file = ResourceUtils.getFile("classpath:testImage.jpg");
         byte[] fileContent = StreamUtils.copyToByteArray(new FileInputStream(file));
-        MultipartFile image = new MockMultipartFile(
-                "burger",
-                "testfile.jpg",
-                MediaType.IMAGE_JPEG_VALUE,
-                fileContent
-        );
-
-        Map<String, String> uploadResult = new HashMap<>();
-        uploadResult.put("url", "cloudinary/blabla/bla/burger.jpg");
+        when(imageStore.store(anyString(), anyList())).thenAnswer(invocation -> "cloudinary/" + invocation.getArgument(0));
+
+        ProductImageUrls imageUrls = cloudinaryService.uploadImage(fileContent, "testfile.jpg", " Big Burger");
+
+        assertEquals("cloudinary/BigBurger-thumbnail", imageUrls.thumbnailURL());
+        assertEquals("cloudinary/BigBurger-card", imageUrls.cardURL());
+        assertEquals("cloudinary/BigBurger-detail", imageUrls.detailURL());
+        for (ImageVariantEnum variant : ImageVariantEnum.values()) {
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<EncodedImage>> stored = ArgumentCaptor.forClass(List.class);
+            verify(imageStore, times(1)).store(eq("BigBurger-" + variant.name().toLowerCase()), stored.capture());
+            EncodedImage primary = stored.getValue().get(0);
+            assertEquals("jpg", primary.format());
+            BufferedImage storedImage = ImageIO.read(new ByteArrayInputStream(primary.content()));
+            assertTrue(storedImage.getWidth() <= variant.getMaxSize() && storedImage.getHeight() <= variant.getMaxSize());
+        }
+    }
 
-        Uploader uploaderMock = mock();
-        when(cloudinary.uploader()).thenReturn(uploaderMock);
-        when(uploaderMock.upload(any(File.class), anyMap())).thenReturn(uploadResult);
+    @Test
+    void uploadImage_WebPStoredBesideJpeg() throws IOException {
+        File file = ResourceUtils.getFile("classpath:testImage.jpg");
+        byte[] fileContent = StreamUtils.copyToByteArray(new FileInputStream(file));
+        when(imageStore.store(anyString(), anyList())).thenAnswer(invocation -> "cloudinary/" + invocation.getArgument(0));
+
+        cloudinaryService.uploadImage(fileContent, "testfile.jpg", "burger");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EncodedImage>> stored = ArgumentCaptor.forClass(List.class);
+        verify(imageStore).store(eq("burger-card"), stored.capture());
+        assertEquals(2, stored.getValue().size());
+        EncodedImage webp = stored.getValue().get(1);
+        assertEquals("webp", webp.format());
+        assertEquals("RIFF", new String(webp.content(), 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("WEBP", new String(webp.content(), 8, 4, StandardCharsets.US_ASCII));
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(webp.content()));
+        assertTrue(decoded.getWidth() <= ImageVariantEnum.CARD.getMaxSize() && decoded.getHeight() <= ImageVariantEnum.CARD.getMaxSize());
+    }
 
-        String imageURL = cloudinaryService.uploadImage(image, image.getName());
+    @Test
+    void uploadImage_NotAnImage_ApiExceptionThrown() {
+        ApiException exception = assertThrows(ApiException.class,
+                () -> cloudinaryService.uploadImage(new byte[]{1, 2, 3}, "testfile.jpg", "burger"));
 
-        assertNotNull(imageURL);
-        assertTrue(imageURL.endsWith("burger.jpg"));
-        verify(uploaderMock, times(1)).upload(any(File.class), anyMap());
+        assertTrue(exception.getMessage().startsWith("File converting failed"));
+        verify(imageStore, never()).store(any(), anyList());
     }
 
     @Test
-    void deleteProductImageFromCloudinary_Success() throws IOException {
+    void deleteProductImageFromCloudinary_Success() {
         String productImageURL = "cloudinary/qwelkqew/YummyDeliveryImages/pizza.jpg";
-        String urlPublicKey = "YummyDeliveryImages/pizza";
+        when(imageStore.placeholderUrl()).thenReturn("placeholderURL");
 
-        Uploader uploaderMock = mock();
-        when(cloudinary.uploader()).thenReturn(uploaderMock);
         cloudinaryService.deleteProductImageFromCloudinary(productImageURL);
 
-        verify(cloudinary.uploader(), times(1)).destroy(urlPublicKey, ObjectUtils.emptyMap());
+        verify(imageStore, times(1)).delete(productImageURL);
+    }
+
+    @Test
+    void deleteReplacedImages_OnlyImagesNoLongerUsedDeleted() {
+        when(imageStore.placeholderUrl()).thenReturn("placeholderURL");
+        when(imageStore.key(anyString())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            return url.substring(url.lastIndexOf('/') + 1);
+        });
+
+        cloudinaryService.deleteReplacedImages(
+                new ProductImageUrls("v1/burger-thumbnail", "v1/burger-card", "v1/old-detail"),
+                new ProductImageUrls("v2/burger-thumbnail", "v2/new-card", "v2/new-detail"));
+
+        verify(imageStore).delete("v1/burger-card");
+        verify(imageStore).delete("v1/old-detail");
+        verify(imageStore, never()).delete("v1/burger-thumbnail");
+    }
+
+    @Test
+    void deleteReplacedImages_PlaceholderReplaced_NothingDeleted() {
+        when(imageStore.placeholderUrl()).thenReturn("placeholderURL");
+        when(imageStore.key(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        cloudinaryService.deleteReplacedImages(new ProductImageUrls(null, "placeholderURL", null),
+                new ProductImageUrls("burger-thumbnail", "burger-card", "burger-detail"));
+
+        verify(imageStore, never()).delete(any());
+    }
+
+    @Test
+    void deleteProductImageFromCloudinary_PlaceholderImage_KeptInStore() {
+        when(imageStore.placeholderUrl()).thenReturn("placeholderURL");
+
+        cloudinaryService.deleteProductImageFromCloudinary("placeholderURL");
+
+        verify(imageStore, never()).delete(any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import yummydelivery.server.enums.EmailStatusEnum;
+import yummydelivery.server.model.EmailOutboxEntity;
+import yummydelivery.server.repository.EmailOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailDispatcherTestUT {
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private InMemoryMailSender mailSender;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mailSender = new InMemoryMailSender();
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new EmailDispatcher(emailOutboxRepository, mailSender, meterRegistry,
+                "noreply@yummy.test", 3, 1, 3, 60000, 1000, 5000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void dispatchPending_SendsBatchOverOneConnection() {
+        List<EmailOutboxEntity> batch = mails(1, 2);
+        when(emailOutboxRepository.claimDueBatch(anyInt(), any(), any(), anyString(), eq(3))).thenReturn(2);
+        when(emailOutboxRepository.findAllByClaimTokenOrderById(anyString())).thenReturn(batch);
+
+        dispatcher.dispatchPending();
+
+        assertEquals(1, mailSender.connections());
+        assertEquals(2, mailSender.delivered().size());
+        assertEquals("noreply@yummy.test", mailSender.delivered().get(0).getFrom());
+        verify(emailOutboxRepository).markSent(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(emailOutboxRepository, never()).markAttemptFailed(any(), any(), any(), any());
+        assertEquals(2.0, meterRegistry.get("app.email.sent").counter().count());
+        assertEquals(1, meterRegistry.get("app.email.send").timer().count());
+    }
+
+    @Test
+    public void dispatchPending_FullBatch_ClaimsAgainUntilDrained() {
+        when(emailOutboxRepository.claimDueBatch(anyInt(), any(), any(), anyString(), eq(3))).thenReturn(3, 1);
+        when(emailOutboxRepository.findAllByClaimTokenOrderById(anyString())).thenReturn(mails(1, 2, 3), mails(4));
+        when(emailOutboxRepository.countByStatus(EmailStatusEnum.PENDING)).thenReturn(0L);
+
+        dispatcher.dispatchPending();
+
+        assertEquals(2, mailSender.connections());
+        assertEquals(4, mailSender.delivered().size());
+        verify(emailOutboxRepository, times(2)).claimDueBatch(anyInt(), any(), any(), anyString(), eq(3));
+    }
+
+    @Test
+    public void dispatchPending_RejectedRecipient_RescheduledWithBackoff() {
+        EmailOutboxEntity rejected = mail(2, "bounce@example.com");
+        rejected.setAttempts(1);
+        when(emailOutboxRepository.claimDueBatch(anyInt(), any(), any(), anyString(), anyInt())).thenReturn(2);
+        when(emailOutboxRepository.findAllByClaimTokenOrderById(anyString())).thenReturn(List.of(mail(1, "ok@example.com"), rejected));
+        mailSender.reject("bounce@example.com");
+        LocalDateTime beforeRun = LocalDateTime.now();
+
+        dispatcher.dispatchPending();
+
+        verify(emailOutboxRepository).markSent(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(emailOutboxRepository).markAttemptFailed(eq(2L), eq(EmailStatusEnum.PENDING),
+                argThat(next -> !next.isBefore(beforeRun.plusSeconds(1))), contains("550"));
+        assertEquals(1.0, meterRegistry.get("app.email.failed.attempts").counter().count());
+    }
+
+    @Test
+    public void dispatchPending_LastAttemptFails_MailParkedAsFailed() {
+        EmailOutboxEntity rejected = mail(7, "bounce@example.com");
+        rejected.setAttempts(3);
+        when(emailOutboxRepository.claimDueBatch(anyInt(), any(), any(), anyString(), anyInt())).thenReturn(1);
+        when(emailOutboxRepository.findAllByClaimTokenOrderById(anyString())).thenReturn(List.of(rejected));
+        mailSender.reject("bounce@example.com");
+
+        dispatcher.dispatchPending();
+
+        verify(emailOutboxRepository).markAttemptFailed(eq(7L), eq(EmailStatusEnum.FAILED), any(), any());
+        verify(emailOutboxRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    public void dispatchPending_NothingDue_OnlyClaimsAndCounts() {
+        when(emailOutboxRepository.countByStatus(EmailStatusEnum.PENDING)).thenReturn(4L);
+
+        dispatcher.dispatchPending();
+
+        verify(emailOutboxRepository).claimDueBatch(anyInt(), any(), any(), anyString(), anyInt());
+        verify(emailOutboxRepository).countByStatus(EmailStatusEnum.PENDING);
+        verifyNoMoreInteractions(emailOutboxRepository);
+        assertEquals(0, mailSender.connections());
+        assertEquals(4.0, meterRegistry.get("app.email.outbox.pending").gauge().value());
+    }
+
+    @Test
+    public void backoffAfter_DoublesUpToMaximum() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoffAfter(1));
+        assertEquals(Duration.ofSeconds(2), dispatcher.backoffAfter(2));
+        assertEquals(Duration.ofSeconds(4), dispatcher.backoffAfter(3));
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoffAfter(4));
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoffAfter(40));
+    }
+
+    private static List<EmailOutboxEntity> mails(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> mail(id, "user" + id + "@example.com")).toList();
+    }
+
+    private static EmailOutboxEntity mail(long id, String recipient) {
+        EmailOutboxEntity mail = new EmailOutboxEntity();
+        mail.setId(id);
+        mail.setRecipient(recipient);
+        mail.setSubject("Registration Success");
+        mail.setMessageBody("Welcome");
+        mail.setAttempts(1);
+        return mail;
+    }
+}
@@ -5,21 +5,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.*;
-import org.springframework.mail.javamail.JavaMailSender;
 import yummydelivery.server.dto.EmailDetails;
+import yummydelivery.server.enums.EmailStatusEnum;
+import yummydelivery.server.repository.EmailOutboxRepository;
 
+import java.time.LocalDateTime;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 class EmailServiceTestUT {
 
     @Mock
-    private JavaMailSender javaMailSender;
-    @Value("${spring.mail.username}")
-    private String emailSender;
+    private EmailOutboxRepository emailOutboxRepository;
     @InjectMocks
     private EmailService emailService;
 
@@ -29,21 +27,21 @@ class EmailServiceTestUT {
     }
 
     @Test
-    public void sendEmail_Success() {
+    public void queueEmail_StoresPendingOutboxRow() {
         EmailDetails emailDetails = EmailDetails.builder()
                 .recipient("newUser@gmail.com")
                 .messageBody("Success")
                 .subject("Registration Success")
                 .build();
 
-        SimpleMailMessage mailMessage = new SimpleMailMessage();
-        mailMessage.setFrom(emailSender);
-        mailMessage.setTo(emailDetails.getRecipient());
-        mailMessage.setText(emailDetails.getMessageBody());
-        mailMessage.setSubject(emailDetails.getSubject());
+        emailService.queueEmail(emailDetails);
 
-        emailService.sendEmail(emailDetails);
-
-        verify(javaMailSender, times(1)).send(mailMessage);
+        verify(emailOutboxRepository, times(1)).save(argThat(mail ->
+                mail.getRecipient().equals("newUser@gmail.com")
+                        && mail.getSubject().equals("Registration Success")
+                        && mail.getMessageBody().equals("Success")
+                        && mail.getStatus() == EmailStatusEnum.PENDING
+                        && mail.getAttempts() == 0
+                        && !mail.getNextAttemptAt().isAfter(LocalDateTime.now())));
     }
-}
\ No newline at end of file
+}
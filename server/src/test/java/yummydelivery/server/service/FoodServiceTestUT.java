@@ -1,20 +1,30 @@
 package yummydelivery.server.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.web.multipart.MultipartFile;
+import yummydelivery.server.cache.MenuCache;
 import yummydelivery.server.dto.foodDTO.AddFoodDTO;
 import yummydelivery.server.dto.foodDTO.FoodDTO;
+import yummydelivery.server.dto.view.FoodIngredientView;
+import yummydelivery.server.dto.view.FoodSummaryView;
 import yummydelivery.server.dto.foodDTO.UpdateFoodDTO;
 import yummydelivery.server.enums.FoodTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
 import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.events.CatalogChangedEvent;
 import yummydelivery.server.exceptions.InvalidProductTypeException;
 import yummydelivery.server.exceptions.ProductNotFoundException;
 import yummydelivery.server.model.BeverageEntity;
@@ -23,14 +33,18 @@ import yummydelivery.server.model.Product;
 import yummydelivery.server.repository.ProductRepository;
 import yummydelivery.server.utils.CommonUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class FoodServiceTestUT {
+    private static final String PLACEHOLDER_URL = "http://localhost:8080/api/v1/images/placeholder.png";
+
     @Mock
     private ProductRepository productRepository;
     @Mock
@@ -39,18 +53,29 @@ class FoodServiceTestUT {
     private CommonUtils utils;
     @Mock
     private CloudinaryService cloudinaryService;
+    @Mock
+    private ProductImagePipeline imagePipeline;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private MenuCache menuCache = new MenuCache(new SimpleMeterRegistry(), 16, 0);
 
+    @Mock
+    private ProductPopularityService popularity;
     @InjectMocks
     private FoodService foodService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(cloudinaryService.placeholderImageUrl()).thenReturn(PLACEHOLDER_URL);
     }
 
     @Test
     public void getFoodById_ProductNotFound_Throw_ProductNotFoundException() {
         Long productId = 1L;
+        when(productRepository.findFoodWithIngredientsById(productId)).thenReturn(Optional.empty());
         when(productRepository.findById(productId)).thenReturn(Optional.empty());
 
         assertThrows(ProductNotFoundException.class, () -> foodService.getFoodById(productId));
@@ -63,6 +88,7 @@ class FoodServiceTestUT {
         beverage.setId(productId);
         beverage.setProductType(ProductTypeEnum.BEVERAGE);
 
+        when(productRepository.findFoodWithIngredientsById(productId)).thenReturn(Optional.empty());
         when(productRepository.findById(productId)).thenReturn(Optional.of(beverage));
 
         assertThrows(InvalidProductTypeException.class, () -> foodService.getFoodById(productId));
@@ -76,14 +102,18 @@ class FoodServiceTestUT {
         food.setFoodTypeEnum(FoodTypeEnum.PIZZA);
         food.setProductType(ProductTypeEnum.FOOD);
 
-        FoodDTO expectedDTO = new FoodDTO();
+        food.setIngredients(new ArrayList<>(List.of("Tomato", "Mozzarella")));
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(food));
-        when(modelMapper.map(food, FoodDTO.class)).thenReturn(expectedDTO);
+        when(productRepository.findFoodWithIngredientsById(1L)).thenReturn(Optional.of(food));
 
         FoodDTO result = foodService.getFoodById(1L);
 
-        assertEquals(expectedDTO, result);
+        assertEquals(1L, result.getId());
+        assertEquals("Pizza", result.getName());
+        assertEquals(FoodTypeEnum.PIZZA, result.getFoodTypeEnum());
+        assertEquals(food.getIngredients(), result.getIngredients());
+        assertNotSame(food.getIngredients(), result.getIngredients());
+        verify(productRepository, never()).findById(any());
     }
 
     @Test
@@ -107,12 +137,13 @@ class FoodServiceTestUT {
 
         foodService.addFood(addFoodDTO, null);
 
-        verify(cloudinaryService, never()).uploadImage(any(), anyString());
-        verify(productRepository, times(1)).save(any());
+        verify(imagePipeline, never()).submit(any(), any(), any(), any());
+        verify(productRepository, times(1)).save(argThat(food ->
+                PLACEHOLDER_URL.equals(food.getImageURL())));
     }
 
     @Test
-    public void addFood_WhenProductImageProvided_ShouldSaveFoodEntityWithUploadedImage() {
+    public void addFood_WhenProductImageProvided_SavesPlaceholderAndQueuesUpload() {
         AddFoodDTO addFoodDTO = new AddFoodDTO();
         addFoodDTO.setName("New Pizza");
         addFoodDTO.setPrice(10.00);
@@ -120,44 +151,136 @@ class FoodServiceTestUT {
 
         when(utils.productWithThisNameExist(addFoodDTO.getName())).thenReturn(false);
         when(modelMapper.map(addFoodDTO, FoodEntity.class)).thenReturn(new FoodEntity());
-        when(cloudinaryService.uploadImage(image, addFoodDTO.getName())).thenReturn("cloudImageURL");
 
         foodService.addFood(addFoodDTO, image);
 
-        verify(cloudinaryService, times(1)).uploadImage(image, addFoodDTO.getName());
-        verify(productRepository, times(1)).save(any());
+        InOrder inOrder = inOrder(cloudinaryService, imagePipeline, productRepository);
+        inOrder.verify(cloudinaryService).validateImageFile(image);
+        inOrder.verify(imagePipeline).checkCapacity();
+        inOrder.verify(productRepository).save(argThat(food ->
+                PLACEHOLDER_URL.equals(food.getImageURL())));
+        inOrder.verify(imagePipeline).submit(any(), eq(addFoodDTO.getName()), eq(image),
+                argThat(event -> event.getChangeType() == CatalogChangedEvent.ChangeType.UPDATED));
     }
 
     @Test
     void getAllFoodsByType_Success() {
+        PageRequest page = PageRequest.of(0, 6);
+        FoodSummaryView margherita = new FoodSummaryView(1L, "Margherita", 400, 10.0, FoodTypeEnum.PIZZA, null, null, null, 2);
+        FoodSummaryView prosciutto = new FoodSummaryView(2L, "Prosciutto Crudo", 450, 12.0, FoodTypeEnum.PIZZA, null, null, null, 2);
 
-        FoodEntity foodEntity1 = new FoodEntity();
-        foodEntity1.setId(1L);
-        foodEntity1.setName("Margherita");
-        foodEntity1.setFoodTypeEnum(FoodTypeEnum.PIZZA);
+        when(productRepository.findFoodSummariesByFoodType(FoodTypeEnum.PIZZA, page))
+                .thenReturn(List.of(margherita, prosciutto));
+        when(productRepository.findIngredientsByFoodIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(
+                        new FoodIngredientView(1L, "Tomato"),
+                        new FoodIngredientView(2L, "Prosciutto"),
+                        new FoodIngredientView(1L, "Mozzarella")));
 
-        FoodEntity foodEntity2 = new FoodEntity();
-        foodEntity1.setId(2L);
-        foodEntity1.setName("Prosciutto Crudo");
-        foodEntity1.setFoodTypeEnum(FoodTypeEnum.PIZZA);
+        Page<FoodDTO> resultPage = foodService.getAllFoodsByType("PIZZA", 0);
+
+        assertEquals(2, resultPage.getContent().size());
+        assertEquals(2, resultPage.getTotalElements());
+        assertEquals(1L, resultPage.getContent().get(0).getId());
+        assertEquals("Margherita", resultPage.getContent().get(0).getName());
+        assertEquals(List.of("Tomato", "Mozzarella"), resultPage.getContent().get(0).getIngredients());
+        assertEquals(2L, resultPage.getContent().get(1).getId());
+        assertEquals(450, resultPage.getContent().get(1).getGrams());
+        assertEquals(List.of("Prosciutto"), resultPage.getContent().get(1).getIngredients());
+        verify(productRepository, never()).countFoodsByFoodType(any());
+    }
+
+    @Test
+    void getAllFoodsByTypeByPopularity_PageInRollupOrder() {
+        List<Long> pizzaIds = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        when(productRepository.findFoodIdsByFoodType(FoodTypeEnum.PIZZA)).thenReturn(pizzaIds);
+        when(popularity.sortByUnitsSold(pizzaIds, SalesWindowEnum.WEEK)).thenReturn(List.of(7L, 2L, 1L, 3L, 4L, 5L, 6L));
+        when(productRepository.findFoodSummariesByIdIn(List.of(6L))).thenReturn(List.of(
+                new FoodSummaryView(6L, "Quattro Formaggi", 400, 11.0, FoodTypeEnum.PIZZA, null, null, null)));
+
+        Page<FoodDTO> resultPage = foodService.getAllFoodsByTypeByPopularity("pizza", 2);
+
+        assertEquals(List.of(6L), resultPage.getContent().stream().map(FoodDTO::getId).toList());
+        assertEquals(7, resultPage.getTotalElements());
+        verify(productRepository, never()).findFoodSummariesByFoodType(any(), any());
+    }
+
+    @Test
+    void getBestSellingFoods_KeepsRankingAndSkipsDeletedFoods() {
+        when(popularity.bestSellers(ProductTypeEnum.FOOD, SalesWindowEnum.DAY, 3)).thenReturn(List.of(9L, 4L, 2L));
+        when(productRepository.findFoodSummariesByIdIn(List.of(9L, 4L, 2L))).thenReturn(List.of(
+                new FoodSummaryView(2L, "Carbonara", 350, 9.0, FoodTypeEnum.PASTA, null, null, null),
+                new FoodSummaryView(9L, "Tiramisu", 150, 6.0, FoodTypeEnum.DESSERT, null, null, null)));
+        when(productRepository.findIngredientsByFoodIdIn(List.of(2L, 9L)))
+                .thenReturn(List.of(new FoodIngredientView(2L, "Guanciale")));
+
+        List<FoodDTO> bestSellers = foodService.getBestSellingFoods(SalesWindowEnum.DAY, 3);
+
+        assertEquals(List.of(9L, 2L), bestSellers.stream().map(FoodDTO::getId).toList());
+        assertEquals(List.of("Guanciale"), bestSellers.get(1).getIngredients());
+    }
+
+    @Test
+    void getBestSellingFoods_NothingSold_NoQuery() {
+        when(popularity.bestSellers(ProductTypeEnum.FOOD, SalesWindowEnum.HOUR, 5)).thenReturn(List.of());
+
+        assertTrue(foodService.getBestSellingFoods(SalesWindowEnum.HOUR, 5).isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getAllFoodsByType_PageBeyondLast_CountsTotal() {
+        PageRequest page = PageRequest.of(2, 6);
 
-        List<FoodEntity> foodEntityList = List.of(foodEntity1, foodEntity2);
-        Page<FoodEntity> foodEntityPage = new PageImpl<>(foodEntityList);
+        when(productRepository.findFoodSummariesByFoodType(FoodTypeEnum.PIZZA, page)).thenReturn(List.of());
+        when(productRepository.countFoodsByFoodType(FoodTypeEnum.PIZZA)).thenReturn(4L);
+
+        Page<FoodDTO> resultPage = foodService.getAllFoodsByType("PIZZA", 3);
+
+        assertTrue(resultPage.getContent().isEmpty());
+        assertEquals(4, resultPage.getTotalElements());
+        verify(productRepository, never()).findIngredientsByFoodIdIn(any());
+    }
+
+    @Test
+    void getAllFoodsByType_SecondRequestServedFromMenuCache() {
         PageRequest page = PageRequest.of(0, 6);
 
-        when(productRepository.findAllByProductTypePageable(FoodTypeEnum.PIZZA, page)).thenReturn(foodEntityPage);
+        when(productRepository.findFoodSummariesByFoodType(FoodTypeEnum.PIZZA, page))
+                .thenReturn(List.of(new FoodSummaryView(1L, "Margherita", 400, 10.0, FoodTypeEnum.PIZZA, null, null, null, 1)));
+        when(productRepository.findIngredientsByFoodIdIn(List.of(1L))).thenReturn(List.of());
 
-        FoodDTO foodDTO1 = new FoodDTO();
-        FoodDTO foodDTO2 = new FoodDTO();
+        foodService.getAllFoodsByType("pizza", 0);
+        Page<FoodDTO> cachedPage = foodService.getAllFoodsByType("PIZZA", 0);
 
-        List<FoodDTO> foodDTOList = List.of(foodDTO1, foodDTO2);
-        when(modelMapper.map(any(), eq(FoodDTO.class))).thenReturn(foodDTOList.get(0), foodDTOList.get(1));
+        assertEquals(1, cachedPage.getTotalElements());
+        verify(productRepository, times(1)).findFoodSummariesByFoodType(FoodTypeEnum.PIZZA, page);
+        assertEquals(1, menuCache.hitCount());
+    }
 
-        Page<FoodDTO> resultPage = foodService.getAllFoodsByType("PIZZA", 0);
+    @Test
+    void updateFood_PublishesCatalogChangeForOldAndNewFoodType() {
+        Long productId = 1L;
+        UpdateFoodDTO updateFoodDTO = new UpdateFoodDTO();
+        updateFoodDTO.setName("Updated Pizza");
+        updateFoodDTO.setFoodTypeEnum(FoodTypeEnum.STARTER);
+
+        FoodEntity existingFood = new FoodEntity();
+        existingFood.setId(productId);
+        existingFood.setFoodTypeEnum(FoodTypeEnum.PIZZA);
+        existingFood.setProductType(ProductTypeEnum.FOOD);
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(existingFood));
+        doAnswer(invocation -> {
+            existingFood.setFoodTypeEnum(FoodTypeEnum.STARTER);
+            return null;
+        }).when(modelMapper).map(updateFoodDTO, existingFood);
+
+        foodService.updateFood(productId, updateFoodDTO, null);
 
-        assertEquals(foodEntityList.size(), resultPage.getContent().size());
-        assertEquals(resultPage.getContent().get(0), foodDTO1);
-        assertEquals(resultPage.getContent().get(1), foodDTO2);
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(FoodTypeEnum.PIZZA, FoodTypeEnum.STARTER), event.getValue().getAffectedFoodTypes());
     }
 
     @Test
@@ -203,7 +326,7 @@ class FoodServiceTestUT {
         foodService.updateFood(productId, updateFoodDTO, null);
 
         verify(productRepository, times(1)).save(existingFood);
-        verify(cloudinaryService, never()).uploadImage(any(), eq(updateFoodDTO.getName()));
+        verify(imagePipeline, never()).submit(any(), any(), any(), any());
     }
 
     @Test
@@ -225,8 +348,9 @@ class FoodServiceTestUT {
         foodService.updateFood(productId, updateFoodDTO, image);
 
         verify(cloudinaryService, times(1)).validateImageFile(image);
-        verify(cloudinaryService, times(1)).uploadImage(image, updateFoodDTO.getName());
+        verify(imagePipeline, times(1)).checkCapacity();
         verify(productRepository, times(1)).save(existingFood);
+        verify(imagePipeline, times(1)).submit(eq(productId), eq(updateFoodDTO.getName()), eq(image), any());
     }
 
     @Test
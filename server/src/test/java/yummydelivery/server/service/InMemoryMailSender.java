@@ -0,0 +1,89 @@
+package yummydelivery.server.service;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stands in for an SMTP server: every send call counts as one connection, delivered mails are kept in
+ * memory and mails to rejected recipients fail the way JavaMailSenderImpl reports per-message failures.
+ */
+class InMemoryMailSender implements JavaMailSender {
+    private final List<SimpleMailMessage> delivered = new ArrayList<>();
+    private final Set<String> rejectedRecipients = new HashSet<>();
+    private int connections;
+
+    synchronized void reject(String recipient) {
+        rejectedRecipients.add(recipient);
+    }
+
+    synchronized List<SimpleMailMessage> delivered() {
+        return List.copyOf(delivered);
+    }
+
+    synchronized int connections() {
+        return connections;
+    }
+
+    @Override
+    public synchronized void send(SimpleMailMessage... simpleMessages) {
+        connections++;
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        for (SimpleMailMessage message : simpleMessages) {
+            String recipient = message.getTo()[0];
+            if (rejectedRecipients.contains(recipient)) {
+                failed.put(message, new IllegalStateException("550 mailbox unavailable: " + recipient));
+            } else {
+                delivered.add(message);
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new MailSendException(failed);
+        }
+    }
+
+    @Override
+    public void send(SimpleMailMessage simpleMessage) {
+        send(new SimpleMailMessage[]{simpleMessage});
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessage mimeMessage) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessagePreparator mimeMessagePreparator) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void send(MimeMessagePreparator... mimeMessagePreparators) {
+        throw new UnsupportedOperationException();
+    }
+}
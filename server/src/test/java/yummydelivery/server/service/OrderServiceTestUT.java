@@ -5,20 +5,28 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import yummydelivery.server.dto.CursorSliceDTO;
 import yummydelivery.server.dto.view.OrderView;
+import yummydelivery.server.dto.view.ProductView;
 import yummydelivery.server.enums.ProductTypeEnum;
 import yummydelivery.server.exceptions.AddressNotFoundException;
+import yummydelivery.server.exceptions.ShoppingCartException;
 import yummydelivery.server.model.*;
 import yummydelivery.server.repository.AddressRepository;
+import yummydelivery.server.repository.CartItemRepository;
+import yummydelivery.server.repository.CartRepository;
 import yummydelivery.server.repository.OrderRepository;
 import yummydelivery.server.repository.UserRepository;
 import yummydelivery.server.security.AuthenticationFacade;
+import yummydelivery.server.utils.OrderCursor;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -34,9 +42,13 @@ class OrderServiceTestUT {
     @Mock
     private AuthenticationFacade authenticationFacade;
     @Mock
-    private ModelMapper modelMapper;
-    @Mock
     private AddressRepository addressRepository;
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private CartItemRepository cartItemRepository;
+    @Mock
+    private ProductPopularityService productPopularity;
 
     @InjectMocks
     private OrderService orderService;
@@ -52,34 +64,34 @@ class OrderServiceTestUT {
         user.setEmail("user@email.com");
         user.setId(3L);
 
-        Product orangeJuice = new BeverageEntity();
+        ProductView orangeJuice = new ProductView();
         orangeJuice.setId(2L);
         orangeJuice.setProductType(ProductTypeEnum.BEVERAGE);
         orangeJuice.setName("Orange juice");
         orangeJuice.setPrice(5.00);
 
-        Product water = new BeverageEntity();
+        ProductView water = new ProductView();
         water.setId(6L);
         water.setProductType(ProductTypeEnum.BEVERAGE);
         water.setName("Water");
         water.setPrice(3.00);
 
-        CartItem orangeJuiceCartItem = new CartItem();
+        ImmutableCartItem orangeJuiceCartItem = new ImmutableCartItem();
         orangeJuiceCartItem.setProduct(orangeJuice);
         orangeJuiceCartItem.setQuantity(1);
-        orangeJuiceCartItem.setPrice(5.00);
+        orangeJuiceCartItem.setPriceMinor(500);
         orangeJuiceCartItem.setId(7L);
 
-        CartItem waterCartItem = new CartItem();
+        ImmutableCartItem waterCartItem = new ImmutableCartItem();
         waterCartItem.setProduct(water);
         waterCartItem.setQuantity(1);
-        waterCartItem.setPrice(3.00);
+        waterCartItem.setPriceMinor(300);
         waterCartItem.setId(6L);
 
-        List<CartItem> firstOrderProducts = new ArrayList<>();
+        List<ImmutableCartItem> firstOrderProducts = new ArrayList<>();
         firstOrderProducts.add(orangeJuiceCartItem);
 
-        List<CartItem> secondOrderProducts = new ArrayList<>();
+        List<ImmutableCartItem> secondOrderProducts = new ArrayList<>();
         secondOrderProducts.add(waterCartItem);
 
         OrderEntity firstOrder = new OrderEntity();
@@ -143,24 +155,122 @@ class OrderServiceTestUT {
         CartItem orangeJuiceCartItem = new CartItem();
         orangeJuiceCartItem.setProduct(orangeJuice);
         orangeJuiceCartItem.setQuantity(1);
-        orangeJuiceCartItem.setPrice(5.00);
+        orangeJuiceCartItem.setPriceMinor(500);
         orangeJuiceCartItem.setId(7L);
 
-        List<CartItem> cartItems = new ArrayList<>();
-        cartItems.add(orangeJuiceCartItem);
-
         ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
-        shoppingCart.setCartItems(cartItems);
-        user.setCart(shoppingCart);
+        shoppingCart.setId(3L);
+        shoppingCart.setCartPriceMinor(500);
         Authentication mockAuth = mock();
 
         when(authenticationFacade.getAuthentication()).thenReturn(mockAuth);
         when(mockAuth.getName()).thenReturn(user.getEmail());
         when(addressRepository.findById(addressId)).thenReturn(Optional.of(address));
-        when(userRepository.findUserWithOrders(user.getEmail())).thenReturn(Optional.of(user));
+        when(userRepository.findIdByEmail(user.getEmail())).thenReturn(Optional.of(5L));
+        when(userRepository.findCartIdByEmail(user.getEmail())).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findAllByCartIdWithProduct(3L)).thenReturn(List.of(orangeJuiceCartItem));
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            OrderEntity order = invocation.getArgument(0);
+            order.setId(11L);
+            return order;
+        });
+
+        Long orderId = orderService.createOrder(addressId);
+
+        assertEquals(11L, orderId);
+        verify(orderRepository, times(1)).save(argThat(order -> {
+            ImmutableCartItem orderedItem = order.getOrderedProducts().get(0);
+            return order.getOrderedProducts().size() == 1
+                    && order.getUserId().equals(5L)
+                    && order.getOrderCostMinor() == 500
+                    && order.getDeliveryAddress() == address
+                    && orderedItem.getQuantity() == 1
+                    && orderedItem.getProduct().getId().equals(2L)
+                    && orderedItem.getProduct().getName().equals("Orange juice");
+        }));
+        verify(cartItemRepository, times(1)).deleteAllByCartId(3L);
+        verify(cartRepository, times(1)).resetCartPrice(3L);
+        verify(userRepository, never()).save(any());
+        verify(productPopularity, times(1)).recordSale(argThat(items -> items.size() == 1
+                && items.get(0).getProduct().getId().equals(2L)));
+    }
 
-        orderService.createOrder(addressId);
+    @Test
+    public void createOrder_EmptyCart_ExceptionThrown() {
+        ShoppingCartEntity shoppingCart = new ShoppingCartEntity();
+        shoppingCart.setId(3L);
+        Authentication mockAuth = mock();
+
+        when(authenticationFacade.getAuthentication()).thenReturn(mockAuth);
+        when(mockAuth.getName()).thenReturn("current@email.com");
+        when(addressRepository.findById(6L)).thenReturn(Optional.of(new AddressEntity()));
+        when(userRepository.findIdByEmail("current@email.com")).thenReturn(Optional.of(5L));
+        when(userRepository.findCartIdByEmail("current@email.com")).thenReturn(Optional.of(3L));
+        when(cartRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(shoppingCart));
+        when(cartItemRepository.findAllByCartIdWithProduct(3L)).thenReturn(List.of());
+
+        ShoppingCartException exception = assertThrows(ShoppingCartException.class, () -> orderService.createOrder(6L));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(orderRepository, never()).save(any());
+        verify(cartItemRepository, never()).deleteAllByCartId(any());
+    }
+
+    @Test
+    public void getUserOrderHistory_FirstSlice_ReturnsCursorOfLastOrder() {
+        OrderEntity newest = new OrderEntity();
+        newest.setId(9L);
+        newest.setCreatedOn(LocalDateTime.of(2024, 3, 2, 12, 0));
+        OrderEntity older = new OrderEntity();
+        older.setId(4L);
+        older.setCreatedOn(LocalDateTime.of(2024, 3, 1, 18, 30));
+        PageRequest limit = PageRequest.of(0, 2);
+        Authentication mockAuth = mock();
+
+        when(authenticationFacade.getAuthentication()).thenReturn(mockAuth);
+        when(mockAuth.getName()).thenReturn("user@email.com");
+        when(userRepository.findIdByEmail("user@email.com")).thenReturn(Optional.of(3L));
+        when(orderRepository.findLatestByUserId(3L, limit))
+                .thenReturn(new SliceImpl<>(List.of(newest, older), limit, true));
+
+        CursorSliceDTO<OrderView> history = orderService.getUserOrderHistory(null, 2);
+
+        assertTrue(history.isHasNext());
+        assertEquals(2, history.getContent().size());
+        OrderCursor next = OrderCursor.decode(history.getNextCursor());
+        assertEquals(older.getCreatedOn(), next.getCreatedOn());
+        assertEquals(older.getId(), next.getId());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    public void getUserOrderHistory_WithCursor_SeeksPastCursor() {
+        LocalDateTime createdOn = LocalDateTime.of(2024, 3, 1, 18, 30);
+        String cursor = new OrderCursor(createdOn, 4L).encode();
+        PageRequest limit = PageRequest.of(0, 6);
+        Authentication mockAuth = mock();
+
+        when(authenticationFacade.getAuthentication()).thenReturn(mockAuth);
+        when(mockAuth.getName()).thenReturn("user@email.com");
+        when(userRepository.findIdByEmail("user@email.com")).thenReturn(Optional.of(3L));
+        when(orderRepository.findByUserIdBefore(3L, createdOn, 4L, limit))
+                .thenReturn(new SliceImpl<>(List.of(), limit, false));
+
+        CursorSliceDTO<OrderView> history = orderService.getUserOrderHistory(cursor, 6);
+
+        assertFalse(history.isHasNext());
+        assertNull(history.getNextCursor());
+        verify(orderRepository, never()).findAllByUserId(any(), any());
+    }
+
+    @Test
+    public void getUserOrderHistory_MalformedCursor_ExceptionThrown() {
+        Authentication mockAuth = mock();
+
+        when(authenticationFacade.getAuthentication()).thenReturn(mockAuth);
+        when(mockAuth.getName()).thenReturn("user@email.com");
+        when(userRepository.findIdByEmail("user@email.com")).thenReturn(Optional.of(3L));
 
-        verify(orderRepository, times(1)).save(any());
+        assertThrows(IllegalArgumentException.class, () -> orderService.getUserOrderHistory("not-a-cursor", 6));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import yummydelivery.server.enums.OrderStatusEnum;
+import yummydelivery.server.repository.OrderRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderStatusTransitionServiceTestUT {
+    @Mock
+    private OrderRepository orderRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatusTransitionService transitionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        transitionService = new OrderStatusTransitionService(orderRepository, meterRegistry, 60, 100);
+    }
+
+    @Test
+    public void markProcessingOrdersDelivered_RunsBatchesUntilLastOneIsPartial() {
+        when(orderRepository.transitionStatusBatch(anyInt(), anyInt(), any(), eq(100)))
+                .thenReturn(100, 100, 37);
+
+        transitionService.markProcessingOrdersDelivered();
+
+        verify(orderRepository, times(3)).transitionStatusBatch(
+                eq(OrderStatusEnum.PROCESSING.ordinal()),
+                eq(OrderStatusEnum.DELIVERED.ordinal()),
+                any(LocalDateTime.class),
+                eq(100));
+        assertEquals(237.0, meterRegistry.get("app.orders.status.transitioned").counter().count());
+        assertEquals(1, meterRegistry.get("app.orders.status.transition").timer().count());
+    }
+
+    @Test
+    public void markProcessingOrdersDelivered_NothingDue_SingleStatement() {
+        when(orderRepository.transitionStatusBatch(anyInt(), anyInt(), any(), anyInt())).thenReturn(0);
+
+        transitionService.markProcessingOrdersDelivered();
+
+        verify(orderRepository, times(1)).transitionStatusBatch(anyInt(), anyInt(), any(), anyInt());
+        verifyNoMoreInteractions(orderRepository);
+        assertEquals(0.0, meterRegistry.get("app.orders.status.transitioned").counter().count());
+    }
+
+    @Test
+    public void markProcessingOrdersDelivered_UsesCutoffInThePast() {
+        LocalDateTime beforeRun = LocalDateTime.now();
+        when(orderRepository.transitionStatusBatch(anyInt(), anyInt(), any(), anyInt())).thenReturn(0);
+
+        transitionService.markProcessingOrdersDelivered();
+
+        verify(orderRepository).transitionStatusBatch(anyInt(), anyInt(),
+                argThat(cutoff -> !cutoff.isAfter(beforeRun.minusMinutes(59))), anyInt());
+    }
+}
@@ -0,0 +1,198 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import yummydelivery.server.events.CatalogChangedEvent;
+import yummydelivery.server.exceptions.ApiException;
+import yummydelivery.server.exceptions.CloudinaryException;
+import yummydelivery.server.repository.ProductRepository;
+import yummydelivery.server.storage.ProductImageUrls;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductImagePipelineTestUT {
+    private static final CatalogChangedEvent UPLOADED = CatalogChangedEvent.beverage(7L, CatalogChangedEvent.ChangeType.UPDATED);
+
+    @Mock
+    private CloudinaryService cloudinaryService;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockMultipartFile image = new MockMultipartFile("image", "cola.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
+    private ProductImagePipeline pipeline;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    public void submit_UploadsInBackgroundAndPatchesImageUrls() {
+        createPipeline(2, 10);
+        when(cloudinaryService.uploadImage(any(), eq("cola.png"), eq("Cola"))).thenReturn(urls("cola"));
+        when(productRepository.updateImageUrls(7L, "cloud/cola.png", "cloud/cola-thumbnail.png", "cloud/cola-detail.png")).thenReturn(1);
+
+        pipeline.submit(7L, "Cola", image, UPLOADED);
+
+        verify(productRepository, timeout(2000)).updateImageUrls(7L, "cloud/cola.png", "cloud/cola-thumbnail.png", "cloud/cola-detail.png");
+        verify(eventPublisher, timeout(2000)).publishEvent(UPLOADED);
+        verify(cloudinaryService).uploadImage(aryEq(new byte[]{1, 2, 3}), eq("cola.png"), eq("Cola"));
+    }
+
+    @Test
+    public void submit_UploadFails_ProductKeepsCurrentImage() {
+        createPipeline(1, 10);
+        when(cloudinaryService.uploadImage(any(), any(), any()))
+                .thenThrow(new CloudinaryException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload the image"));
+
+        pipeline.submit(7L, "Cola", image, UPLOADED);
+
+        verify(cloudinaryService, timeout(2000)).uploadImage(any(), any(), any());
+        waitForUploads(1);
+        assertEquals(1.0, meterRegistry.get("app.images.upload.failed").counter().count());
+        verify(productRepository, never()).updateImageUrls(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void submit_NewerImageForSameProduct_OlderUploadDiscarded() throws Exception {
+        createPipeline(2, 10);
+        CountDownLatch olderUploadStarted = new CountDownLatch(1);
+        CountDownLatch releaseOlderUpload = new CountDownLatch(1);
+        when(cloudinaryService.uploadImage(any(), any(), eq("Old"))).thenAnswer(invocation -> {
+            olderUploadStarted.countDown();
+            assertTrue(releaseOlderUpload.await(2, TimeUnit.SECONDS));
+            return urls("old");
+        });
+        when(cloudinaryService.uploadImage(any(), any(), eq("New"))).thenReturn(urls("new"));
+        when(productRepository.updateImageUrls(eq(7L), any(), any(), any())).thenReturn(1);
+
+        pipeline.submit(7L, "Old", image, UPLOADED);
+        assertTrue(olderUploadStarted.await(2, TimeUnit.SECONDS));
+        pipeline.submit(7L, "New", image, UPLOADED);
+        verify(productRepository, timeout(2000)).updateImageUrls(7L, "cloud/new.png", "cloud/new-thumbnail.png", "cloud/new-detail.png");
+        releaseOlderUpload.countDown();
+        waitForUploads(2);
+
+        verify(productRepository, never()).updateImageUrls(7L, "cloud/old.png", "cloud/old-thumbnail.png", "cloud/old-detail.png");
+    }
+
+    @Test
+    public void submit_ImageReplaced_OldImagesDeletedAfterNewUrlsSaved() {
+        createPipeline(1, 10);
+        when(productRepository.findImageUrlsById(7L)).thenReturn(Optional.of(urls("old")));
+        when(cloudinaryService.uploadImage(any(), any(), any())).thenReturn(urls("cola"));
+        when(productRepository.updateImageUrls(7L, "cloud/cola.png", "cloud/cola-thumbnail.png", "cloud/cola-detail.png")).thenReturn(1);
+
+        pipeline.submit(7L, "Cola", image, UPLOADED);
+
+        verify(cloudinaryService, timeout(2000)).deleteReplacedImages(urls("old"), urls("cola"));
+        InOrder inOrder = inOrder(productRepository, cloudinaryService);
+        inOrder.verify(productRepository).updateImageUrls(7L, "cloud/cola.png", "cloud/cola-thumbnail.png", "cloud/cola-detail.png");
+        inOrder.verify(cloudinaryService).deleteReplacedImages(any(), any());
+    }
+
+    @Test
+    public void submit_DeletingReplacedImagesFails_UploadStillApplied() {
+        createPipeline(1, 10);
+        when(cloudinaryService.uploadImage(any(), any(), any())).thenReturn(urls("cola"));
+        when(productRepository.updateImageUrls(7L, "cloud/cola.png", "cloud/cola-thumbnail.png", "cloud/cola-detail.png")).thenReturn(1);
+        doThrow(new CloudinaryException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete product image from Cloudinary"))
+                .when(cloudinaryService).deleteReplacedImages(any(), any());
+
+        pipeline.submit(7L, "Cola", image, UPLOADED);
+
+        verify(eventPublisher, timeout(2000)).publishEvent(UPLOADED);
+        waitForUploads(1);
+        assertEquals(0.0, meterRegistry.get("app.images.upload.failed").counter().count());
+    }
+
+    @Test
+    public void submit_ProductRemovedDuringUpload_NothingPatchedOrDeleted() {
+        createPipeline(1, 10);
+        when(productRepository.findImageUrlsById(7L)).thenReturn(Optional.empty());
+        when(cloudinaryService.uploadImage(any(), any(), any())).thenReturn(urls("cola"));
+
+        pipeline.submit(7L, "Cola", image, UPLOADED);
+
+        verify(cloudinaryService, timeout(2000)).uploadImage(any(), any(), any());
+        waitForUploads(1);
+        verify(productRepository, never()).updateImageUrls(any(), any(), any(), any());
+        verify(cloudinaryService, never()).deleteReplacedImages(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void checkCapacity_QueueFull_ServiceUnavailable() throws Exception {
+        createPipeline(1, 1);
+        CountDownLatch uploadStarted = new CountDownLatch(1);
+        CountDownLatch releaseUpload = new CountDownLatch(1);
+        when(cloudinaryService.uploadImage(any(), any(), any())).thenAnswer(invocation -> {
+            uploadStarted.countDown();
+            assertTrue(releaseUpload.await(2, TimeUnit.SECONDS));
+            return urls("cola");
+        });
+
+        pipeline.submit(7L, "Cola", image, UPLOADED);
+        assertTrue(uploadStarted.await(2, TimeUnit.SECONDS));
+        pipeline.submit(8L, "Fanta", image, UPLOADED);
+
+        ApiException exception = assertThrows(ApiException.class, () -> pipeline.checkCapacity());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        releaseUpload.countDown();
+    }
+
+    @Test
+    public void submit_InsideTransaction_StartsAfterCommit() {
+        createPipeline(1, 10);
+        when(cloudinaryService.uploadImage(any(), any(), any())).thenReturn(urls("cola"));
+        when(productRepository.updateImageUrls(7L, "cloud/cola.png", "cloud/cola-thumbnail.png", "cloud/cola-detail.png")).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        pipeline.submit(7L, "Cola", image, UPLOADED);
+
+        verifyNoInteractions(cloudinaryService);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(productRepository, timeout(2000)).updateImageUrls(7L, "cloud/cola.png", "cloud/cola-thumbnail.png", "cloud/cola-detail.png");
+    }
+
+    private static ProductImageUrls urls(String name) {
+        return new ProductImageUrls("cloud/" + name + "-thumbnail.png", "cloud/" + name + ".png", "cloud/" + name + "-detail.png");
+    }
+
+    private void createPipeline(int workers, int queueCapacity) {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findImageUrlsById(7L)).thenReturn(Optional.of(urls("placeholder")));
+        pipeline = new ProductImagePipeline(cloudinaryService, productRepository, eventPublisher, meterRegistry,
+                workers, queueCapacity);
+    }
+
+    private void waitForUploads(int finishedUploads) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (meterRegistry.get("app.images.upload").timer().count() < finishedUploads) {
+            assertTrue(System.currentTimeMillis() < deadline, "Image pipeline did not become idle");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package yummydelivery.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import yummydelivery.server.dto.view.ProductSalesView;
+import yummydelivery.server.dto.view.ProductView;
+import yummydelivery.server.enums.ProductTypeEnum;
+import yummydelivery.server.enums.SalesWindowEnum;
+import yummydelivery.server.events.PopularityChangedEvent;
+import yummydelivery.server.model.ImmutableCartItem;
+import yummydelivery.server.repository.ProductSalesRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductPopularityServiceTestUT {
+    @Mock
+    private ProductSalesRepository salesRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductPopularityService popularity;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        popularity = new ProductPopularityService(salesRepository, eventPublisher, meterRegistry);
+        when(salesRepository.addQuantity(any(), any(), anyLong())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    public void flush_WritesUnitsSoldPerProductOnce() {
+        popularity.recordSale(List.of(item(1L, ProductTypeEnum.FOOD, 2), item(2L, ProductTypeEnum.BEVERAGE, 1)));
+        popularity.recordSale(List.of(item(1L, ProductTypeEnum.FOOD, 3)));
+
+        popularity.flush();
+        popularity.flush();
+
+        verify(salesRepository, times(1)).addQuantity(eq(1L), any(), eq(5L));
+        verify(salesRepository, times(1)).addQuantity(eq(2L), any(), eq(1L));
+        verify(salesRepository, never()).save(any());
+    }
+
+    @Test
+    public void flush_FirstSaleInBucket_InsertsRow() {
+        when(salesRepository.addQuantity(any(), any(), anyLong())).thenReturn(0);
+
+        popularity.recordSale(List.of(item(1L, ProductTypeEnum.FOOD, 2)));
+        popularity.flush();
+
+        verify(salesRepository).save(argThat(row -> row.getProductId().equals(1L)
+                && row.getProductType() == ProductTypeEnum.FOOD
+                && row.getQuantity() == 2
+                && row.getBucketStart().equals(ProductPopularityService.bucketOf(row.getBucketStart()))));
+    }
+
+    @Test
+    public void flush_WriteFails_UnitsKeptForNextRun() {
+        when(salesRepository.addQuantity(any(), any(), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(1);
+
+        popularity.recordSale(List.of(item(1L, ProductTypeEnum.FOOD, 2)));
+        popularity.flush();
+        popularity.recordSale(List.of(item(1L, ProductTypeEnum.FOOD, 1)));
+        popularity.flush();
+
+        verify(salesRepository).addQuantity(eq(1L), any(), eq(3L));
+        assertEquals(1.0, meterRegistry.get("app.popularity.flush.failed").counter().count());
+    }
+
+    @Test
+    public void recordSale_InsideTransaction_CountedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        popularity.recordSale(List.of(item(1L, ProductTypeEnum.FOOD, 2)));
+        popularity.flush();
+        verify(salesRepository, never()).addQuantity(any(), any(), anyLong());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        popularity.flush();
+        verify(salesRepository).addQuantity(eq(1L), any(), eq(2L));
+    }
+
+    @Test
+    public void flush_ReloadsRollupsAndRanksPerWindow() {
+        when(salesRepository.sumQuantitiesSince(any(), any(), any())).thenReturn(List.of(
+                new ProductSalesView(1L, ProductTypeEnum.FOOD, 0, 4, 30),
+                new ProductSalesView(2L, ProductTypeEnum.FOOD, 2, 9, 12),
+                new ProductSalesView(3L, ProductTypeEnum.BEVERAGE, 5, 50, 70)));
+
+        popularity.flush();
+
+        assertEquals(List.of(2L, 1L), popularity.bestSellers(ProductTypeEnum.FOOD, SalesWindowEnum.DAY, 10));
+        assertEquals(List.of(1L), popularity.bestSellers(ProductTypeEnum.FOOD, SalesWindowEnum.WEEK, 1));
+        assertEquals(List.of(2L), popularity.bestSellers(ProductTypeEnum.FOOD, SalesWindowEnum.HOUR, 10));
+        assertEquals(List.of(1L, 2L, 4L), popularity.sortByUnitsSold(List.of(4L, 2L, 1L), SalesWindowEnum.WEEK));
+        assertEquals(70, popularity.sold(3L, SalesWindowEnum.WEEK));
+        assertEquals(0, popularity.sold(4L, SalesWindowEnum.WEEK));
+        assertEquals(1, popularity.version());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PopularityChangedEvent changed
+                && changed.getVersion() == 1));
+    }
+
+    @Test
+    public void flush_SameTotals_VersionUnchanged() {
+        when(salesRepository.sumQuantitiesSince(any(), any(), any())).thenReturn(List.of(
+                new ProductSalesView(1L, ProductTypeEnum.FOOD, 1, 1, 1)));
+
+        popularity.flush();
+        popularity.flush();
+
+        assertEquals(1, popularity.version());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void flush_ListenersRunBeforeVersionMoves() {
+        when(salesRepository.sumQuantitiesSince(any(), any(), any())).thenReturn(List.of(
+                new ProductSalesView(1L, ProductTypeEnum.FOOD, 1, 1, 1)));
+        List<Long> versionsSeenByListener = new ArrayList<>();
+        doAnswer(invocation -> versionsSeenByListener.add(popularity.version()))
+                .when(eventPublisher).publishEvent(any(Object.class));
+
+        popularity.flush();
+
+        assertEquals(List.of(0L), versionsSeenByListener);
+        assertEquals(1, popularity.version());
+    }
+
+    @Test
+    public void flush_WindowsEndWithCurrentBucketAndOldBucketsPruned() {
+        LocalDateTime before = ProductPopularityService.bucketOf(LocalDateTime.now());
+
+        popularity.flush();
+
+        verify(salesRepository).sumQuantitiesSince(
+                argThat(hourStart -> !hourStart.isBefore(before.minusMinutes(50))),
+                argThat(dayStart -> !dayStart.isBefore(before.minusHours(24).plusMinutes(10))),
+                argThat(weekStart -> !weekStart.isBefore(before.minusDays(7).plusMinutes(10))));
+        verify(salesRepository).deleteBucketsBefore(argThat(cutoff -> !cutoff.isBefore(before.minusDays(7).plusMinutes(10))));
+    }
+
+    @Test
+    public void bucketOf_TruncatesToTenMinutes() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 12, 30),
+                ProductPopularityService.bucketOf(LocalDateTime.of(2024, 5, 1, 12, 39, 59)));
+    }
+
+    private static ImmutableCartItem item(Long productId, ProductTypeEnum productType, int quantity) {
+        ProductView product = new ProductView();
+        product.setId(productId);
+        product.setProductType(productType);
+        ImmutableCartItem item = new ImmutableCartItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
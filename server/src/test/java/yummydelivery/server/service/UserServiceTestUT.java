@@ -12,9 +12,12 @@ import yummydelivery.server.exceptions.InvalidCredentialsException;
 import yummydelivery.server.model.UserEntity;
 import yummydelivery.server.repository.UserRepository;
 import yummydelivery.server.security.AuthenticationFacade;
+import yummydelivery.server.security.PrincipalCache;
+import yummydelivery.server.security.TokenVersionService;
 
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +29,10 @@ class UserServiceTestUT {
     private AuthenticationFacade authenticationFacade;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private PrincipalCache principalCache;
+    @Mock
+    private TokenVersionService tokenVersionService;
 
     @InjectMocks
     private UserService userService;
@@ -58,6 +65,9 @@ class UserServiceTestUT {
         userService.updateUserPassword(dto);
 
         verify(userRepository, times(1)).save(currentUser);
+        verify(principalCache, times(1)).invalidate(currentUser.getEmail());
+        verify(tokenVersionService, times(1)).invalidate(currentUser.getEmail());
+        assertEquals(1, currentUser.getTokenVersion());
     }
 
     @Test
@@ -77,6 +87,7 @@ class UserServiceTestUT {
 
         assertThrows(InvalidCredentialsException.class, () -> userService.updateUserPassword(dto));
         verify(userRepository, never()).save(currentUser);
+        verify(principalCache, never()).invalidate(any());
     }
 
     @Test
@@ -98,5 +109,6 @@ class UserServiceTestUT {
 
         assertThrows(InvalidCredentialsException.class, () -> userService.updateUserPassword(dto));
         verify(userRepository, never()).save(currentUser);
+        verify(principalCache, never()).invalidate(any());
     }
 }
\ No newline at end of file
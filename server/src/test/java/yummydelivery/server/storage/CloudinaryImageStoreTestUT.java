@@ -0,0 +1,87 @@
+package yummydelivery.server.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.cloudinary.utils.ObjectUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import yummydelivery.server.exceptions.CloudinaryException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CloudinaryImageStoreTestUT {
+    @Mock
+    private Cloudinary cloudinary;
+    @Mock
+    private Uploader uploader;
+    @InjectMocks
+    private CloudinaryImageStore imageStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(cloudinary.uploader()).thenReturn(uploader);
+    }
+
+    @Test
+    public void store_UploadsBytesIntoFolder() throws IOException {
+        byte[] image = {1, 2, 3};
+        when(uploader.upload(eq(image), anyMap())).thenReturn(Map.of("url", "http://res.cloudinary.com/x/YummyDeliveryImages/burger.jpg"));
+
+        String url = imageStore.store("burger", image, "jpg");
+
+        assertEquals("http://res.cloudinary.com/x/YummyDeliveryImages/burger.jpg", url);
+        verify(uploader).upload(eq(image), eq(Map.of("folder", "YummyDeliveryImages", "public_id", "burger")));
+    }
+
+    @Test
+    public void store_Alternates_OnlyPrimaryUploadedAndDeliveredWithAutomaticFormat() throws IOException {
+        byte[] jpeg = {1, 2, 3};
+        when(uploader.upload(eq(jpeg), anyMap()))
+                .thenReturn(Map.of("url", "http://res.cloudinary.com/x/image/upload/v17/YummyDeliveryImages/burger-card.jpg"));
+
+        String url = imageStore.store("burger-card", List.of(new EncodedImage(jpeg, "jpg"), new EncodedImage(new byte[]{4}, "webp")));
+
+        assertEquals("http://res.cloudinary.com/x/image/upload/f_auto,q_auto/v17/YummyDeliveryImages/burger-card.jpg", url);
+        assertEquals("YummyDeliveryImages/burger-card", CloudinaryImageStore.publicId(url));
+        verify(uploader, times(1)).upload(any(), anyMap());
+    }
+
+    @Test
+    public void store_UploadFails_CloudinaryExceptionThrown() throws IOException {
+        when(uploader.upload(any(), anyMap())).thenThrow(new IOException("connection reset"));
+
+        assertThrows(CloudinaryException.class, () -> imageStore.store("burger", new byte[]{1}, "jpg"));
+    }
+
+    @Test
+    public void delete_DestroysByPublicId() throws IOException {
+        imageStore.delete("cloudinary/qwelkqew/YummyDeliveryImages/pizza.jpg");
+
+        verify(uploader, times(1)).destroy("YummyDeliveryImages/pizza", ObjectUtils.emptyMap());
+    }
+
+    @Test
+    public void key_OverwrittenUpload_SameKeyForEveryVersion() {
+        assertEquals(imageStore.key("https://res.cloudinary.com/x/image/upload/f_auto,q_auto/v17/YummyDeliveryImages/burger-card.jpg"),
+                imageStore.key("https://res.cloudinary.com/x/image/upload/f_auto,q_auto/v18/YummyDeliveryImages/burger-card.jpg"));
+    }
+
+    @Test
+    public void publicId_HandlesVersionedAndExtensionlessUrls() {
+        assertEquals("YummyDeliveryImages/pizza",
+                CloudinaryImageStore.publicId("https://res.cloudinary.com/demo/image/upload/v17/YummyDeliveryImages/pizza.png"));
+        assertEquals("YummyDeliveryImages/Big.Pizza",
+                CloudinaryImageStore.publicId("https://res.cloudinary.com/demo/image/upload/YummyDeliveryImages/Big.Pizza.jpeg"));
+        assertEquals("YummyDeliveryImages/pizza", CloudinaryImageStore.publicId("https://cdn.example.com/pizza"));
+    }
+}
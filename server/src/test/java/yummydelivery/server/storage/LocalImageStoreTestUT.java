@@ -0,0 +1,84 @@
+package yummydelivery.server.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImageStoreTestUT {
+    private static final String BASE_URL = "http://localhost:8080/api/v1/images";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void store_InMemory_ServedUnderContentAddressedKey() {
+        LocalImageStore imageStore = new LocalImageStore("", BASE_URL + "/");
+        byte[] image = {1, 2, 3};
+
+        String url = imageStore.store("Big Burger", image, "jpg");
+
+        assertTrue(url.matches(BASE_URL + "/BigBurger-[0-9a-f]{16}\\.jpg"), url);
+        StoredImage stored = imageStore.find(key(url)).orElseThrow();
+        assertArrayEquals(image, stored.content());
+        assertEquals("image/jpeg", stored.contentType());
+        assertEquals(url, imageStore.store("Big Burger", image, "jpg"));
+        assertNotEquals(url, imageStore.store("Big Burger", new byte[]{4}, "jpg"));
+    }
+
+    @Test
+    public void store_OnDisk_WritesFileAndDeletes() {
+        LocalImageStore imageStore = new LocalImageStore(directory.toString(), BASE_URL);
+
+        String url = imageStore.store("cola", new byte[]{7, 8}, "png");
+
+        assertTrue(Files.exists(directory.resolve(key(url))));
+        assertEquals("image/png", imageStore.find(key(url)).orElseThrow().contentType());
+        imageStore.delete(url);
+        assertFalse(Files.exists(directory.resolve(key(url))));
+        assertTrue(imageStore.find(key(url)).isEmpty());
+    }
+
+    @Test
+    public void store_Alternates_StoredNextToPrimaryAndDeletedWithIt() {
+        LocalImageStore imageStore = new LocalImageStore(directory.toString(), BASE_URL);
+
+        String url = imageStore.store("cola-card", List.of(new EncodedImage(new byte[]{7, 8}, "jpg"),
+                new EncodedImage(new byte[]{9}, "webp")));
+
+        String webpKey = LocalImageStore.alternateKey(key(url), "webp");
+        assertTrue(url.endsWith(".jpg"), url);
+        StoredImage webp = imageStore.find(webpKey).orElseThrow();
+        assertArrayEquals(new byte[]{9}, webp.content());
+        assertEquals("image/webp", webp.contentType());
+        imageStore.delete(url);
+        assertTrue(imageStore.find(webpKey).isEmpty());
+    }
+
+    @Test
+    public void placeholder_AvailableAndNeverDeleted() {
+        LocalImageStore imageStore = new LocalImageStore("", BASE_URL);
+
+        imageStore.delete(imageStore.placeholderUrl());
+
+        assertEquals(BASE_URL + "/" + LocalImageStore.PLACEHOLDER_KEY, imageStore.placeholderUrl());
+        assertTrue(imageStore.find(LocalImageStore.PLACEHOLDER_KEY).isPresent());
+    }
+
+    @Test
+    public void find_KeyOutsideStore_NotServed() throws Exception {
+        Files.writeString(directory.resolve("secret.txt"), "secret");
+        LocalImageStore imageStore = new LocalImageStore(directory.resolve("images").toString(), BASE_URL);
+
+        assertTrue(imageStore.find("../secret.txt").isEmpty());
+        assertTrue(imageStore.find("..").isEmpty());
+    }
+
+    private static String key(String url) {
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+}
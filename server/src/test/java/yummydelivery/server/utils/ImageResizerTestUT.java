@@ -0,0 +1,125 @@
+package yummydelivery.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageResizerTestUT {
+
+    @Test
+    public void resize_LargeJpeg_FitsBoxAndKeepsAspectRatio() throws IOException {
+        byte[] jpeg = encode(image(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpg");
+
+        BufferedImage resized = decode(ImageResizer.resize(jpeg, 350, 350, "jpg"));
+
+        assertEquals(350, resized.getWidth());
+        assertEquals(175, resized.getHeight());
+    }
+
+    @Test
+    public void resize_PngWithAlpha_StaysPng() throws IOException {
+        byte[] png = encode(image(1200, 1200, BufferedImage.TYPE_INT_ARGB), "png");
+
+        byte[] resized = ImageResizer.resize(png, 350, 350, "png");
+
+        assertEquals((byte) 0x89, resized[0]);
+        assertEquals('P', resized[1]);
+        assertTrue(decode(resized).getColorModel().hasAlpha());
+    }
+
+    @Test
+    public void resize_PngToJpeg_AlphaDropped() throws IOException {
+        byte[] png = encode(image(800, 800, BufferedImage.TYPE_INT_ARGB), "png");
+
+        BufferedImage resized = decode(ImageResizer.resize(png, 350, 350, "jpg"));
+
+        assertFalse(resized.getColorModel().hasAlpha());
+        assertEquals(350, resized.getWidth());
+    }
+
+    @Test
+    public void resize_SmallImage_NotUpscaled() throws IOException {
+        byte[] jpeg = encode(image(200, 100, BufferedImage.TYPE_INT_RGB), "jpg");
+
+        BufferedImage resized = decode(ImageResizer.resize(jpeg, 350, 350, "jpg"));
+
+        assertEquals(200, resized.getWidth());
+        assertEquals(100, resized.getHeight());
+    }
+
+    @Test
+    public void resizeAll_OneDecode_EveryVariantFitsItsBox() throws IOException {
+        byte[] jpeg = encode(image(2400, 1200, BufferedImage.TYPE_INT_RGB), "jpg");
+
+        BufferedImage[] resized = ImageResizer.resizeAll(jpeg, 160, 800, 350);
+
+        assertEquals(160, resized[0].getWidth());
+        assertEquals(80, resized[0].getHeight());
+        assertEquals(800, resized[1].getWidth());
+        assertEquals(350, resized[2].getWidth());
+        assertEquals(175, resized[2].getHeight());
+    }
+
+    @Test
+    public void encode_FormatWithoutWriter_IOExceptionThrown() {
+        BufferedImage image = image(10, 10, BufferedImage.TYPE_INT_RGB);
+
+        assertFalse(ImageResizer.canEncode("no-such-format"));
+        assertThrows(IOException.class, () -> ImageResizer.encode(image, "no-such-format"));
+    }
+
+    @Test
+    public void decodeSubsampled_DecodesNoMoreThanTwiceTheTarget() throws IOException {
+        byte[] jpeg = encode(image(4000, 3000, BufferedImage.TYPE_INT_RGB), "jpg");
+
+        BufferedImage decoded = ImageResizer.decodeSubsampled(jpeg, 350, 350);
+
+        assertEquals(1000, decoded.getWidth());
+        assertEquals(750, decoded.getHeight());
+    }
+
+    @Test
+    public void subsamplingFor_NeverBelowOne() {
+        assertEquals(1, ImageResizer.subsamplingFor(500, 500, 350, 350));
+        assertEquals(4, ImageResizer.subsamplingFor(4000, 3000, 350, 350));
+    }
+
+    @Test
+    public void resize_NotAnImage_IOExceptionThrown() {
+        assertThrows(IOException.class, () -> ImageResizer.resize(new byte[]{1, 2, 3}, 350, 350, "jpg"));
+    }
+
+    @Test
+    public void outputFormat_OnlyPngKeepsItsFormat() {
+        assertEquals("png", ImageResizer.outputFormat("logo.PNG"));
+        assertEquals("jpg", ImageResizer.outputFormat("photo.jpeg"));
+        assertEquals("jpg", ImageResizer.outputFormat(null));
+    }
+
+    private static BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = type == BufferedImage.TYPE_INT_ARGB ? (x % 256) << 24 : 0xFF000000;
+                image.setRGB(x, y, alpha | ((x * 255 / width) << 16) | ((y * 255 / height) << 8) | 0x40);
+            }
+        }
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        return output.toByteArray();
+    }
+
+    private static BufferedImage decode(byte[] image) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(image));
+    }
+}